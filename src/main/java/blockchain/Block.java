@@ -5,6 +5,8 @@ import java.util.List;
 
 import hashing.Hasher;
 import hashing.HashingTools;
+import hashing.MerkleProof;
+import hashing.MerkleTree;
 import signature.SignedBytes;
 import skipGraph.NodeInfo;
 import skipGraph.SkipNode;
@@ -17,6 +19,10 @@ public class Block extends NodeInfo {
 	private final int owner;
 	private List<Transaction> transactionSet;
 	private final String hash;
+	// root of the Merkle tree over the leaf hashes of the transactions
+	private final byte[] merkleRoot;
+	// built on the first inclusion proof
+	private transient MerkleTree merkleTree;
 	private List<SignedBytes> sigma;
 	private Hasher hasher;
 	private final int index;
@@ -34,7 +40,8 @@ public class Block extends NodeInfo {
 		this.transactionSet = new ArrayList<>();
 		this.sigma = new ArrayList<>();
 		hasher = new HashingTools();
-		this.hash = hasher.getHash(prev + owner, levels);
+		this.merkleRoot = merkleRoot(hasher, transactionSet);
+		this.hash = hash(hasher, prev, owner, merkleRoot, levels);
 		super.setNumID(Integer.parseInt(this.hash, 2));
 	}
 
@@ -47,10 +54,29 @@ public class Block extends NodeInfo {
 		this.levels = levels;
 		this.sigma = new ArrayList<>();
 		hasher = new HashingTools();
-		this.hash = hasher.getHash(prev + owner + getTransactionSetString(), levels);
+		this.merkleRoot = merkleRoot(hasher, tList);
+		this.hash = hash(hasher, prev, owner, merkleRoot, levels);
 		super.setNumID(Integer.parseInt(this.hash, 2));
 	}
 
+	/**
+	 * Rebuilds a block from its already computed fields, e.g. when it is decoded from the wire. The
+	 * hash and the Merkle root are taken as given and not recomputed.
+	 */
+	public Block(String prev, int owner, String hash, byte[] merkleRoot, String address, int numID,
+			String nameID, List<Transaction> tList, List<SignedBytes> sigma, int idx, int levels) {
+		super(address, numID, nameID);
+		this.index = idx;
+		this.prev = prev;
+		this.owner = owner;
+		this.hash = hash;
+		this.merkleRoot = merkleRoot;
+		this.transactionSet = tList;
+		this.sigma = sigma;
+		this.levels = levels;
+		hasher = new HashingTools();
+	}
+
 	public Block(Block blk) {
 		super(blk.getAddress(), blk.getNumID(), blk.getNameID());
 		hasher = new HashingTools();
@@ -59,6 +85,7 @@ public class Block extends NodeInfo {
 		this.owner = blk.getOwner();
 		this.transactionSet = blk.getTransactionSet();
 		this.hash = blk.getHash();
+		this.merkleRoot = blk.getMerkleRoot();
 		this.sigma = blk.getSigma();
 		this.levels = blk.getLevels();
 	}
@@ -79,6 +106,10 @@ public class Block extends NodeInfo {
 		return hash;
 	}
 
+	public byte[] getMerkleRoot() {
+		return merkleRoot;
+	}
+
 	public List<SignedBytes> getSigma() {
 		return sigma;
 	}
@@ -89,6 +120,7 @@ public class Block extends NodeInfo {
 
 	public void addTransactions(List<Transaction> tList) {
 		transactionSet = tList;
+		merkleTree = null;
 	}
 
 	public int getIndex() {
@@ -104,6 +136,71 @@ public class Block extends NodeInfo {
 		return prev + owner + getTransactionSetString();
 	}
 
+	/**
+	 * Returns the proof that a transaction is part of this block, which is checked
+	 * against the Merkle root alone with {@link Block#verifyInclusion}.
+	 *
+	 * @param t the transaction
+	 * @return the inclusion proof, or null if the transaction is not in the block
+	 */
+	public synchronized MerkleProof getInclusionProof(Transaction t) {
+		if (transactionSet == null)
+			return null;
+		for (int i = 0; i < transactionSet.size(); ++i) {
+			if (transactionSet.get(i).getHash().equals(t.getHash())) {
+				if (merkleTree == null)
+					merkleTree = new MerkleTree(hasher, leaves(transactionSet));
+				return merkleTree.getProof(i);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Checks that a transaction is part of the block with the given Merkle root,
+	 * without the other transactions of the block.
+	 *
+	 * @param t          the transaction
+	 * @param proof      the inclusion proof of the transaction
+	 * @param merkleRoot the Merkle root of the block
+	 * @return true if the transaction is in the block
+	 */
+	public static boolean verifyInclusion(Transaction t, MerkleProof proof, byte[] merkleRoot) {
+		if (proof == null)
+			return false;
+		return proof.verify(new HashingTools(), t.getLeafHash(), merkleRoot);
+	}
+
+	/**
+	 * Computes the hash of a block from its fields. The transactions enter the hash
+	 * through their Merkle root, so checking the hash of a block takes the root and
+	 * three more fields.
+	 *
+	 * @param hasher     the hasher to use
+	 * @param prev       the hash of the previous block
+	 * @param owner      numID of the owner of the block
+	 * @param merkleRoot the Merkle root of the transactions of the block
+	 * @param levels     the number of bits of the hash
+	 * @return the hash of the block
+	 */
+	public static String hash(Hasher hasher, String prev, int owner, byte[] merkleRoot, int levels) {
+		return hasher.newStream().add(prev).add(owner).add(merkleRoot).getHash(levels);
+	}
+
+	/**
+	 * Computes the root of the Merkle tree over the leaf hashes of the transactions.
+	 */
+	public static byte[] merkleRoot(Hasher hasher, List<Transaction> tList) {
+		return MerkleTree.root(hasher, leaves(tList));
+	}
+
+	private static List<byte[]> leaves(List<Transaction> tList) {
+		List<byte[]> leaves = new ArrayList<>(tList.size());
+		for (int i = 0; i < tList.size(); ++i)
+			leaves.add(tList.get(i).getLeafHash());
+		return leaves;
+	}
+
 	private String getTransactionSetString() {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < transactionSet.size(); ++i)
@@ -18,6 +18,8 @@ public interface LightChainInterface extends SkipGraphNode {
 
 	public void removeFlagNode();
 
+	public void notifyNewBlock(Block blk);
+
 	public Configuration getConf();
 
 	public SimLog startSim(int numTransactions, int pace);
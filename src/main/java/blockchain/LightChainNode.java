@@ -9,11 +9,14 @@ import simulation.SimLog;
 import skipGraph.NodeInfo;
 import skipGraph.SkipNode;
 import underlay.InterfaceType;
+import underlay.ResponseFutures;
 import underlay.Underlay;
 import underlay.rmi.RMIUnderlay;
 import underlay.requests.lightchain.GetPublicKeyRequest;
+import underlay.requests.lightchain.NewBlockRequest;
 import underlay.requests.lightchain.PoVRequest;
 import underlay.requests.lightchain.RemoveFlagNodeRequest;
+import underlay.responses.GenericResponse;
 import underlay.responses.PublicKeyResponse;
 import underlay.responses.SignatureResponse;
 import util.Const;
@@ -22,6 +25,12 @@ import util.Util;
 import java.io.FileNotFoundException;
 import java.security.PublicKey;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static underlay.responses.PublicKeyResponse.PublicKeyResponseOf;
 import static underlay.responses.SignatureResponse.SignatureResponseOf;
@@ -29,11 +38,45 @@ import static underlay.responses.SignatureResponse.SignatureResponseOf;
 public class LightChainNode extends SkipNode implements LightChainInterface {
 
   private static final long serialVersionUID = 1L;
+  /** A validator that does not answer a PoV request within this time (in ms) is skipped. */
+  private static final long POV_TIMEOUT = 30_000;
+  /** Number of times the latest block is looked up before getLatestBlock gives up. */
+  private static final int LATEST_BLOCK_ATTEMPTS = 50;
+  /** Maximum number of verified public keys of other nodes that are kept. */
+  private static final int PUBLIC_KEY_CACHE_CAPACITY = 4096;
+  /** Maximum number of authenticated transactions that are remembered for block validation. */
+  private static final int VALIDATED_TX_CACHE_CAPACITY = 8192;
+  /** Maximum number of pending transactions that are kept for mining. */
+  private static final int MEMPOOL_CAPACITY = 4096;
+  /** Maximum number of hashes of blocks this node approved that are remembered for pushes. */
+  private static final int SIGNED_BLOCKS_CAPACITY = 1024;
+  /**
+   * Checks the transactions of a block during PoV. It is shared by all the nodes of a JVM, so the
+   * number of threads verifying signatures stays bounded however many blocks are validated at once.
+   */
+  private static final ExecutorService txVerifier = Executors.newFixedThreadPool(
+      Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+        Thread t = new Thread(r, "LightChainNode-txVerifier");
+        t.setDaemon(true);
+        return t;
+      });
   private List<Transaction> transactions;
   private DigitalSignature digitalSignature;
   private Hasher hasher;
   private Validator validator;
   public View view;
+  private TipCache tipCache;
+  private PublicKeyCache publicKeys = new PublicKeyCache(PUBLIC_KEY_CACHE_CAPACITY);
+  private ValidatedTransactionCache validatedTransactions =
+      new ValidatedTransactionCache(VALIDATED_TX_CACHE_CAPACITY);
+  private Mempool mempool = new Mempool(MEMPOOL_CAPACITY);
+  private SignedBlockCache signedBlocks = new SignedBlockCache(SIGNED_BLOCKS_CAPACITY);
+  private final AtomicLong viewRefreshes = new AtomicLong();
+  private final AtomicLong viewRefreshSkips = new AtomicLong();
+  private final AtomicLong staleViewDecisions = new AtomicLong();
+  // the tail whose transactions updateView collected last, and when
+  private volatile String viewWalkHash;
+  private volatile long viewWalkTime;
   public boolean mode;
   private int balance = 20;
   private SimLog simLog = new SimLog(true);
@@ -58,18 +101,21 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
       {
     super(port, params.getLevels(), introducer, underlay);
     this.params = params;
-    this.digitalSignature = new DigitalSignature();
+    this.digitalSignature = new DigitalSignature(params.getSignatureScheme());
     this.hasher = new HashingTools();
     this.transactions = new ArrayList<>();
     this.view = new View();
+    this.tipCache = new TipCache(params.getTipCacheTTL());
     this.mode = params.getMode();
     this.token = params.getInitialToken();
+    setSearchMode(params.getSearchMode());
     this.logger = Logger.getLogger(port + "");
     Tmode = (int) Math.round(Math.random());
     String name = hasher.getHash(digitalSignature.getPublicKey().getEncoded(), params.getLevels());
     super.setNumID(Integer.parseInt(name, 2));
     name = hasher.getHash(name, params.getLevels());
     super.setNameID(name);
+    publicKeys.put(numID, digitalSignature.getPublicKey());
 
     if (isInitial) isInserted = true;
 
@@ -97,27 +143,35 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
   /**
    * This method goes to the tail of the blockchain and iterates over the transactions pointing at
    * it, and then updating the entries corresponding to the owners of the transactions in the view
-   * table.
+   * table. The tail is usually served by the tip cache. If the transactions pointing at it were
+   * collected less than params.getTipCacheTTL() ago, the view is returned as it is, so a search for
+   * them is needed once per new tail and after that at most once per TTL, to apply those that were
+   * inserted in the meantime.
    *
    * <p>TODO: investigate storing only the index of the block in the view table instead of its numID
    */
   public View updateView() {
     try {
-      logger.debug("Updating view");
       // get the tail of blockchain
       Block blk = getLatestBlock();
+      if (blk == null) return null;
+      long now = System.currentTimeMillis();
+      if (view.isApplied(blk)
+          && blk.getHash().equals(viewWalkHash)
+          && now - viewWalkTime < params.getTipCacheTTL()) {
+        viewRefreshSkips.incrementAndGet();
+        return view;
+      }
+      logger.debug("Updating view");
       // change numID to nameID format to search for transactions
       String name = numToName(blk.getNumID());
       // get transactions pointing at the tail
       List<Transaction> tList = getTransactionsWithNameID(name);
       if (tList == null) return null;
-      // iterate over found transactions pointing at the blockchain
-      for (int i = 0; i < tList.size(); ++i) {
-        int owner = tList.get(i).getOwner();
-        view.updateLastBlk(owner, blk.getNumID());
-        // updating token in view
-        view.updateToken(owner, this.token);
-      }
+      tList.addAll(mempool.select(blk.getHash(), MEMPOOL_CAPACITY));
+      applyToView(blk, tList);
+      viewWalkHash = blk.getHash();
+      viewWalkTime = now;
       logger.debug("view successfully updated");
       return view;
     } catch (Exception e) {
@@ -127,9 +181,38 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
   }
 
   /**
-   * This method finds the latest block on the blockchain and takes its numID and uses it to find
-   * all transactions that have this numID as nameID and uses getTransactionsWithNameID() method to
-   * get such transactions, and if the number of found transactions is at least TX_MIN, the
+   * Applies the tail of the blockchain and the transactions pointing at it to the view.
+   *
+   * @param blk the tail of the blockchain
+   * @param tList the transactions pointing at the tail that are known
+   */
+  private void applyToView(Block blk, List<Transaction> tList) {
+    if (!view.applyBlock(blk, tList)) return;
+    viewRefreshes.incrementAndGet();
+    // iterate over found transactions pointing at the blockchain
+    for (int i = 0; i < tList.size(); ++i) {
+      // updating token in view
+      view.updateToken(tList.get(i).getOwner(), this.token);
+    }
+  }
+
+  /**
+   * Counts a PoV decision as stale if the view changed while it was taken.
+   *
+   * @param version the version of the view the decision started with
+   */
+  private void checkViewVersion(long version) {
+    if (view.getVersion() != version) {
+      staleViewDecisions.incrementAndGet();
+      logger.debug("View changed during validation");
+    }
+  }
+
+  /**
+   * This method finds the latest block on the blockchain and takes the transactions that point to
+   * it from the mempool. Only if the mempool does not hold TX_MIN of them, it takes the block's
+   * numID and uses it to find all transactions that have this numID as nameID using
+   * getTransactionsWithNameID(). If the number of found transactions is at least TX_MIN, the
    * transactions are casted into a block and the block is sent for validation.
    */
   public Block mineAttempt() {
@@ -147,15 +230,26 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
 
       logger.debug("Found Latest Block: " + blk.getNumID());
 
-      String name = numToName(blk.getNumID());
-
-      logger.debug("Getting transaction batch with same NameID");
-      // Get all transaction with this nameID
-      List<Transaction> tList = getTransactionsWithNameID(name);
-      logger.debug("Transactions with same Name ID found"); 
+      List<Transaction> tList = mempool.select(blk.getHash(), params.getTxMin());
+      logger.debug("Transactions found in mempool: " + tList.size());
+      if (tList.size() < params.getTxMin()) {
+        String name = numToName(blk.getNumID());
+
+        logger.debug("Getting transaction batch with same NameID");
+        // Get transactions with this nameID, and add those the mempool does not hold yet. The ones
+        // taken from the mempool may be found again, so as many more are asked for.
+        List<Transaction> found = getTransactionsWithNameID(name, params.getTxMin() + tList.size());
+        logger.debug("Transactions with same Name ID found");
+        Set<String> selected = new HashSet<>();
+        for (Transaction t : tList) selected.add(t.getHash());
+        for (int i = 0; found != null && i < found.size(); ++i) {
+          if (tList.size() == params.getTxMin()) break;
+          if (selected.add(found.get(i).getHash())) tList.add(found.get(i));
+        }
+      }
       // If number of transactions obtained is less than TX_MIN then we terminate the
       // process
-      if (tList == null || tList.size() < params.getTxMin()) {
+      if (tList.size() < params.getTxMin()) {
         logger.debug("Mining Failed: not enough transaction found: " + tList.size());
         simLog.logMineAttemptLog(false, false, System.currentTimeMillis() - startTotal, -1);
         return null;
@@ -174,7 +268,8 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
       logger.debug("Validating new Block ...");
 
       long startValid = System.currentTimeMillis();
-      boolean isValidated = validateBlock(newBlk);
+      List<NodeInfo> validators = getValidators(newBlk.getHash());
+      boolean isValidated = validateBlock(newBlk, validators);
       //boolean isValidated = true;
       long endValid = System.currentTimeMillis();
       
@@ -191,7 +286,7 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
       logger.debug("Mining Sucessful");
  
       // insert new block after it was validated
-      insertBlock(newBlk, blk.getAddress());
+      insertBlock(newBlk, blk.getAddress(), validators);
       logger.debug("New Block Inserted");
 
       long endTotal = System.currentTimeMillis();
@@ -216,6 +311,65 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
   /** removes the flag node pointing to the latest block that was inserted by this node */
   public void removeFlagNode() {
     super.delete(Const.ZERO_ID);
+    // the flag is only removed when a newer block is inserted
+    tipCache.invalidate();
+  }
+
+  /**
+   * Caches a block that a peer has inserted after this node validated it, so the new tail is known
+   * without looking it up, and applies it to the view. Blocks that are not newer than the cached
+   * tail are not cached, but their transactions still leave the mempool. A pushed block is only
+   * cached, applied to the view and its transactions removed from the mempool if it passes
+   * verifyPushedBlock, so an unverified push cannot move the view to a tail that does not exist.
+   *
+   * @param blk the new latest block
+   */
+  public void notifyNewBlock(Block blk) {
+    if (!verifyPushedBlock(blk)) {
+      logger.debug("Pushed block dropped: " + blk.getNumID());
+      return;
+    }
+    mempool.removeIncluded(blk);
+    applyToView(blk, mempool.select(blk.getHash(), MEMPOOL_CAPACITY));
+    if (tipCache.offer(blk)) logger.debug("Latest block pushed: " + blk.getNumID());
+  }
+
+  /**
+   * Checks a block that a peer pushed: this node must have approved the block during its PoV, the
+   * block must be authentic, and at least the signatures threshold of its validators must have
+   * signed it. The validators are derived as the owner derived them, i.e. without the owner.
+   *
+   * @param blk the pushed block
+   * @return true if the block can be taken as the new tail
+   */
+  private boolean verifyPushedBlock(Block blk) {
+    try {
+      if (!signedBlocks.contains(blk.getHash())) {
+        logger.debug("Pushed block was not signed by this node");
+        return false;
+      }
+      if (!isAuthenticated(blk)) return false;
+      List<SignedBytes> blkSigma = blk.getSigma();
+      int numValidations = 0;
+      for (NodeInfo node : getValidators(blk.getHash(), blk.getAddress())) {
+        PublicKey publicKey = getOwnerPublicKey(node.getNumID());
+        if (publicKey == null) continue;
+        for (int i = 0; i < blkSigma.size(); ++i) {
+          if (digitalSignature.verifyString(blk.getHash(), blkSigma.get(i), publicKey)) {
+            numValidations++;
+            break;
+          }
+        }
+      }
+      if (numValidations < params.getSignaturesThreshold()) {
+        logger.debug("Pushed block does not carry enough validator signatures");
+        return false;
+      }
+      return true;
+    } catch (Exception e) {
+      e.printStackTrace();
+      return false;
+    }
   }
 
   /**
@@ -240,6 +394,8 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
 	boolean verified = validateTransaction(t);
         if (verified) {
           insertTransaction(t);
+          mempool.add(t);
+          view.applyTransaction(t);
           logger.debug("Transaction Successfully Added");
           return t;
         }
@@ -264,6 +420,18 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
     logger.debug("Transaction Inserted!");
   }
 
+  /**
+   * inserts a burst of transactions into the overlay in one pass
+   *
+   * @param tList transactions to be inserted
+   * @see SkipNode#insertNodes(List)
+   */
+  public void insertTransactions(List<Transaction> tList) {
+    logger.debug("Inserting " + tList.size() + " Transactions");
+    super.insertNodes(new ArrayList<NodeInfo>(tList));
+    logger.debug("Transactions Inserted!");
+  }
+
   /**
    * inserts a new block into the overlay
    *
@@ -271,12 +439,33 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
    */
   public void insertBlock(Block blk, String prevAddress)
       throws FileNotFoundException {
+    insertBlock(blk, prevAddress, Collections.<NodeInfo>emptyList());
+  }
+
+  /**
+   * inserts a new block into the overlay and, if params.getTipPush() is set, tells the given peers
+   * that it is the new tail of the blockchain
+   *
+   * @param blk block to be inserted into the overlay
+   * @param peers the peers to push the block to, e.g. its validators
+   */
+  private void insertBlock(Block blk, String prevAddress, List<NodeInfo> peers)
+      throws FileNotFoundException {
     if (!prevAddress.equals(getAddress())) {
       underlay.sendMessage(
           new RemoveFlagNodeRequest(), prevAddress);
       logger.debug("Inserting Block");
       insertNode(blk);
       insertFlagNode(blk);
+      tipCache.offer(blk);
+      mempool.removeIncluded(blk);
+      applyToView(blk, mempool.select(blk.getHash(), MEMPOOL_CAPACITY));
+      if (params.getTipPush()) {
+        // the peers do not have to answer, so the push is not waited for
+        for (NodeInfo peer : peers) {
+          underlay.sendMessageAsync(new NewBlockRequest(blk), peer.getAddress(), POV_TIMEOUT);
+        }
+      }
     }
   }
 
@@ -292,27 +481,35 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
     // use current address as prev when inserting genesis block
     insertNode(b);
     insertFlagNode(b);
+    tipCache.offer(b);
     logger.debug("Inserting Genesis Block " + b.getNumID());
     return b;
   }
 
   /**
-   * This method finds the latest block on the blockchain.
+   * This method finds the latest block on the blockchain. The block is served from the tip cache
+   * while it is fresh, and is otherwise looked up through the flag node, which is retried a bounded
+   * number of times while the flag points to a block that is not inserted yet.
    *
-   * @return the latest block on the ledger
-   *     <p>TODO: this should be refactored
+   * @return the latest block on the ledger, or null if it could not be found
    */
   public Block getLatestBlock() {
+    Block cached = tipCache.get();
+    if (cached != null) return cached;
+    long version = tipCache.getVersion();
     try {
-      logger.debug("searching for flag");
+      for (int attempt = 0; attempt < LATEST_BLOCK_ATTEMPTS; attempt++) {
+        logger.debug("searching for flag");
 
-      NodeInfo flag = searchByNumID(Const.ZERO_ID);
+        NodeInfo flag = searchByNumID(Const.ZERO_ID);
 
-      logger.debug("searching for block");
-      int num = Integer.parseInt(flag.getNameID(), 2);
-      NodeInfo blk = searchByNumID(num);
-      if (blk instanceof Block) return (Block) blk;
-      else {
+        logger.debug("searching for block");
+        int num = Integer.parseInt(flag.getNameID(), 2);
+        NodeInfo blk = searchByNumID(num);
+        if (blk instanceof Block) {
+          tipCache.put((Block) blk, version);
+          return (Block) blk;
+        }
         logger.error(
             blk.getNumID()
                 + " was returned when "
@@ -321,8 +518,9 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
                 + blk.getClass());
         logLevel(Const.ZERO_LEVEL);
         Thread.sleep(100);
-        return getLatestBlock();
       }
+      logger.error("latest block not found after " + LATEST_BLOCK_ATTEMPTS + " attempts");
+      return null;
     } catch (Exception e) {
       e.printStackTrace();
       logger.error("NullPointer: ", e);
@@ -357,51 +555,72 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
    * @return a list of transactions that have name as nameID
    */
   public List<Transaction> getTransactionsWithNameID(String name) {
+    return getTransactionsWithNameID(name, Integer.MAX_VALUE);
+  }
+
+  /**
+   * This function retreives up to limit transactions with a certain nameID, and stops walking the
+   * skip graph once it has found them
+   *
+   * @param name the nameID for which we want to collect transactions that have it as nameID
+   * @param limit the maximum number of transactions to collect
+   * @return a list of at most limit transactions that have name as nameID
+   */
+  public List<Transaction> getTransactionsWithNameID(String name, int limit) {
 
-    List<NodeInfo> list = getNodesWithNameID(name);
+    List<NodeInfo> list = getNodesWithNameID(name, limit);
+    if (list == null) return null;
     List<Transaction> tList = new ArrayList<>();
     logger.debug("found " + list.size() + " nodes with nameID " + name);
     for (NodeInfo t : list) {
       if (t instanceof Transaction) tList.add((Transaction) t);
-      if (tList.size() == params.getTxMin()) break;
+      if (tList.size() == limit) break;
     }
     return tList;
   }
 
   /**
    * This method is called by a node to validate a block that it has created. First it gets the
-   * validators of the block, and then contacts each validator and asks them to validate the block
-   * using PoV and then gets their signatures of the hash value of the block if the validation was
-   * successful and gets null otherwise.
+   * validators of the block, and then contacts the validators concurrently and asks them to validate
+   * the block using PoV and then gets their signatures of the hash value of the block if the
+   * validation was successful and gets null otherwise. The block is valid once the signatures
+   * threshold is reached.
    *
    * @param blk is the block to be validated
    * @return true of block is valid, and false if block is not valid
    */
   public boolean validateBlock(Block blk) {
+    return validateBlock(blk, getValidators(blk.getHash()));
+  }
+
+  /**
+   * Validates a block with the given validators.
+   *
+   * @param blk is the block to be validated
+   * @param validators the validators of the block, as returned by getValidators
+   * @return true of block is valid, and false if block is not valid
+   */
+  private boolean validateBlock(Block blk, List<NodeInfo> validators) {
     try {
 
-      List<NodeInfo> validators = getValidators(blk.toString());
       logger.debug("Got validators: " + validators);
       // add the owner's signature to the block
       SignedBytes mySignature = digitalSignature.signString(blk.getHash());
 
       blk.addSignature(mySignature);
-      // iterate over validators and ask them to validate the block
-      for (int i = 0; i < validators.size(); ++i) {
-        logger.debug("Checking Signatures in Block");
-	// TODO: add a dummy signedBytes value
-        SignatureResponse response = SignatureResponseOf(underlay.sendMessage(
-                new PoVRequest(blk),
-                validators.get(i).getAddress()));
-        SignedBytes signature = response.result;
-	logger.debug("Response: " + response + " Signature: " + signature + " My Signature " + mySignature);
-        // if one validator returns null, then validation has failed
-        if (signature == null) {
-          logger.debug("Block Rejected");
-          return false;
-        }
+      // ask all validators at once to validate the block
+      List<SignedBytes> responses = requestSignatures(new PoVRequest(blk), validators);
+      int numValidations = 0;
+      for (SignedBytes signature : responses) {
+        if (signature.getBytes() == null) continue;
+        numValidations++;
         blk.addSignature(signature);
       }
+      // if not enough validators signed the block, then validation has failed
+      if (numValidations < params.getSignaturesThreshold()) {
+        logger.debug("Block Rejected");
+        return false;
+      }
       // update the sigma array of the block with all the signatures
       logger.debug("Block Approved");
 
@@ -415,8 +634,8 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
 
   /**
    * The method is called by a node to validate a transaction that it has created First it gets the
-   * validators of the transaction, and then contacts each of them to get their signatures and
-   * stores their signatures in the sigma list.
+   * validators of the transaction, and then contacts them concurrently to get their signatures and
+   * stores their signatures in the sigma list until the signatures threshold is reached.
    *
    * @param t transaction to be validated
    * @return true if transaction is valid, and false if it is not valid
@@ -445,12 +664,9 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
       int numValidations = 0;
       long timePerValidator = 0;
 
-      // iterate over validators and use RMI to ask them to validate the transaction
-      for (int i = 0; i < validators.size(); ++i) {
-        SignatureResponse response = SignatureResponseOf(underlay.sendMessage(
-                new PoVRequest(t),
-                validators.get(i).getAddress()));
-        SignedBytes signature = response.result;
+      // ask all validators at once to validate the transaction
+      List<SignedBytes> responses = requestSignatures(new PoVRequest(t), validators);
+      for (SignedBytes signature : responses) {
 
         if (signature.isAuth()) isAuthenticated++;
         if (signature.isCorrect()) isCorrect++;
@@ -462,9 +678,8 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
           numValidations++;
 	  logger.debug("Validation nr " + numValidations + " of " + validators.size() + " for Transaction " + t);
           timePerValidator += signature.getValidationTime();
+          t.addSignature(signature);
         }
-
-        t.addSignature(signature);
       }
 
       validated = (numValidations >= params.getSignaturesThreshold());
@@ -491,6 +706,40 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
     }
   }
 
+  /**
+   * Sends the PoV request to all of the validators concurrently and collects their answers until
+   * params.getSignaturesThreshold() of them have signed, or until so many of them have refused,
+   * failed or timed out that the threshold can no longer be reached. The requests that are still
+   * in flight at that point are cancelled.
+   *
+   * @param req the PoV request of a transaction or a block
+   * @param validators the validators to ask
+   * @return the answers that arrived, signed or not; validators that failed are left out
+   */
+  private List<SignedBytes> requestSignatures(PoVRequest req, List<NodeInfo> validators) throws Exception {
+    List<CompletableFuture<GenericResponse>> futures = new ArrayList<>();
+    for (NodeInfo validator : validators) {
+      futures.add(underlay.sendMessageAsync(req, validator.getAddress(), POV_TIMEOUT));
+    }
+    ResponseFutures.quorum(futures, params.getSignaturesThreshold(), LightChainNode::isSigned).get();
+
+    List<SignedBytes> signatures = new ArrayList<>();
+    for (CompletableFuture<GenericResponse> future : futures) {
+      if (!future.isDone() || future.isCompletedExceptionally()) continue;
+      GenericResponse response = future.join();
+      if (response instanceof SignatureResponse && SignatureResponseOf(response).result != null) {
+        signatures.add(SignatureResponseOf(response).result);
+      }
+    }
+    return signatures;
+  }
+
+  private static boolean isSigned(GenericResponse response) {
+    return response instanceof SignatureResponse
+        && SignatureResponseOf(response).result != null
+        && SignatureResponseOf(response).result.getBytes() != null;
+  }
+
   /**
    * This method is used to validate a block. It checks : 1) Authenticity 2) Consistency 3)
    * Authenticity and soundness of the transactions it contains.
@@ -499,31 +748,66 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
    * @return signature of validator in case block is valid, or null if block is invalid
    */
   public SignedBytes PoV(Block blk) {
+    long start = System.currentTimeMillis();
+    int numTransactions = blk.getTransactionSet().size();
     try {
       updateView();
+      long viewVersion = view.getVersion();
       boolean isAuth = isAuthenticated(blk);
       boolean isCons = isConsistent(blk);
       boolean val = isAuth && isCons;
-      if (val == false) return new SignedBytes(null, isAuth, true, true, true);
-      // iterate over transactions and check them one by one
-      List<Transaction> ts = blk.getTransactionSet();
-      for (int i = 0; i < ts.size(); ++i) {
-        if (!isAuthenticated(ts.get(i)) /* || !isSound(ts.get(i)) */) {
-          logger.debug("Transaction inside block is not authentic");
-          return new SignedBytes(null, isAuth, true, true, true);
-        }
+      checkViewVersion(viewVersion);
+      if (val == false) {
+        simLog.logBlockPoV(false, numTransactions, System.currentTimeMillis() - start);
+        return new SignedBytes(null, isAuth, true, true, true);
+      }
+      if (!areAuthenticated(blk.getTransactionSet())) {
+        logger.debug("Transaction inside block is not authentic");
+        simLog.logBlockPoV(false, numTransactions, System.currentTimeMillis() - start);
+        return new SignedBytes(null, isAuth, true, true, true);
       }
       logger.debug("Block Approved");
+      signedBlocks.put(blk.getHash());
       SignedBytes signedHash =
           new SignedBytes(
               digitalSignature.signString(blk.getHash()).getBytes(), isAuth, true, true, true);
+      simLog.logBlockPoV(true, numTransactions, System.currentTimeMillis() - start);
       return signedHash;
     } catch (Exception e) {
       e.printStackTrace();
+      simLog.logBlockPoV(false, numTransactions, System.currentTimeMillis() - start);
       return null;
     }
   }
 
+  /**
+   * Checks the authenticity of the transactions of a block concurrently on the shared verifier
+   * pool. Transactions this node has already authenticated, e.g. during their own PoV, are not
+   * checked again. The check stops as soon as one transaction is rejected: the checks that have
+   * not started yet are cancelled, and the result of the running ones is ignored.
+   *
+   * @param ts the transactions of a block
+   * @return true if every transaction is authentic, or false if one of them is not or could not be
+   *     checked within POV_TIMEOUT
+   */
+  private boolean areAuthenticated(List<Transaction> ts) throws Exception {
+    List<CompletableFuture<Boolean>> checks = new ArrayList<>(ts.size());
+    for (Transaction t : ts) {
+      if (validatedTransactions.isAuthenticated(t)) continue;
+      checks.add(CompletableFuture.supplyAsync(() -> isAuthenticated(t) /* && isSound(t) */, txVerifier));
+    }
+    try {
+      List<Boolean> accepted =
+          ResponseFutures.quorum(checks, checks.size(), Boolean.TRUE::equals)
+              .get(POV_TIMEOUT, TimeUnit.MILLISECONDS);
+      return accepted.size() == checks.size();
+    } catch (TimeoutException e) {
+      for (CompletableFuture<Boolean> check : checks) check.cancel(true);
+      logger.debug("Transactions of block not checked within " + POV_TIMEOUT + " ms");
+      return false;
+    }
+  }
+
   /**
    * This method recieves a block and checks if: 1) its hash value is generated properly 2) checks
    * if it contains the signature of its owner
@@ -534,14 +818,15 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
   public boolean isAuthenticated(Block blk) {
     try {
 
-      // concatenate the string values of transactions
-      StringBuilder sb = new StringBuilder();
-      for (int i = 0; i < blk.getTransactionSet().size(); ++i) {
-        sb.append(blk.getTransactionSet().get(i).toString());
+      // recompute the Merkle root of the transactions, generate the hash value from it and the
+      // other fields of the block, and then compare both with the block's
+      byte[] merkleRoot = Block.merkleRoot(hasher, blk.getTransactionSet());
+      if (!Arrays.equals(merkleRoot, blk.getMerkleRoot())) {
+        logger.debug("Merkle root of block not generated properly");
+        return false;
       }
-      // generate the hash value and then compare it with the block's
       String hash =
-          hasher.getHash(blk.getPrev() + blk.getOwner() + sb.toString(), params.getLevels());
+          Block.hash(hasher, blk.getPrev(), blk.getOwner(), merkleRoot, params.getLevels());
       if (!hash.equals(blk.getHash())) {
         logger.debug("Hash of block not generated properly");
         return false;
@@ -581,6 +866,12 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
 
       Block lstBlk = getLatestBlock();
       boolean res = blk.getPrev().equals(lstBlk.getHash());
+      if (res == false) {
+        // the cached tail may be outdated, so a mismatch is checked against the current one
+        tipCache.invalidate();
+        lstBlk = getLatestBlock();
+        res = blk.getPrev().equals(lstBlk.getHash());
+      }
       if (res == false) {
         logger.debug("Block not consistent");
       }
@@ -594,26 +885,47 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
 
   /**
    * This method takes the hash of a transaction or a block and returns
+   * its validators. The candidates still needed are searched for together in
+   * one searchByNumIDs, so a round costs about the time of a single search, and
+   * a new round is only started for the candidates that turned out not to be
+   * unique. Blocks are looked up by their hash, which already commits to every
+   * field and is much shorter than their string form.
    *
    * @param str hash of transaction or block whose validators are to be fetched
    * @return a list of validators for the given transactions
    */
   public List<NodeInfo> getValidators(String str) {
+    return getValidators(str, address);
+  }
+
+  /**
+   * Returns the validators of a hash as the node with the given address derives them.
+   *
+   * @param str hash of transaction or block whose validators are to be fetched
+   * @param owner the address of the node whose own nodes cannot be validators
+   * @return a list of validators for the given transactions
+   */
+  private List<NodeInfo> getValidators(String str, String owner) {
     try {
       // stores the validators to be returned
       List<NodeInfo> validators = new ArrayList<>();
       // taken is used to gaurantee taking only unique validators
       Map<String, Integer> taken = new HashMap<>();
       int validFound = 0;
-      taken.put(address, 1); // To not take the node itself or any data node belonging to it.
-      for (int i = 0; validFound < params.getAlpha() && i < 200; ++i) {
-        String hash = hasher.getHash(str + i, params.getLevels());
-        int num = Integer.parseInt(hash, 2);
-        NodeInfo node = searchByNumID(num);
-        if (taken.containsKey(node.getAddress())) continue;
-        taken.put(node.getAddress(), 1);
-        validators.add(node);
-        validFound++;
+      taken.put(owner, 1); // To not take the node itself or any data node belonging to it.
+      for (int i = 0; validFound < params.getAlpha() && i < 200; ) {
+        int[] nums = new int[Math.min(params.getAlpha() - validFound, 200 - i)];
+        for (int j = 0; j < nums.length; ++j, ++i) {
+          nums[j] = hasher.getHashInt(str + i, params.getLevels());
+        }
+        // candidates are taken in the same order as they were hashed
+        for (NodeInfo node : searchByNumIDs(nums)) {
+          if (node == null || validFound == params.getAlpha()) continue;
+          if (taken.containsKey(node.getAddress())) continue;
+          taken.put(node.getAddress(), 1);
+          validators.add(node);
+          validFound++;
+        }
       }
       return validators;
     } catch (NumberFormatException e) {
@@ -639,12 +951,14 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
     try {
       long startTime = System.currentTimeMillis();
       updateView();
+      long viewVersion = view.getVersion();
       isAuth = isAuthenticated(t);
       isCorrect = cv.isCorrect(t);
       isSound = isSound(t);
       hasBalance = hasBalanceCompliance(t);
 
       boolean val = isAuth && isCorrect && isSound && hasBalance;
+      checkViewVersion(viewVersion);
       if (val == false) return new SignedBytes(null, isAuth, isSound, isCorrect, hasBalance);
       logger.debug("Transaction Approved");
       SignedBytes signedHash =
@@ -730,7 +1044,7 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
     try {
 
       // generate the hash using the equation to check if it was generated correctly
-      String hash = hasher.getHash(t.getPrev() + t.getOwner() + t.getCont(), params.getLevels());
+      String hash = Transaction.hash(hasher, t.getPrev(), t.getOwner(), t.getCont(), params.getLevels());
       // return false if it was not generated properly
       if (!hash.equals(t.getHash())) {
         logger.debug("Transaction hash value not generated properly");
@@ -748,6 +1062,7 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
         boolean is = digitalSignature.verifyString(hash, tSigma.get(i), ownerPublicKey);
         if (is) {
 	  logger.debug("Found owner's signature in Transaction");
+	  if (!verified) validatedTransactions.put(t, tSigma.get(i));
 	  verified = true;
         }
       }
@@ -789,12 +1104,21 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
    * This method recieves the numID of an owner of a transaction or a block and first verifies of
    * the given public key truly belongs to the owner by hashing the provided public key and
    * comparing it with the given numID if the test fails it prints it to console and return null.
-   * otherwise it returns the public key of the owner.
+   * otherwise it returns the public key of the owner. Verified keys are cached, since the key of a
+   * numID never changes.
    *
    * @param num numerical ID of node whose public key is to be retrieved
    * @return the public key of the node whose numerical ID was supplied
    */
   public PublicKey getOwnerPublicKey(int num) {
+    return publicKeys.get(num, this::fetchOwnerPublicKey);
+  }
+
+  /**
+   * Fetches the public key of the given numID from its owner and verifies it against the numID,
+   * for getOwnerPublicKey on a miss of the key cache.
+   */
+  private PublicKey fetchOwnerPublicKey(int num) {
     try {
       // find owner from the network
       NodeInfo owner = searchByNumID(num);
@@ -811,7 +1135,7 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
       PublicKey pk = response.result;
 
       // Hash the public key and store the hash value as int
-      int hashedKey = Integer.parseInt(hasher.getHash(pk.getEncoded(), params.getLevels()), 2);
+      int hashedKey = hasher.getHashInt(pk.getEncoded(), params.getLevels());
       // if hashedKey is not equal to the provided numID, then there is a problem
       // and it is printed to the console
       if (hashedKey != num) {
@@ -829,6 +1153,44 @@ public class LightChainNode extends SkipNode implements LightChainInterface {
     return digitalSignature.getPublicKey();
   }
 
+  public PublicKeyCache getPublicKeyCache() {
+    return publicKeys;
+  }
+
+  public ValidatedTransactionCache getValidatedTransactionCache() {
+    return validatedTransactions;
+  }
+
+  /**
+   * @return the number of times applying a tail and the transactions pointing at it changed the
+   *     view
+   */
+  public long getViewRefreshes() {
+    return viewRefreshes.get();
+  }
+
+  /**
+   * @return the number of times updateView found the tail applied already
+   */
+  public long getViewRefreshSkips() {
+    return viewRefreshSkips.get();
+  }
+
+  /**
+   * @return the number of PoV decisions during which the view changed
+   */
+  public long getStaleViewDecisions() {
+    return staleViewDecisions.get();
+  }
+
+  public Mempool getMempool() {
+    return mempool;
+  }
+
+  public TipCache getTipCache() {
+    return tipCache;
+  }
+
   public List<Transaction> getTransactions() {
     return transactions;
   }
@@ -0,0 +1,159 @@
+package blockchain;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded pool of the pending transactions this node knows of, i.e. those it
+ * has created and inserted once they collected enough validator signatures, so
+ * a miner can assemble a block from them instead of scanning the skip graph for
+ * transactions. Transactions the node only approved during their PoV are not
+ * kept, since the quorum may still reject them. Transactions are keyed by their
+ * hash and indexed by the block they point to, and leave the pool once a block
+ * includes them. The oldest transactions are evicted once the capacity is
+ * exceeded.
+ */
+public class Mempool {
+
+	// maps the hash of a transaction to the transaction, in the order they were added
+	private final LinkedHashMap<String, Transaction> transactions = new LinkedHashMap<>();
+	// maps the hash of a block to the hashes of the transactions that point to it
+	private final Map<String, Set<String>> byPrev = new HashMap<>();
+
+	private final int capacity;
+
+	private final AtomicLong added = new AtomicLong();
+	private final AtomicLong duplicates = new AtomicLong();
+	private final AtomicLong included = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * @param capacity maximum number of transactions kept in the pool
+	 */
+	public Mempool(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Adds a pending transaction, evicting the oldest ones if the capacity is
+	 * exceeded. A transaction that is already in the pool is not added again.
+	 *
+	 * @param t a transaction that collected enough validator signatures and was
+	 *          inserted
+	 * @return true if the transaction was not in the pool
+	 */
+	public synchronized boolean add(Transaction t) {
+		if (transactions.containsKey(t.getHash())) {
+			duplicates.incrementAndGet();
+			return false;
+		}
+		transactions.put(t.getHash(), t);
+		byPrev.computeIfAbsent(t.getPrev(), k -> new LinkedHashSet<>()).add(t.getHash());
+		added.incrementAndGet();
+		Iterator<String> it = transactions.keySet().iterator();
+		while (it.hasNext() && transactions.size() > capacity) {
+			String hash = it.next();
+			unindex(transactions.get(hash), hash);
+			it.remove();
+			dropped.incrementAndGet();
+		}
+		return true;
+	}
+
+	/**
+	 * Selects transactions for a block that follows the given one, the oldest
+	 * ones first.
+	 *
+	 * @param prev the hash of the block the transactions should point to
+	 * @param max  the maximum number of transactions to return
+	 * @return the selected transactions, which stay in the pool until a block
+	 *         includes them
+	 */
+	public synchronized List<Transaction> select(String prev, int max) {
+		List<Transaction> selected = new ArrayList<>();
+		Set<String> hashes = byPrev.get(prev);
+		if (hashes == null)
+			return selected;
+		for (String hash : hashes) {
+			if (selected.size() == max)
+				break;
+			selected.add(transactions.get(hash));
+		}
+		return selected;
+	}
+
+	/**
+	 * Removes the transactions of a block, since they are no longer pending.
+	 *
+	 * @param blk a block that this node inserted, or that a peer pushed and this
+	 *            node verified
+	 */
+	public synchronized void removeIncluded(Block blk) {
+		List<Transaction> tList = blk.getTransactionSet();
+		if (tList == null)
+			return;
+		for (int i = 0; i < tList.size(); ++i) {
+			String hash = tList.get(i).getHash();
+			Transaction t = transactions.remove(hash);
+			if (t != null) {
+				unindex(t, hash);
+				included.incrementAndGet();
+			}
+		}
+	}
+
+	public synchronized boolean contains(Transaction t) {
+		return transactions.containsKey(t.getHash());
+	}
+
+	public synchronized int size() {
+		return transactions.size();
+	}
+
+	/**
+	 * @return the number of transactions that were added to the pool
+	 */
+	public long getAdded() {
+		return added.get();
+	}
+
+	/**
+	 * @return the number of transactions that were already in the pool when they
+	 *         were added
+	 */
+	public long getDuplicates() {
+		return duplicates.get();
+	}
+
+	/**
+	 * @return the number of transactions that left the pool because a block
+	 *         included them
+	 */
+	public long getIncluded() {
+		return included.get();
+	}
+
+	/**
+	 * @return the number of transactions that were evicted because the pool was
+	 *         full
+	 */
+	public long getDropped() {
+		return dropped.get();
+	}
+
+	private void unindex(Transaction t, String hash) {
+		Set<String> hashes = byPrev.get(t.getPrev());
+		if (hashes == null)
+			return;
+		hashes.remove(hash);
+		if (hashes.isEmpty())
+			byPrev.remove(t.getPrev());
+	}
+}
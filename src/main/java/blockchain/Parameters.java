@@ -1,5 +1,8 @@
 package blockchain;
 
+import signature.SignatureScheme;
+import skipGraph.SearchMode;
+
 
 public class Parameters {
 	
@@ -14,6 +17,10 @@ public class Parameters {
 	private int Token = 20; // a token is a representation of any quantity of an asset which the node owns
 	private boolean Chain = false; // Mode of lightchain (false -> original || true -> Smartcontract)
 	public final boolean CONTRACT_MODE = true; // Alias name for True.
+	private SearchMode Search = SearchMode.RECURSIVE; // routing of searches by numID in the skip graph
+	private long TipCacheTTL = 1000; // time (in ms) a cached latest block is trusted
+	private boolean TipPush = false; // whether a miner pushes its new block to the validators of the block
+	private SignatureScheme Scheme = SignatureScheme.RSA; // scheme of the keys and signatures of the nodes
 	
 	public Parameters() {
 		
@@ -92,6 +99,38 @@ public class Parameters {
 		return Token;
 	}
 
+	public SearchMode getSearchMode() {
+		return Search;
+	}
+
+	public void setSearchMode(SearchMode search) {
+		Search = search;
+	}
+
+	public long getTipCacheTTL() {
+		return TipCacheTTL;
+	}
+
+	public void setTipCacheTTL(long tipCacheTTL) {
+		TipCacheTTL = tipCacheTTL;
+	}
+
+	public boolean getTipPush() {
+		return TipPush;
+	}
+
+	public void setTipPush(boolean tipPush) {
+		TipPush = tipPush;
+	}
+
+	public SignatureScheme getSignatureScheme() {
+		return Scheme;
+	}
+
+	public void setSignatureScheme(SignatureScheme scheme) {
+		Scheme = scheme;
+	}
+
 
 	@Override
 	public String toString() {
@@ -105,6 +144,10 @@ public class Parameters {
 				"\nMode= " + Mode +
 				"\nTokens= " + Token +
 				"\nContractMode= "+ Chain +
+				"\nSearchMode= " + Search +
+				"\nTipCacheTTL= " + TipCacheTTL +
+				"\nTipPush= " + TipPush +
+				"\nSignatureScheme= " + Scheme +
 				'\n';
 	}
 }
@@ -0,0 +1,117 @@
+package blockchain;
+
+import java.security.PublicKey;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+/**
+ * A bounded cache of verified public keys, keyed by the numID of their owner. The
+ * numID of a node is the hash of its public key, so a key that was verified once
+ * against its numID stays valid, and entries never expire. The least recently used
+ * keys are evicted once the capacity is exceeded.
+ *
+ * Concurrent lookups of a key that is not cached share a single fetch, so
+ * validating a block whose transactions have the same owner fetches the owner's key
+ * only once. Failed fetches are not cached.
+ */
+public class PublicKeyCache {
+
+	// maps a numID to the verified key of its owner, ordered by access (least recently used first)
+	private final LinkedHashMap<Integer, PublicKey> keys;
+	// the fetches in flight, which later lookups of the same numID wait for
+	private final Map<Integer, CompletableFuture<PublicKey>> fetches = new ConcurrentHashMap<>();
+
+	private final int capacity;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong sharedFetches = new AtomicLong();
+
+	/**
+	 * @param capacity maximum number of keys kept in the cache
+	 */
+	public PublicKeyCache(int capacity) {
+		this.capacity = capacity;
+		this.keys = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Returns the verified key of the given numID, fetching it if it is not cached.
+	 * If the key is already being fetched, the fetch in flight is waited for instead.
+	 *
+	 * @param numID   numerical ID of the owner of the key
+	 * @param fetcher fetches and verifies the key of a numID, and returns null if it
+	 *                fails
+	 * @return the verified key, or null if it could not be fetched
+	 */
+	public PublicKey get(int numID, IntFunction<PublicKey> fetcher) {
+		PublicKey key = lookup(numID);
+		if (key != null) {
+			hits.incrementAndGet();
+			return key;
+		}
+		misses.incrementAndGet();
+		CompletableFuture<PublicKey> fetch = new CompletableFuture<>();
+		CompletableFuture<PublicKey> inFlight = fetches.putIfAbsent(numID, fetch);
+		if (inFlight != null) {
+			sharedFetches.incrementAndGet();
+			return inFlight.join();
+		}
+		try {
+			// a fetch may have finished between the lookup and the registration of this one
+			key = lookup(numID);
+			if (key == null) {
+				key = fetcher.apply(numID);
+				if (key != null)
+					put(numID, key);
+			}
+			fetch.complete(key);
+			return key;
+		} catch (RuntimeException e) {
+			fetch.complete(null);
+			throw e;
+		} finally {
+			fetches.remove(numID, fetch);
+		}
+	}
+
+	/**
+	 * Stores a key that is known to belong to the given numID, e.g. the node's own key.
+	 */
+	public synchronized void put(int numID, PublicKey key) {
+		keys.put(numID, key);
+		Iterator<Map.Entry<Integer, PublicKey>> it = keys.entrySet().iterator();
+		while (it.hasNext() && keys.size() > capacity) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	private synchronized PublicKey lookup(int numID) {
+		return keys.get(numID);
+	}
+
+	public synchronized int size() {
+		return keys.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the number of misses that waited for a fetch in flight instead of fetching
+	 */
+	public long getSharedFetches() {
+		return sharedFetches.get();
+	}
+}
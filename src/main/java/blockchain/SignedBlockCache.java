@@ -0,0 +1,51 @@
+package blockchain;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+
+/**
+ * A bounded set of the hashes of the blocks this node has approved during their
+ * PoV. A validator only accepts a pushed block whose hash it signed itself, so a
+ * peer cannot push a block that never went through PoV. The oldest hashes are
+ * evicted once the capacity is exceeded.
+ */
+public class SignedBlockCache {
+
+	// the hashes of the signed blocks, in the order they were signed
+	private final LinkedHashSet<String> hashes = new LinkedHashSet<>();
+
+	private final int capacity;
+
+	/**
+	 * @param capacity maximum number of block hashes kept in the cache
+	 */
+	public SignedBlockCache(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Records that the block with the given hash was approved.
+	 *
+	 * @param hash the hash of the signed block
+	 */
+	public synchronized void put(String hash) {
+		hashes.add(hash);
+		Iterator<String> it = hashes.iterator();
+		while (it.hasNext() && hashes.size() > capacity) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * @param hash the hash of a block
+	 * @return true if this node signed the block recently
+	 */
+	public synchronized boolean contains(String hash) {
+		return hashes.contains(hash);
+	}
+
+	public synchronized int size() {
+		return hashes.size();
+	}
+}
@@ -0,0 +1,123 @@
+package blockchain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches the latest block of the blockchain, so that the tail does not have to be
+ * looked up in the skip graph every time a transaction is made, a block is mined or
+ * a view is updated. The cached block is trusted for a short time only, and is
+ * dropped explicitly when the tail is known to have moved.
+ *
+ * Every change of the cache increases its version. A lookup remembers the version
+ * it started at, and its result is only cached if the cache was not changed in the
+ * meantime, so a slow lookup can not overwrite a newer tail with an older one.
+ */
+public class TipCache {
+
+	private final long ttlMillis;
+
+	private Block tip;
+	private long cached; // time the tip was cached at, in ms
+	private long version;
+	// index of the latest block the cache has seen, which never decreases
+	private int lastIndex = -1;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong invalidations = new AtomicLong();
+	private final AtomicLong pushes = new AtomicLong();
+
+	/**
+	 * @param ttlMillis a tip that was cached longer ago than this is stale
+	 */
+	public TipCache(long ttlMillis) {
+		this.ttlMillis = ttlMillis;
+	}
+
+	/**
+	 * @return the cached latest block, or null if there is no fresh one
+	 */
+	public synchronized Block get() {
+		if (tip == null || System.currentTimeMillis() - cached > ttlMillis) {
+			misses.incrementAndGet();
+			return null;
+		}
+		hits.incrementAndGet();
+		return tip;
+	}
+
+	/**
+	 * @return the current version of the cache, to be passed to
+	 *         {@link TipCache#put(Block, long)} with the result of a lookup
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Caches the latest block found by a lookup.
+	 *
+	 * @param blk     the latest block that was found
+	 * @param version the version of the cache when the lookup started
+	 * @return true if the block was cached, false if the cache changed since the
+	 *         lookup started
+	 */
+	public synchronized boolean put(Block blk, long version) {
+		if (blk == null || version != this.version)
+			return false;
+		set(blk);
+		return true;
+	}
+
+	/**
+	 * Caches a block that is known to be the new tail, e.g. because this node just
+	 * inserted it or a peer pushed it after validating it. Blocks that are not newer
+	 * than the latest block the cache has seen are ignored.
+	 *
+	 * @param blk the new latest block
+	 * @return true if the block was cached
+	 */
+	public synchronized boolean offer(Block blk) {
+		if (blk == null || blk.getIndex() <= lastIndex)
+			return false;
+		pushes.incrementAndGet();
+		set(blk);
+		return true;
+	}
+
+	/**
+	 * Drops the cached tip, e.g. because the flag node pointing to it was removed.
+	 */
+	public synchronized void invalidate() {
+		version++;
+		if (tip != null)
+			invalidations.incrementAndGet();
+		tip = null;
+	}
+
+	private void set(Block blk) {
+		version++;
+		tip = blk;
+		cached = System.currentTimeMillis();
+		lastIndex = Math.max(lastIndex, blk.getIndex());
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	public long getInvalidations() {
+		return invalidations.get();
+	}
+
+	/**
+	 * @return the number of new tails that were cached without a lookup
+	 */
+	public long getPushes() {
+		return pushes.get();
+	}
+}
@@ -3,6 +3,7 @@ package blockchain;
 import java.util.ArrayList;
 import java.util.List;
 
+import hashing.HashStream;
 import hashing.Hasher;
 import hashing.HashingTools;
 import signature.SignedBytes;
@@ -13,6 +14,8 @@ import util.Const;
 public class Transaction extends NodeInfo {
 
 	private static final long serialVersionUID = 1L;
+	// prefix of the leaf hash, which keeps it apart from the inner nodes of a Merkle tree
+	private static final byte[] LEAF_PREFIX = {0};
 	private final String prev;
 	private final int owner;
 	private final String cont;// Use random string for this
@@ -31,10 +34,26 @@ public class Transaction extends NodeInfo {
 		this.levels = levels;
 		this.sigma = new ArrayList<>();
 		hasher = new HashingTools();
-		this.hash = hasher.getHash(prev + owner + cont, levels);
+		this.hash = hash(hasher, prev, owner, cont, levels);
 		super.setNumID(Integer.parseInt(this.hash, 2));
 	}
 
+	/**
+	 * Rebuilds a transaction from its already computed fields, e.g. when it is decoded from the
+	 * wire. The hash is taken as given and not recomputed.
+	 */
+	public Transaction(String prev, int owner, String cont, String hash, String address, int numID, String nameID,
+			int levels, List<SignedBytes> sigma) {
+		super(address, numID, nameID);
+		this.prev = prev;
+		this.owner = owner;
+		this.cont = cont;
+		this.hash = hash;
+		this.levels = levels;
+		this.sigma = sigma;
+		hasher = new HashingTools();
+	}
+
 	public Transaction(Transaction t) {
 		super(t.getAddress(), t.getNumID(), t.getNameID());
 		hasher = new HashingTools();
@@ -73,6 +92,33 @@ public class Transaction extends NodeInfo {
 	public String toString() {
 		return prev + owner + cont;
 	}
+
+	/**
+	 * Computes the hash of a transaction from its fields, which equals the hash of
+	 * toString() without building the String.
+	 */
+	public static String hash(Hasher hasher, String prev, int owner, String cont, int levels) {
+		return hasher.newStream().add(prev).add(owner).add(cont).getHash(levels);
+	}
+
+	/**
+	 * Computes the leaf of this transaction in the Merkle tree of a block: the full
+	 * SHA-256 hash of a 0x00 byte followed by its fields.
+	 *
+	 * @return the 32 bytes of the leaf
+	 */
+	public byte[] getLeafHash() {
+		HashStream stream = hasher.newStream().add(LEAF_PREFIX);
+		addTo(stream);
+		return stream.digest();
+	}
+
+	/**
+	 * Feeds the fields of this transaction to a hash, in the order of toString().
+	 */
+	void addTo(HashStream stream) {
+		stream.add(prev).add(owner).add(cont);
+	}
 	
 	public int getLevels() {
 		return levels;
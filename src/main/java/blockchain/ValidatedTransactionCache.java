@@ -0,0 +1,108 @@
+package blockchain;
+
+import signature.SignedBytes;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of the transactions this node has authenticated, keyed by their
+ * hash. Validators usually see a transaction twice, once on its own and once inside
+ * a block, so the second time its authenticity can be taken from the cache instead
+ * of recomputing its hash and verifying the owner's signature again. A transaction
+ * is only taken from the cache if its contents equal the authenticated ones and it
+ * still carries the owner signature that was verified. The least recently used
+ * transactions are evicted once the capacity is exceeded.
+ */
+public class ValidatedTransactionCache {
+
+	// maps the hash of a transaction to what was authenticated, ordered by access (least recently used first)
+	private final LinkedHashMap<String, Entry> transactions;
+
+	private final int capacity;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @param capacity maximum number of transactions kept in the cache
+	 */
+	public ValidatedTransactionCache(int capacity) {
+		this.capacity = capacity;
+		this.transactions = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Records that the given transaction was authenticated.
+	 *
+	 * @param t         the authenticated transaction
+	 * @param signature the signature of the owner that was verified
+	 */
+	public synchronized void put(Transaction t, SignedBytes signature) {
+		transactions.put(t.getHash(), new Entry(t.getPrev(), t.getOwner(), t.getCont(), signature.getBytes()));
+		Iterator<Map.Entry<String, Entry>> it = transactions.entrySet().iterator();
+		while (it.hasNext() && transactions.size() > capacity) {
+			it.next();
+			it.remove();
+		}
+	}
+
+	/**
+	 * @param t a transaction to be authenticated
+	 * @return true if the same transaction, carrying the same owner signature, was
+	 *         authenticated before
+	 */
+	public boolean isAuthenticated(Transaction t) {
+		Entry entry;
+		synchronized (this) {
+			entry = transactions.get(t.getHash());
+		}
+		if (entry != null && entry.matches(t)) {
+			hits.incrementAndGet();
+			return true;
+		}
+		misses.incrementAndGet();
+		return false;
+	}
+
+	public synchronized int size() {
+		return transactions.size();
+	}
+
+	public long getHits() {
+		return hits.get();
+	}
+
+	public long getMisses() {
+		return misses.get();
+	}
+
+	private static class Entry {
+		final String prev;
+		final int owner;
+		final String cont;
+		final byte[] signature;
+
+		Entry(String prev, int owner, String cont, byte[] signature) {
+			this.prev = prev;
+			this.owner = owner;
+			this.cont = cont;
+			this.signature = signature;
+		}
+
+		boolean matches(Transaction t) {
+			if (owner != t.getOwner() || !prev.equals(t.getPrev()) || !cont.equals(t.getCont()))
+				return false;
+			List<SignedBytes> sigma = t.getSigma();
+			for (int i = 0; i < sigma.size(); ++i) {
+				if (Arrays.equals(signature, sigma.get(i).getBytes()))
+					return true;
+			}
+			return false;
+		}
+	}
+}
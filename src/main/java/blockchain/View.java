@@ -1,8 +1,17 @@
 package blockchain;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * What a node knows about the other nodes: their latest blocks, states, balances,
+ * modes and tokens. The view is maintained incrementally: the effects of the tail
+ * of the blockchain are applied when it is first observed, and the transactions
+ * pointing at it that turn up later are applied on top, until a newer tail is
+ * observed. Every change these make increases the version of the view, so a
+ * decision taken on a view that changed in the meantime can be detected.
+ */
 public class View {
 
 	private Map<Integer, Integer> lastBlk;
@@ -10,6 +19,12 @@ public class View {
 	private Map<Integer, Integer> balance;
 	private Map<Integer, Boolean> mode;
 	private Map<Integer, Integer> token;
+	// the tail of the blockchain whose effects were applied last
+	private int appliedIndex = -1;
+	private String appliedHash;
+	private int appliedNumID;
+	// counts the tails and transactions that were applied
+	private long version;
 	
 	/**
 	 * Constructor for an empty view
@@ -31,6 +46,85 @@ public class View {
 	public synchronized void updateLastBlk(int numID, int blkNumID) {
 		lastBlk.put(numID, blkNumID);
 	}
+
+	/**
+	 * Checks whether the effects of the given tail were applied already, in which
+	 * case the view does not have to be refreshed.
+	 *
+	 * @param blk the tail of the blockchain
+	 * @return true if the given block or a newer one was applied
+	 */
+	public synchronized boolean isApplied(Block blk) {
+		return blk.getIndex() < appliedIndex
+				|| (blk.getIndex() == appliedIndex && blk.getHash().equals(appliedHash));
+	}
+
+	/**
+	 * Applies the effects of the tail of the blockchain: the owners of the
+	 * transactions pointing at it have it as their latest block. A new tail,
+	 * keyed by its index, replaces the applied one, while the applied tail can be
+	 * applied again with transactions that turned up since. Tails older than the
+	 * applied one are ignored.
+	 *
+	 * @param blk   the tail of the blockchain
+	 * @param tList the transactions pointing at the tail that are known
+	 * @return true if the view changed, i.e. the tail is new or one of the
+	 *         transactions was not applied yet
+	 */
+	public synchronized boolean applyBlock(Block blk, List<Transaction> tList) {
+		if (blk.getIndex() < appliedIndex)
+			return false;
+		boolean changed = !isApplied(blk);
+		if (changed) {
+			appliedIndex = blk.getIndex();
+			appliedHash = blk.getHash();
+			appliedNumID = blk.getNumID();
+		}
+		for (int i = 0; i < tList.size(); ++i) {
+			Integer last = lastBlk.put(tList.get(i).getOwner(), appliedNumID);
+			if (last == null || last != appliedNumID)
+				changed = true;
+		}
+		if (changed)
+			version++;
+		return changed;
+	}
+
+	/**
+	 * Applies the effect of a transaction that points at the applied tail, which
+	 * makes the tail the latest block of its owner. Transactions pointing at other
+	 * blocks are ignored.
+	 *
+	 * @param t a transaction that collected enough validator signatures and was
+	 *          inserted
+	 * @return true if the transaction was applied
+	 */
+	public synchronized boolean applyTransaction(Transaction t) {
+		if (appliedHash == null || !appliedHash.equals(t.getPrev()))
+			return false;
+		Integer last = lastBlk.get(t.getOwner());
+		if (last != null && last == appliedNumID)
+			return false;
+		lastBlk.put(t.getOwner(), appliedNumID);
+		version++;
+		return true;
+	}
+
+	/**
+	 * @return the index of the tail whose effects were applied last, or -1 if none
+	 *         was applied
+	 */
+	public synchronized int getAppliedIndex() {
+		return appliedIndex;
+	}
+
+	/**
+	 * @return a number that increases every time applying a tail or a transaction
+	 *         changes the view
+	 */
+	public synchronized long getVersion() {
+		return version;
+	}
 	
 	/**
 	 * Updates the state of the node whose numerical ID is given
@@ -60,6 +60,12 @@ public class LightChainNodeDelayWrapper extends SkipNodeDelayWrapper implements
         innerNode.removeFlagNode();
     }
 
+    @Override
+    public void notifyNewBlock(Block blk) {
+        before();
+        innerNode.notifyNewBlock(blk);
+    }
+
     @Override
     public Configuration getConf() {
         before();
@@ -1,7 +1,10 @@
 package delay;
 
 import remoteTest.PingLog;
+import skipGraph.Identifier;
+import skipGraph.LevelScan;
 import skipGraph.NodeInfo;
+import skipGraph.SearchStep;
 import skipGraph.SkipGraphNode;
 import skipGraph.SkipNode;
 
@@ -132,13 +135,31 @@ public class SkipNodeDelayWrapper implements SkipGraphNode {
     }
 
     @Override
-    public NodeInfo searchName(int numID, String searchTarget, int level, int direction) {
+    public SearchStep searchNumIDStep(int numID, int searchTarget, int level) {
+        before();
+        return innerNode.searchNumIDStep(numID, searchTarget, level);
+    }
+
+    @Override
+    public List<NodeInfo> searchNumIDs(int numID, int[] searchTargets, int level) {
+        before();
+        return innerNode.searchNumIDs(numID, searchTargets, level);
+    }
+
+    @Override
+    public LevelScan scanLevel(int numID, int level, int direction, int limit) {
+        before();
+        return innerNode.scanLevel(numID, level, direction, limit);
+    }
+
+    @Override
+    public NodeInfo searchName(int numID, Identifier searchTarget, int level, int direction) {
         before();
         return innerNode.searchName(numID, searchTarget, level, direction);
     }
 
     @Override
-    public NodeInfo insertSearch(int level, int direction, int num, String target) throws FileNotFoundException {
+    public NodeInfo insertSearch(int level, int direction, int num, Identifier target) throws FileNotFoundException {
         before();
         return innerNode.insertSearch(level, direction, num, target);
     }
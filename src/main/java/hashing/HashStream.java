@@ -0,0 +1,118 @@
+package hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Computes a SHA-256 hash over a sequence of fields that are fed in one at a time,
+ * e.g. the fields of every transaction of a block, instead of over one String that
+ * concatenates all of them. The hash is the same as the hash of the UTF-8 bytes of
+ * the concatenation of the fields, but no String of more than one field is built.
+ * A stream is meant to be used by one thread, for one hash.
+ */
+public class HashStream {
+
+	private static final int BUFFER_SIZE = 64;
+
+	private final MessageDigest digest;
+	// buffers the digits of numbers before they are fed to the digest
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+	private int count;
+
+	HashStream() {
+		MessageDigest dig;
+		try {
+			dig = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			System.out.println("Failed to get SHA-256 Hash Function.");
+			dig = null;
+		}
+		this.digest = dig;
+	}
+
+	/**
+	 * Feeds the UTF-8 bytes of a String to the hash.
+	 */
+	public HashStream add(String s) {
+		flush();
+		update(s.getBytes(StandardCharsets.UTF_8));
+		return this;
+	}
+
+	/**
+	 * Feeds the decimal digits of an int to the hash, as String.valueOf(n) would.
+	 */
+	public HashStream add(int n) {
+		if (count + 11 > BUFFER_SIZE)
+			flush();
+		if (n == Integer.MIN_VALUE)
+			return add(String.valueOf(n));
+		if (n < 0) {
+			buffer[count++] = '-';
+			n = -n;
+		}
+		int start = count;
+		do {
+			buffer[count++] = (byte) ('0' + n % 10);
+			n /= 10;
+		} while (n != 0);
+		// the digits were written least significant first
+		for (int i = start, j = count - 1; i < j; i++, j--) {
+			byte tmp = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = tmp;
+		}
+		return this;
+	}
+
+	/**
+	 * Feeds raw bytes to the hash, e.g. a digest that is hashed again.
+	 */
+	public HashStream add(byte[] bytes) {
+		flush();
+		update(bytes);
+		return this;
+	}
+
+	/**
+	 * Completes the hash. The stream can not be used afterwards.
+	 *
+	 * @param neededSize the number of leading bits of the hash to return
+	 * @return the leading bits of the hash as '0' and '1' characters
+	 */
+	public String getHash(int neededSize) {
+		if (digest == null)
+			return null;
+		if (neededSize > 256 || neededSize < 0) {
+			System.out.println("The input size to the getHash function is out of bounds. Returning full hash.");
+			neededSize = 256;
+		}
+		flush();
+		return HashingTools.bytesToBinary(digest.digest(), neededSize);
+	}
+
+	/**
+	 * Completes the hash and returns all of its bytes. The stream can not be used
+	 * afterwards.
+	 *
+	 * @return the 32 bytes of the hash
+	 */
+	public byte[] digest() {
+		if (digest == null)
+			return null;
+		flush();
+		return digest.digest();
+	}
+
+	private void flush() {
+		if (count > 0 && digest != null)
+			digest.update(buffer, 0, count);
+		count = 0;
+	}
+
+	private void update(byte[] bytes) {
+		if (digest != null)
+			digest.update(bytes);
+	}
+}
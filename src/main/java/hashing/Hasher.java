@@ -5,4 +5,10 @@ public interface Hasher {
 	public String getHash(byte[] input, int neededSize);
 	public String getHash(String input);
 	public String getHash(byte[] input);
+	// the leading neededSize bits of the hash as a number, e.g. a numID
+	public int getHashInt(String input, int neededSize);
+	public int getHashInt(byte[] input, int neededSize);
+	public long getHashLong(byte[] input, int neededSize);
+	// a hash that is fed field by field, see HashStream
+	public HashStream newStream();
 }
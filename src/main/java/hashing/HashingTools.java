@@ -2,10 +2,34 @@ package hashing;
 
 import java.io.Serializable;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 public class HashingTools implements Hasher,Serializable {
+
+	private static final int HASH_BYTES = 32;
+	private static final int HASH_BITS = 8 * HASH_BYTES;
+
+	// the 8 bits of every byte value as '0' and '1' characters, most significant bit first
+	private static final char[] BITS = new char[256 * 8];
+
+	static {
+		for (int b = 0; b < 256; b++) {
+			for (int i = 0; i < 8; i++)
+				BITS[8 * b + i] = ((b >>> (7 - i)) & 1) == 1 ? '1' : '0';
+		}
+	}
+
+	// a digest and buffers per thread, so hashing neither looks up a new digest nor
+	// allocates anything but the returned String
+	private static final ThreadLocal<Engine> ENGINE = new ThreadLocal<Engine>() {
+		@Override
+		protected Engine initialValue() {
+			return new Engine();
+		}
+	};
+
 	/*
 	 * SHA-256 Hashing function, will be used in the future for generating name IDs.
 	 */
@@ -14,7 +38,8 @@ public class HashingTools implements Hasher,Serializable {
 			System.out.println("The input size to the getHash function is out of bounds. Returning full hash.");
 			return getHash(input);
 		}
-		return getHash(input).substring(0, neededSize);
+		Engine engine = ENGINE.get();
+		return bytesToBinary(engine.digest(input), neededSize);
 	}
 	
 	public String getHash(byte[] input, int neededSize) {
@@ -22,38 +47,117 @@ public class HashingTools implements Hasher,Serializable {
 			System.out.println("The input size to the getHash function is out of bounds. Returning full hash.");
 			return getHash(input);
 		}
-		
-		return getHash(input).substring(0, neededSize);
+		Engine engine = ENGINE.get();
+		return bytesToBinary(engine.digest(input), neededSize);
 	}
 	
 	public String getHash(String input) { //Returns the SHA-256 hash of the input String
-		byte[] inputBytes = input.getBytes(StandardCharsets.UTF_8);
-		
-		return getHash(inputBytes);
+		return getHash(input, HASH_BITS);
 	}
 	
 	public String getHash(byte[] input) { //Returns the SHA-256 hash of the input array of bytes
-		MessageDigest dig; 
-		try {
-			dig = MessageDigest.getInstance("SHA-256"); //Using JAVA's built in SHA-256 implementation
-		} catch (NoSuchAlgorithmException e) {
-			System.out.println("Failed to get SHA-256 Hash Function.");
-			return null;
-		}
-		byte[] encodedhash = dig.digest(input);
-		return bytesToBinary(encodedhash);
+		return getHash(input, HASH_BITS);
 	}
-	
-	private String bytesToBinary(byte[] hash) {//Converts an array of bytes to the corresponding binary representation.
-	    StringBuffer binString = new StringBuffer(); // To speed things up considering java String class being immutable.
-	    for (int i = 0; i < hash.length; i++) { 
-	    	
-	    	//Getting the binary representation of each byte and padding it from the left with zeroes to make it 8 bits
-	    	String bin = String.format("%8s", Integer.toBinaryString(((1<<8)-1) & hash[i])).replace(" ", "0"); 
-	    	
-	    	binString.append(bin);
-	    }
-	    return binString.toString();
+
+	/*
+	 * Returns the leading neededSize bits of the hash of the input as an int, which is
+	 * the same as Integer.parseInt(getHash(input, neededSize), 2) without the String.
+	 */
+	public int getHashInt(String input, int neededSize) {
+		checkSize(neededSize, 31);
+		return (int) leadingBits(ENGINE.get().digest(input), neededSize);
+	}
+
+	public int getHashInt(byte[] input, int neededSize) {
+		checkSize(neededSize, 31);
+		return (int) leadingBits(ENGINE.get().digest(input), neededSize);
+	}
+
+	/*
+	 * Returns the leading neededSize bits of the hash of the input as a long, which is
+	 * the same as Long.parseLong(getHash(input, neededSize), 2) without the String.
+	 */
+	public long getHashLong(byte[] input, int neededSize) {
+		checkSize(neededSize, 63);
+		return leadingBits(ENGINE.get().digest(input), neededSize);
+	}
+
+	public HashStream newStream() {
+		return new HashStream();
+	}
+
+	private static void checkSize(int neededSize, int max) {
+		if (neededSize < 0 || neededSize > max)
+			throw new IllegalArgumentException("[HashingTools] Invalid size " + neededSize + ", at most " + max + " bits fit");
+	}
+
+	private static long leadingBits(byte[] hash, int neededSize) {
+		long bits = 0;
+		for (int i = 0; i < 8; i++)
+			bits = (bits << 8) | (hash[i] & 0xff);
+		return neededSize == 0 ? 0 : bits >>> (64 - neededSize);
+	}
+
+	//Converts the leading neededSize bits of an array of bytes to the corresponding binary representation.
+	static String bytesToBinary(byte[] hash, int neededSize) {
+		if (hash == null)
+			return null;
+		char[] binString = new char[neededSize];
+		int full = neededSize / 8;
+		for (int i = 0; i < full; i++)
+			System.arraycopy(BITS, 8 * (hash[i] & 0xff), binString, 8 * i, 8);
+		if (neededSize % 8 != 0)
+			System.arraycopy(BITS, 8 * (hash[full] & 0xff), binString, 8 * full, neededSize % 8);
+		return new String(binString);
 	}
 
+	private static class Engine {
+		private final MessageDigest digest;
+		private final byte[] hash = new byte[HASH_BYTES];
+		private byte[] input = new byte[256];
+
+		Engine() {
+			MessageDigest dig;
+			try {
+				dig = MessageDigest.getInstance("SHA-256"); //Using JAVA's built in SHA-256 implementation
+			} catch (NoSuchAlgorithmException e) {
+				System.out.println("Failed to get SHA-256 Hash Function.");
+				dig = null;
+			}
+			this.digest = dig;
+		}
+
+		// returns the hash in a buffer that is reused by the next call of this thread
+		byte[] digest(byte[] data) {
+			return digest(data, data.length);
+		}
+
+		byte[] digest(String data) {
+			int length = data.length();
+			if (input.length < length)
+				input = new byte[Math.max(length, 2 * input.length)];
+			// ASCII is encoded in place, anything else the way String.getBytes does
+			for (int i = 0; i < length; i++) {
+				char c = data.charAt(i);
+				if (c >= 0x80)
+					return digest(data.getBytes(StandardCharsets.UTF_8));
+				input[i] = (byte) c;
+			}
+			return digest(input, length);
+		}
+
+		private byte[] digest(byte[] data, int length) {
+			if (digest == null)
+				return null;
+			try {
+				digest.update(data, 0, length);
+				digest.digest(hash, 0, HASH_BYTES);
+				return hash;
+			} catch (DigestException e) {
+				digest.reset();
+				e.printStackTrace();
+				return null;
+			}
+		}
+	}
 }
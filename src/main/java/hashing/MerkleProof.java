@@ -0,0 +1,70 @@
+package hashing;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * The proof that a leaf is part of a MerkleTree: the position of the leaf, the
+ * number of leaves of the tree, and the siblings on the path from the leaf up
+ * to the root. Whether a sibling is on the left or the right follows from the
+ * position, so the proof is only log(n) hashes.
+ */
+public class MerkleProof implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final int index;
+	private final int size;
+	private final List<byte[]> siblings;
+
+	public MerkleProof(int index, int size, List<byte[]> siblings) {
+		this.index = index;
+		this.size = size;
+		this.siblings = siblings;
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public List<byte[]> getSiblings() {
+		return siblings;
+	}
+
+	/**
+	 * Recomputes the root from the leaf and the siblings, and compares it with the
+	 * given root.
+	 *
+	 * @param hasher the hasher to use
+	 * @param leaf   the hash of the leaf
+	 * @param root   the root the leaf should be part of
+	 * @return true if the leaf is part of the tree with the given root
+	 */
+	public boolean verify(Hasher hasher, byte[] leaf, byte[] root) {
+		if (leaf == null || root == null || index < 0 || index >= size)
+			return false;
+		byte[] node = leaf;
+		int i = index;
+		int n = size;
+		int next = 0;
+		while (n > 1) {
+			if ((i & 1) == 1) {
+				if (next == siblings.size())
+					return false;
+				node = MerkleTree.node(hasher, siblings.get(next++), node);
+			} else if (i + 1 < n) {
+				if (next == siblings.size())
+					return false;
+				node = MerkleTree.node(hasher, node, siblings.get(next++));
+			}
+			i /= 2;
+			n = (n + 1) / 2;
+		}
+		return next == siblings.size() && MessageDigest.isEqual(node, root);
+	}
+}
@@ -0,0 +1,89 @@
+package hashing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary Merkle tree over a list of leaf hashes, e.g. the hashes of the
+ * transactions of a block. Every inner node is the SHA-256 hash of a 0x01 byte
+ * followed by its two children, and a node that is left without a sibling at
+ * the end of a level is carried up unchanged. The root commits to every leaf
+ * and to its position, and a MerkleProof of log(n) sibling hashes shows that a
+ * leaf is part of the tree without the other leaves.
+ */
+public class MerkleTree {
+
+	// prefix of the hash of an inner node, which keeps it apart from the leaves
+	static final byte[] NODE_PREFIX = {1};
+
+	private final Hasher hasher;
+	// levels.get(0) are the leaves, and the last level holds the root
+	private final List<byte[][]> levels = new ArrayList<>();
+
+	/**
+	 * @param hasher the hasher to use
+	 * @param leaves the leaf hashes in order
+	 */
+	public MerkleTree(Hasher hasher, List<byte[]> leaves) {
+		this.hasher = hasher;
+		byte[][] level = leaves.toArray(new byte[leaves.size()][]);
+		levels.add(level);
+		while (level.length > 1) {
+			byte[][] parents = new byte[(level.length + 1) / 2][];
+			for (int i = 0; i < parents.length; i++) {
+				if (2 * i + 1 < level.length)
+					parents[i] = node(hasher, level[2 * i], level[2 * i + 1]);
+				else
+					parents[i] = level[2 * i];
+			}
+			levels.add(parents);
+			level = parents;
+		}
+	}
+
+	/**
+	 * @return the root of the tree, or the hash of no input if the tree has no
+	 * leaves
+	 */
+	public byte[] getRoot() {
+		byte[][] top = levels.get(levels.size() - 1);
+		return top.length == 0 ? hasher.newStream().digest() : top[0];
+	}
+
+	public int size() {
+		return levels.get(0).length;
+	}
+
+	/**
+	 * Collects the siblings on the path from a leaf up to the root.
+	 *
+	 * @param index the position of the leaf
+	 * @return the inclusion proof of the leaf
+	 */
+	public MerkleProof getProof(int index) {
+		if (index < 0 || index >= size())
+			throw new IllegalArgumentException("[MerkleTree] Invalid leaf index " + index);
+		List<byte[]> siblings = new ArrayList<>();
+		int i = index;
+		for (int l = 0; l < levels.size() - 1; l++) {
+			byte[][] level = levels.get(l);
+			int sibling = i ^ 1;
+			// the last node of a level with an odd size has no sibling
+			if (sibling < level.length)
+				siblings.add(level[sibling]);
+			i /= 2;
+		}
+		return new MerkleProof(index, size(), siblings);
+	}
+
+	/**
+	 * Computes the root over the given leaves without keeping the tree.
+	 */
+	public static byte[] root(Hasher hasher, List<byte[]> leaves) {
+		return new MerkleTree(hasher, leaves).getRoot();
+	}
+
+	static byte[] node(Hasher hasher, byte[] left, byte[] right) {
+		return hasher.newStream().add(NODE_PREFIX).add(left).add(right).digest();
+	}
+}
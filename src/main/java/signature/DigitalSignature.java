@@ -14,7 +14,6 @@ import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.KeyFactory;
 import java.security.KeyPair;
-import java.security.KeyPairGenerator;
 import java.security.NoSuchAlgorithmException;
 import java.security.PrivateKey;
 import java.security.PublicKey;
@@ -28,8 +27,7 @@ import java.util.Scanner;
 
 public class DigitalSignature {
 	
-	private static String genAlgorithm = "RSA";
-	private static String signAlgorithm = "SHA256withRSA";
+	private final SignatureScheme scheme;
 	
 	private PrivateKey privateKey;
 	private PublicKey publicKey;
@@ -43,23 +41,26 @@ public class DigitalSignature {
 	/*
 	 * A constructor for the digital signature
 	 * Once we declare a digital signature for a node
-	 * we generate a public-private key pair for the node given a certain algorithm
+	 * we generate an RSA public-private key pair for the node
 	 */
 	public DigitalSignature() {
-		try {
-			KeyPairGenerator gen = KeyPairGenerator.getInstance(genAlgorithm);
-			gen.initialize(2048);
-			KeyPair keyPair = gen.generateKeyPair();
-			privateKey = keyPair.getPrivate();
-			publicKey = keyPair.getPublic();
-			otherPubKeys = new ArrayList<>();
-			privateKeyName = "privateKey";
-			publicKeyName = "publicKey";
-			keysPath = "";
-			storeKeyPair();
-		} catch (NoSuchAlgorithmException e) {
-			e.printStackTrace();
-		}
+		this(SignatureScheme.RSA);
+	}
+
+	/*
+	 * A constructor for a digital signature that generates a public-private key pair
+	 * of the given scheme, and signs and verifies with that scheme
+	 */
+	public DigitalSignature(SignatureScheme scheme) {
+		this.scheme = scheme;
+		KeyPair keyPair = scheme.generateKeyPair();
+		privateKey = keyPair.getPrivate();
+		publicKey = keyPair.getPublic();
+		otherPubKeys = new ArrayList<>();
+		privateKeyName = "privateKey";
+		publicKeyName = "publicKey";
+		keysPath = "";
+		storeKeyPair();
 	}
 	
 	/*
@@ -160,7 +161,7 @@ public class DigitalSignature {
 		
 		Signature signature;
 		try {	
-			signature = Signature.getInstance(signAlgorithm);
+			signature = Signature.getInstance(scheme.getSignatureAlgorithm());
 			signature.initSign(privateKey);
 			byte[] data = text.getBytes("UTF-8");
 			signature.update(data);
@@ -182,7 +183,7 @@ public class DigitalSignature {
 		
 		Signature signature;
 		try {
-			signature = Signature.getInstance(signAlgorithm);
+			signature = Signature.getInstance(scheme.getSignatureAlgorithm());
 			signature.initSign(privateKey);
 			
 			Path path = FileSystems.getDefault().getPath(filePath);
@@ -210,7 +211,7 @@ public class DigitalSignature {
 			
 		Signature signature ;
 		try {
-			signature = Signature.getInstance(signAlgorithm);
+			signature = Signature.getInstance(scheme.getSignatureAlgorithm());
 			signature.initVerify(pKey);
 			signature.update(data.getBytes());
 			if(signedData==null || signedData.getBytes()==null) return false;
@@ -235,7 +236,7 @@ public class DigitalSignature {
 			byte[] data = new byte[input.available()];
 			input.read(data);
 			input.close();
-			signature = Signature.getInstance(signAlgorithm);
+			signature = Signature.getInstance(scheme.getSignatureAlgorithm());
 			signature.initVerify(pKey);
 			FileInputStream dataFile = new FileInputStream(filePath);
 			BufferedInputStream dataBuffered = new BufferedInputStream(dataFile);
@@ -258,6 +259,10 @@ public class DigitalSignature {
 	public PublicKey getPublicKey() {
 		return publicKey;
 	}
+
+	public SignatureScheme getScheme() {
+		return scheme;
+	}
 	public static void log(String s) {
 		System.out.println(s);
 	}
@@ -0,0 +1,84 @@
+package signature;
+
+import java.security.InvalidAlgorithmParameterException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.ECGenParameterSpec;
+
+/**
+ * The signature schemes a DigitalSignature can sign and verify with, all provided
+ * by the JDK. Every node of a network has to use the same scheme. The numID of a
+ * node is the hash of its encoded public key, which works the same way for every
+ * scheme.
+ */
+public enum SignatureScheme {
+	/**
+	 * RSA with 2048 bit keys, which has slow key generation and 256 byte signatures
+	 * but the fastest verification.
+	 */
+	RSA("RSA", "SHA256withRSA") {
+		@Override
+		void initialize(KeyPairGenerator gen) {
+			gen.initialize(2048);
+		}
+	},
+	/**
+	 * ECDSA on the NIST P-256 curve, with fast key generation and signatures of
+	 * about 72 bytes.
+	 */
+	ECDSA("EC", "SHA256withECDSA") {
+		@Override
+		void initialize(KeyPairGenerator gen) throws InvalidAlgorithmParameterException {
+			gen.initialize(new ECGenParameterSpec("secp256r1"));
+		}
+	},
+	/**
+	 * EdDSA on Curve25519, with fast key generation and 64 byte signatures. It is
+	 * only provided by Java 15 and later.
+	 */
+	ED25519("Ed25519", "Ed25519") {
+		@Override
+		void initialize(KeyPairGenerator gen) {
+		}
+	};
+
+	private final String keyAlgorithm;
+	private final String signatureAlgorithm;
+
+	SignatureScheme(String keyAlgorithm, String signatureAlgorithm) {
+		this.keyAlgorithm = keyAlgorithm;
+		this.signatureAlgorithm = signatureAlgorithm;
+	}
+
+	abstract void initialize(KeyPairGenerator gen) throws InvalidAlgorithmParameterException;
+
+	/**
+	 * Generates a new key pair of this scheme.
+	 *
+	 * @throws IllegalStateException if the scheme is not provided by this JVM
+	 */
+	public KeyPair generateKeyPair() {
+		try {
+			KeyPairGenerator gen = KeyPairGenerator.getInstance(keyAlgorithm);
+			initialize(gen);
+			return gen.generateKeyPair();
+		} catch (NoSuchAlgorithmException | InvalidAlgorithmParameterException e) {
+			throw new IllegalStateException("[SignatureScheme] " + this + " is not supported by this JVM", e);
+		}
+	}
+
+	/**
+	 * @return the name of the key algorithm, e.g. for a KeyFactory
+	 */
+	public String getKeyAlgorithm() {
+		return keyAlgorithm;
+	}
+
+	/**
+	 * @return the name of the signature algorithm, for a Signature
+	 */
+	public String getSignatureAlgorithm() {
+		return signatureAlgorithm;
+	}
+}
@@ -0,0 +1,30 @@
+package simulation;
+
+import java.io.Serializable;
+
+class BlockPoVLog implements Serializable {
+	private static final long serialVersionUID = 1L;
+
+	private boolean approved;
+	private int numTransactions;
+	private long timeTaken;
+
+	public BlockPoVLog(boolean approved, int numTransactions, long timeTaken) {
+		this.approved = approved;
+		this.numTransactions = numTransactions;
+		this.timeTaken = timeTaken;
+	}
+
+	public boolean isApproved() {
+		return approved;
+	}
+
+	public long timeTaken() {
+		return timeTaken;
+	}
+
+	@Override
+	public String toString() {
+		return timeTaken + "," + numTransactions + "," + approved + "\n";
+	}
+}
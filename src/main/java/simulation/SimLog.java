@@ -1,6 +1,7 @@
 package simulation;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class SimLog {
@@ -10,6 +11,8 @@ public class SimLog {
 	private List<TransactionLog> failedTransactions;
 	private List<MineAttemptLog> validMineLog;
 	private List<MineAttemptLog> failedMineLog;
+	// blocks are validated on the threads of the underlay, concurrently with the simulation
+	private List<BlockPoVLog> blockPoVLog;
 	
 
 	public SimLog(boolean mode) {
@@ -18,6 +21,7 @@ public class SimLog {
 		failedTransactions = new ArrayList<>();
 		validMineLog = new ArrayList<>();
 		failedMineLog = new ArrayList<>();
+		blockPoVLog = Collections.synchronizedList(new ArrayList<>());
 	}
 
 	public void logTransaction(boolean success, int isAuthenticated, int isSound, int isCorrect, int hasBalance,
@@ -37,6 +41,21 @@ public class SimLog {
 			failedMineLog.add(log);
 	}
 
+	/**
+	 * Logs the proof of validation of a block done by this node as a validator.
+	 *
+	 * @param approved        whether the block was signed
+	 * @param numTransactions number of transactions in the block
+	 * @param time            time (in ms) the validation took
+	 */
+	public void logBlockPoV(boolean approved, int numTransactions, long time) {
+		blockPoVLog.add(new BlockPoVLog(approved, numTransactions, time));
+	}
+
+	public List<BlockPoVLog> getBlockPoVLog() {
+		return blockPoVLog;
+	}
+
 	public List<TransactionLog> getValidTransactions() {
 		return validTransactions;
 	}
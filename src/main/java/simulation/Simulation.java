@@ -1,10 +1,19 @@
 package simulation;
 
 import blockchain.LightChainNode;
+import blockchain.Mempool;
 import blockchain.Parameters;
+import blockchain.PublicKeyCache;
+import blockchain.TipCache;
+import blockchain.ValidatedTransactionCache;
 import skipGraph.LookupTable;
+import skipGraph.LocationCache;
 import skipGraph.NodeInfo;
+import skipGraph.SkipNode;
+import underlay.InterfaceType;
 import underlay.Underlay;
+import underlay.nio.NIOUnderlay;
+import underlay.rmi.RMIStubCache;
 import underlay.rmi.RMIUnderlay;
 import util.Const;
 import util.Util;
@@ -21,6 +30,15 @@ import java.util.concurrent.CountDownLatch;
 public class Simulation {
 
 	public static void startSimulation(Parameters params, int nodeCount ,int iterations, int pace){
+		startSimulation(params, nodeCount, iterations, pace, InterfaceType.RMIInterface);
+	}
+
+	/**
+	 * Runs the simulation with every node launched on the given transport.
+	 *
+	 * @param underlayType either InterfaceType.RMIInterface or InterfaceType.NIOInterface
+	 */
+	public static void startSimulation(Parameters params, int nodeCount ,int iterations, int pace, InterfaceType underlayType){
 		try {
 			Random rnd = new Random();
 			ArrayList<LightChainNode> nodes = new ArrayList<>();
@@ -30,7 +48,7 @@ public class Simulation {
 				try{
 					int port = rnd.nextInt(65535);
 					LightChainNode node;
-					Underlay underlay = new RMIUnderlay(port);
+					Underlay underlay = createUnderlay(underlayType, port);
 					if(i == 0){
 						node = new LightChainNode(params, port, Const.DUMMY_INTRODUCER, true, underlay);
 						initialNode = node;
@@ -60,6 +78,15 @@ public class Simulation {
 
 			long endTime = System.currentTimeMillis();
 			Util.log("the lock could not be obtained " + LookupTable.lockFailureCount + " times");
+			logStubCacheStats(nodes);
+			logSearchStats(params);
+			logInsertWaitStats();
+			logLocationCacheStats(nodes);
+			logTipCacheStats(nodes);
+			logPublicKeyCacheStats(nodes);
+			logValidatedTransactionCacheStats(nodes);
+			logMempoolStats(nodes);
+			logViewStats(nodes);
 			Util.log("Simulation Done. Time Taken " +(endTime - startTime)+ " ms");
 			
 			processData(map, iterations);
@@ -69,9 +96,180 @@ public class Simulation {
 		}   }
 
 
+	private static Underlay createUnderlay(InterfaceType underlayType, int port) {
+		if (underlayType == InterfaceType.NIOInterface)
+			return new NIOUnderlay(port);
+		return new RMIUnderlay(port);
+	}
+
+	private static void logStubCacheStats(List<LightChainNode> nodes) {
+		long hits = 0;
+		long misses = 0;
+		long invalidations = 0;
+		for (LightChainNode node : nodes) {
+			if (!(node.getUnderlay() instanceof RMIUnderlay))
+				continue;
+			RMIStubCache cache = ((RMIUnderlay) node.getUnderlay()).getStubCache();
+			hits += cache.getHits();
+			misses += cache.getMisses();
+			invalidations += cache.getInvalidations();
+		}
+		Util.log("RMI stub cache: " + hits + " hits, " + misses + " misses, " + invalidations + " invalidations");
+	}
+
+	private static void logSearchStats(Parameters params) {
+		long searches = SkipNode.numIDSearchCount.get();
+		long hops = SkipNode.numIDSearchHops.get();
+		double timeMs = SkipNode.numIDSearchTime.get() / 1e6;
+		Util.log(params.getSearchMode() + " numID searches: " + searches + " searches, "
+				+ (searches == 0 ? 0 : (double) hops / searches) + " hops and "
+				+ (searches == 0 ? 0 : timeMs / searches) + " ms per search, "
+				+ (hops == 0 ? 0 : timeMs / hops) + " ms per hop, at most "
+				+ SkipNode.peakSearchHandlers.get() + " threads busy with searches");
+	}
+
+	private static void logInsertWaitStats() {
+		long waits = SkipNode.insertWaitCount.get();
+		double timeMs = SkipNode.insertWaitTime.get() / 1e6;
+		Util.log("insert searches waited " + waits + " times for a node being inserted, "
+				+ (waits == 0 ? 0 : timeMs / waits) + " ms per wait, "
+				+ SkipNode.insertWaitTimeouts.get() + " timeouts");
+	}
+
+	private static void logLocationCacheStats(List<LightChainNode> nodes) {
+		long hits = 0;
+		long misses = 0;
+		long invalidations = 0;
+		long savedHops = 0;
+		for (LightChainNode node : nodes) {
+			LocationCache cache = node.getLocationCache();
+			hits += cache.getHits();
+			misses += cache.getMisses();
+			invalidations += cache.getInvalidations();
+			savedHops += cache.getSavedHops();
+		}
+		Util.log("location cache: " + hits + " hits, " + misses + " misses, " + invalidations + " invalidations, "
+				+ (hits + misses == 0 ? 0 : (double) hits / (hits + misses)) + " hit ratio, "
+				+ savedHops + " search hops saved");
+	}
+
+	private static void logTipCacheStats(List<LightChainNode> nodes) {
+		long hits = 0;
+		long misses = 0;
+		long invalidations = 0;
+		long pushes = 0;
+		for (LightChainNode node : nodes) {
+			TipCache cache = node.getTipCache();
+			hits += cache.getHits();
+			misses += cache.getMisses();
+			invalidations += cache.getInvalidations();
+			pushes += cache.getPushes();
+		}
+		Util.log("latest block cache: " + hits + " hits, " + misses + " misses, " + invalidations + " invalidations, "
+				+ pushes + " new blocks cached without a lookup");
+	}
+
+	private static void logPublicKeyCacheStats(List<LightChainNode> nodes) {
+		long hits = 0;
+		long misses = 0;
+		long shared = 0;
+		for (LightChainNode node : nodes) {
+			PublicKeyCache cache = node.getPublicKeyCache();
+			hits += cache.getHits();
+			misses += cache.getMisses();
+			shared += cache.getSharedFetches();
+		}
+		Util.log("public key cache: " + hits + " hits, " + misses + " misses, " + shared
+				+ " misses served by a fetch in flight");
+	}
+
+	private static void logValidatedTransactionCacheStats(List<LightChainNode> nodes) {
+		long hits = 0;
+		long misses = 0;
+		for (LightChainNode node : nodes) {
+			ValidatedTransactionCache cache = node.getValidatedTransactionCache();
+			hits += cache.getHits();
+			misses += cache.getMisses();
+		}
+		Util.log("validated transaction cache: " + hits + " transactions of blocks were already authenticated, "
+				+ misses + " were checked");
+	}
+
+	private static void logMempoolStats(List<LightChainNode> nodes) {
+		long added = 0;
+		long included = 0;
+		long dropped = 0;
+		for (LightChainNode node : nodes) {
+			Mempool mempool = node.getMempool();
+			added += mempool.getAdded();
+			included += mempool.getIncluded();
+			dropped += mempool.getDropped();
+		}
+		Util.log("mempool: " + added + " transactions added, " + included + " included in blocks, "
+				+ dropped + " dropped when full");
+	}
+
+	private static void logViewStats(List<LightChainNode> nodes) {
+		long refreshes = 0;
+		long skips = 0;
+		long stale = 0;
+		for (LightChainNode node : nodes) {
+			refreshes += node.getViewRefreshes();
+			skips += node.getViewRefreshSkips();
+			stale += node.getStaleViewDecisions();
+		}
+		Util.log("view: " + refreshes + " tails applied, " + skips + " refreshes skipped, " + stale
+				+ " PoV decisions taken on a changing view");
+	}
+
 	private static void processData(ConcurrentHashMap<NodeInfo, SimLog> map,int iterations) {
 		processTransactions(map, iterations);
 		processMineAttempts(map, iterations);
+		processBlockPoVs(map);
+	}
+
+	private static void processBlockPoVs(ConcurrentHashMap<NodeInfo, SimLog> map) {
+
+		try {
+			String logPath = System.getProperty("user.dir") + File.separator + "Logs" + File.separator
+					+ "BlockPoV.csv";
+			File logFile = new File(logPath);
+
+			logFile.getParentFile().mkdirs();
+			PrintWriter writer;
+
+			writer = new PrintWriter(logFile);
+
+			StringBuilder sb = new StringBuilder();
+
+			sb.append("NumID," + "Honest," + "PoV time(ms)," + "Transactions," + "Approved\n");
+
+			long timeSum = 0;
+			int count = 0;
+
+			for (NodeInfo cur : map.keySet()) {
+				SimLog log = map.get(cur);
+				List<BlockPoVLog> povs = new ArrayList<>(log.getBlockPoVLog());
+
+				sb.append(cur.getNumID() + "," + log.getMode() + ",");
+				for (int i = 0; i < povs.size(); i++) {
+					if (i != 0)
+						sb.append(",,");
+					sb.append(povs.get(i));
+					timeSum += povs.get(i).timeTaken();
+				}
+				count += povs.size();
+				if (povs.isEmpty())
+					sb.append('\n');
+			}
+			sb.append("Average PoV time = " + (count == 0 ? 0 : (double) timeSum / count) + "\n");
+
+			writer.write(sb.toString());
+			writer.close();
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+		}
+
 	}
 
 	private static void processMineAttempts(ConcurrentHashMap<NodeInfo, SimLog> map,int iterations) {
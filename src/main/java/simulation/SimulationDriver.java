@@ -3,6 +3,9 @@ package simulation;
 import blockchain.Parameters;
 import org.apache.log4j.Logger;
 import org.apache.log4j.PropertyConfigurator;
+import signature.SignatureScheme;
+import skipGraph.SearchMode;
+import underlay.InterfaceType;
 import util.PropertyManager;
 
 public class SimulationDriver {
@@ -19,14 +22,19 @@ public class SimulationDriver {
         params.setMode(getBoolProperty("Mode", "True"));
         params.setInitialToken(getIntProperty("token", "20"));
         params.setChain(getBoolProperty("ContractMode", "True"));
+        params.setSearchMode(getSearchModeProperty("searchMode", "RECURSIVE"));
+        params.setTipCacheTTL(getIntProperty("tipCacheTTL", "1000"));
+        params.setTipPush(getBoolProperty("tipPush", "False"));
+        params.setSignatureScheme(getSignatureSchemeProperty("signatureScheme", "RSA"));
         int nodeCount = getIntProperty("nodeCount", "20");
         int iterations = getIntProperty("iterations", "50");
         int pace = getIntProperty("pace","1");
+        InterfaceType underlayType = getUnderlayProperty("underlay", "RMI");
         
         Logger lg = Logger.getLogger(SimulationDriver.class);
-        lg.info("Starting simulation with parameters: "+ params+" Number of nodes: "+ nodeCount+ "\n Number of iterations: "+ iterations+ "\n Pace: "+ pace);
+        lg.info("Starting simulation with parameters: "+ params+" Number of nodes: "+ nodeCount+ "\n Number of iterations: "+ iterations+ "\n Pace: "+ pace+ "\n Underlay: "+ underlayType);
 
-        simulation.Simulation.startSimulation(params, nodeCount, iterations, pace);
+        simulation.Simulation.startSimulation(params, nodeCount, iterations, pace, underlayType);
         System.exit(0);
     }
 
@@ -43,4 +51,26 @@ public class SimulationDriver {
     private static boolean getBoolProperty(String key, String def){
         return Boolean.parseBoolean(propMng.getProperty(key, def));
     }
+
+    // RMI -> Java RMI underlay || NIO -> non-blocking TCP underlay
+    private static InterfaceType getUnderlayProperty(String key, String def){
+        String value = propMng.getProperty(key, def).trim();
+        return value.equalsIgnoreCase("NIO") ? InterfaceType.NIOInterface : InterfaceType.RMIInterface;
+    }
+
+    // RECURSIVE -> every hop forwards the search || ITERATIVE -> the searching node drives every hop
+    private static SearchMode getSearchModeProperty(String key, String def){
+        String value = propMng.getProperty(key, def).trim();
+        return value.equalsIgnoreCase("ITERATIVE") ? SearchMode.ITERATIVE : SearchMode.RECURSIVE;
+    }
+
+    // RSA -> RSA-2048 || ECDSA -> ECDSA on P-256 || ED25519 -> Ed25519 (Java 15+)
+    private static SignatureScheme getSignatureSchemeProperty(String key, String def){
+        String value = propMng.getProperty(key, def).trim();
+        if (value.equalsIgnoreCase("ECDSA"))
+            return SignatureScheme.ECDSA;
+        if (value.equalsIgnoreCase("ED25519"))
+            return SignatureScheme.ED25519;
+        return SignatureScheme.RSA;
+    }
 }
@@ -0,0 +1,146 @@
+package skipGraph;
+
+import util.Util;
+
+import java.io.Serializable;
+
+/**
+ * A binary identifier such as a nameID, packed into a long instead of a String
+ * of '0' and '1' characters. The first bit of the identifier is the most
+ * significant bit of the long, so the number of common leading bits of two
+ * identifiers is the number of leading zeros of their XOR. Identifiers that do
+ * not fit this form (longer than 64 bits, or not binary) keep their String and
+ * are compared character by character, as nameIDs used to be.
+ */
+public final class Identifier implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int MAX_PACKED_LENGTH = 64;
+
+    private final long bits;
+    private final int length;
+    // only set for identifiers that could not be packed
+    private final String text;
+
+    private Identifier(long bits, int length, String text) {
+        this.bits = bits;
+        this.length = length;
+        this.text = text;
+    }
+
+    /**
+     * Packs the given bits into an identifier.
+     *
+     * @param bits   the bits of the identifier, aligned to the most significant bit
+     * @param length the number of bits of the identifier
+     */
+    public static Identifier of(long bits, int length) {
+        if (length < 0 || length > MAX_PACKED_LENGTH)
+            throw new IllegalArgumentException("[Identifier] Invalid length " + length);
+        return new Identifier(bits & mask(length), length, null);
+    }
+
+    /**
+     * Converts a String of '0' and '1' characters into an identifier.
+     *
+     * @param s the binary String, e.g. a nameID
+     * @return the identifier, or null if s is null
+     */
+    public static Identifier valueOf(String s) {
+        if (s == null)
+            return null;
+        if (s.length() > MAX_PACKED_LENGTH)
+            return new Identifier(0, s.length(), s);
+        long bits = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '1')
+                bits |= 1L << (63 - i);
+            else if (c != '0')
+                return new Identifier(0, s.length(), s);
+        }
+        return new Identifier(bits, s.length(), null);
+    }
+
+    /**
+     * Returns the number of common leading bits of two identifiers, following
+     * {@link Util#commonBits(String, String)}.
+     *
+     * @return the number of common leading bits, or -1 if either identifier is
+     * null or their lengths differ
+     */
+    public static int commonBits(Identifier a, Identifier b) {
+        if (a == null || b == null || a.length != b.length)
+            return -1;
+        if (a.text != null || b.text != null)
+            return Util.commonBits(a.toString(), b.toString());
+        long diff = a.bits ^ b.bits;
+        return diff == 0 ? a.length : Math.min(Long.numberOfLeadingZeros(diff), a.length);
+    }
+
+    public int commonBits(Identifier other) {
+        return commonBits(this, other);
+    }
+
+    /**
+     * @param index the index of the bit, starting at the first bit
+     * @return the bit at the given index as 0 or 1
+     */
+    public int bit(int index) {
+        if (text != null)
+            return text.charAt(index) == '1' ? 1 : 0;
+        return (int) (bits >>> (63 - index)) & 1;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isPacked() {
+        return text == null;
+    }
+
+    /**
+     * @return the bits of a packed identifier, aligned to the most significant bit
+     */
+    public long getBits() {
+        return bits;
+    }
+
+    private static long mask(int length) {
+        return length == 0 ? 0 : -1L << (64 - length);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Identifier))
+            return false;
+        Identifier other = (Identifier) obj;
+        if (text != null || other.text != null)
+            return toString().equals(other.toString());
+        return bits == other.bits && length == other.length;
+    }
+
+    @Override
+    public int hashCode() {
+        if (text != null)
+            return text.hashCode();
+        return 31 * Long.hashCode(bits) + length;
+    }
+
+    /**
+     * @return the identifier as a String of '0' and '1' characters
+     */
+    @Override
+    public String toString() {
+        if (text != null)
+            return text;
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++)
+            chars[i] = bit(i) == 1 ? '1' : '0';
+        return new String(chars);
+    }
+}
@@ -0,0 +1,39 @@
+package skipGraph;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * A batch of consecutive nodes of one list of the skip graph, read in a single request: the nodes
+ * a peer could reach by following its own links among the data nodes it hosts, and the neighbor
+ * the scan continues at on another peer.
+ */
+public class LevelScan implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final List<NodeInfo> nodes;
+    private final NodeInfo next;
+
+    /**
+     * @param nodes the nodes of the batch in the order of the scan, starting at the node the scan
+     *              was asked for
+     * @param next  the neighbor of the last node of the batch, or null if the list ends there
+     */
+    public LevelScan(List<NodeInfo> nodes, NodeInfo next) {
+        this.nodes = nodes;
+        this.next = next;
+    }
+
+    public List<NodeInfo> getNodes() {
+        return nodes;
+    }
+
+    public NodeInfo getNext() {
+        return next;
+    }
+
+    public boolean isLast() {
+        return next == null;
+    }
+}
@@ -0,0 +1,167 @@
+package skipGraph;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of the nodes that searches by numID have resolved, keyed by
+ * numID. A search for a numID that is cached only has to confirm with the
+ * cached address that the node is still there, instead of being routed through
+ * the skip graph again. Entries expire a fixed time after they were resolved,
+ * and the least recently used entries are evicted once the capacity is
+ * exceeded.
+ */
+public class LocationCache {
+
+    // maps a numID to its cached node, ordered by access (least recently used first)
+    private final LinkedHashMap<Integer, Entry> nodes;
+
+    private final int capacity;
+    private final long ttlMillis;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong savedHops = new AtomicLong();
+
+    /**
+     * @param capacity  maximum number of nodes kept in the cache
+     * @param ttlMillis a node that was resolved longer ago than this is stale
+     */
+    public LocationCache(int capacity, long ttlMillis) {
+        this.capacity = capacity;
+        this.ttlMillis = ttlMillis;
+        this.nodes = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached node of the given numID, or null if there is no fresh
+     * node cached for it. The caller is expected to confirm the node, and to
+     * report the outcome through {@link LocationCache#hit(int, int)} or
+     * {@link LocationCache#reject(int)}.
+     *
+     * @param numID the numID that is searched for
+     * @return the cached node or null
+     */
+    public synchronized NodeInfo get(int numID) {
+        Entry entry = nodes.get(numID);
+        if (entry == null || System.currentTimeMillis() - entry.resolved > ttlMillis) {
+            if (entry != null)
+                nodes.remove(numID);
+            misses.incrementAndGet();
+            return null;
+        }
+        return entry.node;
+    }
+
+    /**
+     * Records that the cached node of the given numID was confirmed, which saved
+     * the hops its search took apart from those spent on the confirmation.
+     *
+     * @param numID       the numID that was searched for
+     * @param confirmHops the number of requests the confirmation took
+     */
+    public synchronized void hit(int numID, int confirmHops) {
+        Entry entry = nodes.get(numID);
+        hits.incrementAndGet();
+        if (entry != null)
+            savedHops.addAndGet(Math.max(0, entry.hops - confirmHops));
+    }
+
+    /**
+     * Records that the cached node of the given numID could not be confirmed, and
+     * drops it.
+     *
+     * @param numID the numID that was searched for
+     */
+    public synchronized void reject(int numID) {
+        misses.incrementAndGet();
+        invalidate(numID);
+    }
+
+    /**
+     * Stores the node a search resolved, evicting the least recently used entries
+     * if the capacity is exceeded.
+     *
+     * @param node the node whose numID was searched for
+     * @param hops the number of hops the search took
+     */
+    public synchronized void put(NodeInfo node, int hops) {
+        nodes.put(node.getNumID(), new Entry(node, hops, System.currentTimeMillis()));
+        Iterator<Map.Entry<Integer, Entry>> it = nodes.entrySet().iterator();
+        while (it.hasNext() && nodes.size() > capacity) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    /**
+     * Drops the cached node of the given numID, e.g. because it could not be
+     * confirmed or because it was deleted or moved.
+     *
+     * @param numID the numID of the node
+     */
+    public synchronized void invalidate(int numID) {
+        if (nodes.remove(numID) != null)
+            invalidations.incrementAndGet();
+    }
+
+    /**
+     * Drops the cached node of the given node's numID if it is cached at another
+     * address, i.e. if the node has moved.
+     *
+     * @param node the node as it is now
+     */
+    public synchronized void invalidateIfMoved(NodeInfo node) {
+        Entry entry = nodes.get(node.getNumID());
+        if (entry != null && !entry.node.getAddress().equals(node.getAddress())) {
+            nodes.remove(node.getNumID());
+            invalidations.incrementAndGet();
+        }
+    }
+
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    /**
+     * @return the number of search hops that were avoided by cache hits
+     */
+    public long getSavedHops() {
+        return savedHops.get();
+    }
+
+    /**
+     * @return the fraction of lookups that were served from the cache
+     */
+    public double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private static class Entry {
+        final NodeInfo node;
+        final int hops;
+        final long resolved;
+
+        Entry(NodeInfo node, int hops, long resolved) {
+            this.node = node;
+            this.hops = hops;
+            this.resolved = resolved;
+        }
+    }
+}
@@ -1,483 +1,557 @@
-package skipGraph;
-
-import util.Const;
-import util.Util;
-
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-
-/**
- * @author Shadi Hamdan
- */
-
-public class LookupTable {
-    private int maxLevels;
-    private Map<Integer, NodeInfo> dataNodes;
-    private Map<Integer, Table> lookup;
-
-    public static int lockFailureCount = 0;
-
-    /*
-     * The buffer is there so we can finalize a node's table and insertion before we
-     * add it to the other nodes. This prevents any access to it during search etc.
-     * So it is basically to prevent access to the node's lookup table until it is
-     * fully inserted.
-     */
-    private NodeInfo nodeBuffer;
-    private Table tableBuffer;
-
-    /**
-     * LookupTable constructor
-     *
-     * @param maxLevels the maximum number of levels in the skip graph
-     */
-    public LookupTable(int maxLevels) {
-        this.maxLevels = maxLevels;
-        this.dataNodes = new HashMap<>();
-        this.lookup = new HashMap<>();
-    }
-
-    /**
-     * @return how many data nodes we have in this address
-     */
-    public int size() {
-        return dataNodes.size();
-    }
-
-    /**
-     * returns the numIDs of data nodes
-     *
-     * @return
-     */
-    public Set<Integer> keySet() {
-        return lookup.keySet();
-    }
-
-    /**
-     * @return numID of node in the buffer currently if it exists
-     */
-    public int bufferNumID() {
-        if (nodeBuffer == null)
-            return -1;
-        return nodeBuffer.getNumID();
-    }
-
-    public Table getLookUpTable() {
-        return tableBuffer;
-    }
-
-    /**
-     * Adds a node to the data nodes. Warning: Only use this if the node you are
-     * adding is properly initialized and ready to be accessed. If you still want to
-     * initialize the node (eg. the lookup table is not finalized or you do not want
-     * it to be accessible yet) then use
-     * {@link LookupTable#initializeNode(NodeInfo)}
-     *
-     * @param node The node that is to be added the lookup
-     * @return false if the numID given was added previously, true otherwise.
-     */
-    public boolean addNode(NodeInfo node) {
-        NodeInfo ret = dataNodes.put(node.getNumID(), node);
-        if (ret == null) {
-            lookup.put(node.getNumID(), new Table());
-        }
-        return ret == null;
-    }
-
-    /**
-     * Adds the node to the buffer. This allows the user to finish finalizing the
-     * node's lookup table before making it accessible. This also makes the node
-     * inaccessible from getBestNum and getBestName. Once the node is finalized, you
-     * can use {@link LookupTable#finalizeNode()} to commit the node to the lookup
-     * table.
-     *
-     * @param node The NodeInfo of the node you want to add to the buffer.
-     */
-    public void initializeNode(NodeInfo node) {
-        nodeBuffer = Util.assignNode(node);
-        tableBuffer = new Table();
-        try {
-            tableBuffer.lockTable();
-        } catch (InterruptedException e) {
-            e.printStackTrace();
-        }
-    }
-
-    /**
-     * Commits the node in buffer to the lookup table.
-     *
-     * @return Returns false if the node was not initialized properly and thus not
-     * committed.
-     */
-    public boolean finalizeNode() {
-        if (this.nodeBuffer == null || this.tableBuffer == null)
-            return false;
-        dataNodes.put(nodeBuffer.getNumID(), nodeBuffer);
-        lookup.put(nodeBuffer.getNumID(), tableBuffer);
-        tableBuffer.unlockTable();
-        nodeBuffer = null;
-        tableBuffer = null;
-        return true;
-    }
-
-    /**
-     * Removes all references to the node with the given numID
-     *
-     * @param numID the numID of the node you want to remove
-     * @return the stored node info of the given numID.
-     */
-    public NodeInfo remove(int numID) {
-        lookup.remove(numID);
-        return dataNodes.remove(numID);
-    }
-
-    /**
-     * Gets the information of the node with the given numID
-     *
-     * @param numID the numID of the node you want to remove
-     * @return the stored node info of the given numID
-     */
-    public NodeInfo get(int numID) {
-        // if the requested node is the one currently in the buffer
-        // then it is okay return its NodeInfo
-        if (nodeBuffer != null && nodeBuffer.getNumID() == numID) {
-            return nodeBuffer;
-        }
-        return dataNodes.get(numID);
-    }
-
-    /**
-     * Get the neighbor of the node with the given numID at the given level and
-     * direction.
-     *
-     * @param numID     The numID of the node that you want to check the neighbour
-     *                  of
-     * @param level     The level on the lookup table
-     * @param direction The direction (lookupTable.RIGHT or lookupTable.LEFT)
-     * @return The information of the desired neighbour or null if the numID is
-     * invalid
-     */
-    public NodeInfo get(int numID, int level, int direction) {
-        // if the lookup table of the node in the buffer is to be accessed,
-        // then this will cause a block at this point until finalizeNode is
-        // called to unlock the tableBuffer.
-        if (nodeBuffer != null && nodeBuffer.getNumID() == numID) {
-            tableBuffer.get(level, direction);
-        }
-        if (!dataNodes.containsKey(numID))
-            return null;
-        return lookup.get(numID).get(level, direction);
-    }
-
-    public boolean nodeExist(int numID) {
-        return ((nodeBuffer != null && nodeBuffer.getNumID() == numID)) || dataNodes.containsKey(numID);
-    }
-
-    public boolean isLockAvailable(int numID) {
-        if (nodeBuffer != null && nodeBuffer.getNumID() == numID) {
-            boolean tmp = tableBuffer.lock.readLock().tryLock();
-            if (tmp) {
-                tableBuffer.lock.readLock().unlock();
-                return true;
-            } else {
-                return false;
-            }
-        }
-
-        boolean tmp = lookup.get(numID).lock.readLock().tryLock();
-        if (tmp) {
-            lookup.get(numID).lock.readLock().unlock();
-            return true;
-        } else {
-            return false;
-        }
-    }
-
-    /**
-     * Put the given newNode as a neighbor of the node with the given numID at the
-     * given level and direction if the node in place is the given expectedOldNode
-     *
-     * @param numID           The numID of the node that you want to check the
-     *                        neighbour of
-     * @param level           The level on the lookup table
-     * @param direction       The direction (lookupTable.RIGHT or lookupTable.LEFT)
-     * @param newNode         The node that you want in this location
-     * @param expectedOldNode The node that you think is in this location (This is
-     *                        to ensure that the lookup has not been modified since
-     *                        you last used "get()"
-     * @return Returns true if the node was placed properly and the expectedOldNode
-     * was what it replaced. False and the lookup is not modified otherwise.
-     */
-    public boolean put(int numID, int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode) {
-        if (nodeBuffer != null && nodeBuffer.getNumID() == numID) {
-            return tableBuffer.safePut(level, direction, newNode, expectedOldNode);
-        }
-        if (!lookup.containsKey(numID))
-            return false;
-        return lookup.get(numID).safePut(level, direction, newNode, expectedOldNode);
-    }
-
-    /**
-     * Returns the data node with the numID that is closest to the current node.
-     *
-     * @param numID The numID you are looking for
-     * @return The numID of the node that is closest to the argument.
-     */
-    public int getBestNum(int numID) {
-        long bestDif = Long.MAX_VALUE;
-        int bestNum = -1;
-        for (int cur : dataNodes.keySet()) {
-            int dif = Math.abs(numID - cur);
-            if (dif < bestDif) {
-                bestDif = dif;
-                bestNum = cur;
-            }
-        }
-        return bestNum;
-    }
-
-    /**
-     * This method receives a nameID and returns the index of the data node which
-     * has the most common prefix with the given nameID
-     *
-     * @param name      nameID for which we shall find closest data node
-     * @param direction the direction of search at the moment of call
-     * @return numID of closest node
-     */
-    public int getBestName(String name, int direction) {
-        try {
-            int best = -1;
-            int num = -1;
-            for (int cur : dataNodes.keySet()) {
-                if (num == -1)
-                    num = cur;
-                int tmp = Util.commonBits(name, dataNodes.get(cur).getNameID());
-                if (tmp > best) {
-                    best = tmp;
-                    num = cur;
-                }
-            }
-            for (int cur : dataNodes.keySet()) {
-                int bits = Util.commonBits(name, dataNodes.get(cur).getNameID());
-                if (bits == best) {
-                    if (direction == Const.RIGHT) {
-                        if (dataNodes.get(cur).getNumID() > num) {
-                            num = dataNodes.get(cur).getNumID();
-                        }
-                    } else if (dataNodes.get(cur).getNumID() < num) {
-                        num = dataNodes.get(cur).getNumID();
-                    }
-                }
-            }
-            return num;
-        } catch (Exception e) {
-            e.printStackTrace();
-            return 0;
-        }
-    }
-
-    public List<NodeInfo> getLevel(int level, NodeInfo start) {
-        List<NodeInfo> list = new ArrayList<>();
-
-        NodeInfo node = Util.assignNode(start);
-        while (node != null) {
-            list.add(node);
-            node = get(node.getNumID(), level, Const.LEFT);
-        }
-        Collections.reverse(list);
-        node = get(start.getNumID(), level, Const.RIGHT);
-        while (node != null) {
-            list.add(node);
-            node = get(node.getNumID(), level, Const.RIGHT);
-        }
-
-        return list;
-    }
-
-    /**
-     * Print the contents of the lookup table
-     *
-     * @param num numID of node whose table is to be printed
-     */
-    public void printLookup(int num) {
-        System.out.println("\n");
-        for (int i = maxLevels - 1; i >= 0; i--) {
-            NodeInfo lNode = get(num, i, Const.LEFT);
-            NodeInfo rNode = get(num, i, Const.RIGHT);
-            if (lNode == null)
-                Util.logLine("null\t");
-            else {
-                Util.logLine(lNode.toString() + "\t");
-            }
-            if (rNode == null)
-                Util.logLine("null\t");
-            else {
-                Util.logLine(rNode.toString() + "\t");
-            }
-            Util.log("\n\n");
-        }
-    }
-
-    /**
-     * @return maximum levels in skip graph
-     */
-    public int getMaxLevels() {
-        return maxLevels;
-    }
-
-    class Table {
-
-        ReadWriteLock lock;
-
-        private ConcurrentHashMap<Integer, NodeInfo> table;
-
-        /**
-         * constructor for Table
-         */
-        public Table() {
-            table = new ConcurrentHashMap<Integer, NodeInfo>();
-            lock = new ReentrantReadWriteLock(true);
-
-        }
-
-        /**
-         * locks the table for write operations
-         *
-         * @throws InterruptedException
-         */
-        public void lockTable() throws InterruptedException {
-            lock.writeLock().tryLock(5, TimeUnit.SECONDS);
-        }
-
-        /**
-         * unlocks table for write operations
-         */
-        public void unlockTable() {
-            lock.writeLock().unlock();
-        }
-
-        /**
-         * returns neighbor node at a particular level and direction
-         *
-         * @param level     the level at which want to get neighbor
-         * @param direction left or right
-         * @return neighbor node
-         */
-        public NodeInfo get(int level, int direction) {
-
-            if (!validate(level, direction))
-                return null;
-
-            lock.readLock().lock();
-
-            try {
-                return table.get(getIndex(level, direction));
-            } finally {
-                lock.readLock().unlock();
-            }
-        }
-
-        /**
-         * adds a new entry to the table
-         *
-         * @param level     the level at which to add entry
-         * @param direction the direction at which to add entry (left or right)
-         * @param newNode   the new node to be added
-         * @return null if invalid parameters or old value otherwise
-         */
-        private NodeInfo put(int level, int direction, NodeInfo newNode) {
-            if (!validate(level, direction))
-                return null;
-
-            if (newNode == null)
-                return remove(level, direction);
-
-            NodeInfo res = table.put(getIndex(level, direction), newNode);
-
-            return res;
-        }
-
-        /**
-         * removes an entry from the table
-         *
-         * @param level     level of removal
-         * @param direction right or left
-         * @return removed elements
-         */
-        private NodeInfo remove(int level, int direction) {
-
-            return table.remove(getIndex(level, direction));
-
-        }
-
-        // TODO: see if we can get rid of expectedOldNode==null
-
-        /**
-         * @param level           level of addition
-         * @param direction       left or right
-         * @param newNode         new node to be added
-         * @param expectedOldNode node that is expected to be at that particular place
-         * @return true if indeed expected old node was there or false otherwise
-         */
-        public boolean safePut(int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode) {
-            NodeInfo cur = put(level, direction, newNode);
-            if (expectedOldNode == null || equal(cur, expectedOldNode))
-                return true;
-            else {
-                put(level, direction, cur);
-                return false;
-            }
-        }
-
-        /**
-         * checks if 2 node infos are equal
-         *
-         * @param nodeA first node to be compared
-         * @param nodeB second node to be compared
-         * @return true if nodes are equal, or false otherwise
-         */
-        private boolean equal(NodeInfo nodeA, NodeInfo nodeB) {
-            if (nodeA == null && nodeB == null) {
-                return true;
-            } else if (nodeA == null || nodeB == null)
-                return false;
-
-            return nodeA.equals(nodeB);
-        }
-
-        /**
-         * finds the index at which an entry will be placed in the table
-         *
-         * @param level     level of entry
-         * @param direction direction of entry (left or right)
-         * @return the index of position of entry in table
-         */
-        private int getIndex(int level, int direction) {
-            return 2 * level + direction;
-        }
-
-        /**
-         * validate checks if entry information is valid in that level should be less
-         * than maxLevels, and direction should be either left or right
-         *
-         * @param level     level of entry
-         * @param direction left or right
-         * @return
-         */
-        private boolean validate(int level, int direction) {
-            return validateLevel(level) && validateDir(direction);
-        }
-
-        private boolean validateLevel(int level) {
-            return level >= 0 && level <= maxLevels;
-        }
-
-        private boolean validateDir(int direction) {
-            return direction == Const.LEFT || direction == Const.RIGHT;
-        }
-    }
-}
+package skipGraph;
+
+import util.Const;
+import util.Util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * @author Shadi Hamdan
+ */
+
+public class LookupTable {
+    private int maxLevels;
+    private Map<Integer, NodeInfo> dataNodes;
+    private Map<Integer, Table> lookup;
+    // the numIDs and nameIDs of dataNodes, to find the closest data node fast
+    private NumIDIndex numIDs;
+    private NameIDTrie nameIDs;
+
+    public static int lockFailureCount = 0;
+
+    /*
+     * The buffers are there so we can finalize a node's table and insertion before
+     * we add it to the other nodes. This prevents any access to it during search etc.
+     * So it is basically to prevent access to the node's lookup table until it is
+     * fully inserted: reads of a buffered table wait until it is published. Every
+     * node that is being inserted has its own buffer, keyed by its numID, so that
+     * several insertions can be in flight at the same time.
+     */
+    private final Map<Integer, Buffer> buffers = new ConcurrentHashMap<>();
+
+    /**
+     * LookupTable constructor
+     *
+     * @param maxLevels the maximum number of levels in the skip graph
+     */
+    public LookupTable(int maxLevels) {
+        this.maxLevels = maxLevels;
+        this.dataNodes = new ConcurrentHashMap<>();
+        this.lookup = new ConcurrentHashMap<>();
+        this.numIDs = new NumIDIndex();
+        this.nameIDs = new NameIDTrie();
+    }
+
+    /**
+     * @return how many data nodes we have in this address
+     */
+    public int size() {
+        return dataNodes.size();
+    }
+
+    /**
+     * returns the numIDs of data nodes
+     *
+     * @return
+     */
+    public Set<Integer> keySet() {
+        return lookup.keySet();
+    }
+
+    /**
+     * @return true if the node with the given numID is in a buffer, i.e. it is
+     * still being inserted
+     */
+    public boolean isBuffered(int numID) {
+        return buffers.containsKey(numID);
+    }
+
+    /**
+     * @return the table of the node with the given numID that is being inserted,
+     * or null if there is none
+     */
+    public Table getLookUpTable(int numID) {
+        Buffer buffer = buffers.get(numID);
+        return buffer == null ? null : buffer.table;
+    }
+
+    /**
+     * Adds a node to the data nodes. Warning: Only use this if the node you are
+     * adding is properly initialized and ready to be accessed. If you still want to
+     * initialize the node (eg. the lookup table is not finalized or you do not want
+     * it to be accessible yet) then use
+     * {@link LookupTable#initializeNode(NodeInfo)}
+     *
+     * @param node The node that is to be added the lookup
+     * @return false if the numID given was added previously, true otherwise.
+     */
+    public boolean addNode(NodeInfo node) {
+        NodeInfo ret = dataNodes.put(node.getNumID(), node);
+        if (ret == null) {
+            lookup.put(node.getNumID(), new Table());
+        }
+        index(node, ret);
+        return ret == null;
+    }
+
+    /**
+     * Adds the node to the buffer. This allows the user to finish finalizing the
+     * node's lookup table before making it accessible. This also makes the node
+     * inaccessible from getBestNum and getBestName. Once the node is finalized, you
+     * can use {@link LookupTable#finalizeNode(int)} to commit the node to the
+     * lookup table.
+     *
+     * @param node The NodeInfo of the node you want to add to the buffer.
+     */
+    public void initializeNode(NodeInfo node) {
+        Buffer old = buffers.put(node.getNumID(), new Buffer(Util.assignNode(node), new Table(false)));
+        // a node that is inserted again replaces its unfinished insertion, whose
+        // readers are released
+        if (old != null)
+            old.table.publish();
+    }
+
+    /**
+     * Commits the node with the given numID in buffer to the lookup table.
+     *
+     * @param numID the numID of the node that was initialized
+     * @return Returns false if the node was not initialized properly and thus not
+     * committed.
+     */
+    public boolean finalizeNode(int numID) {
+        Buffer buffer = buffers.get(numID);
+        if (buffer == null)
+            return false;
+        lookup.put(numID, buffer.table);
+        NodeInfo ret = dataNodes.put(numID, buffer.node);
+        index(buffer.node, ret);
+        buffers.remove(numID, buffer);
+        buffer.table.publish();
+        return true;
+    }
+
+    /**
+     * Makes the levels up to the given one of a node that is being inserted
+     * readable before the node is finalized, once its neighbors at these levels
+     * are in place. This lets a bulk insertion search through the nodes of its
+     * batch while it links them at the higher levels.
+     *
+     * @param numID the numID of the node that was initialized
+     * @param level the highest level whose neighbors are in place
+     */
+    public void publishLevel(int numID, int level) {
+        Buffer buffer = buffers.get(numID);
+        if (buffer != null)
+            buffer.linkedLevel = Math.max(buffer.linkedLevel, level);
+    }
+
+    /**
+     * @return true if the neighbors of the node with the given numID at the given
+     * level can be read without waiting for its insertion
+     */
+    public boolean isLinked(int numID, int level) {
+        Buffer buffer = buffers.get(numID);
+        return buffer == null || buffer.table.isPublished() || level <= buffer.linkedLevel;
+    }
+
+    /**
+     * Drops the buffer of a node whose insertion failed, releasing the readers
+     * that wait for its table.
+     *
+     * @param numID the numID of the node that was initialized
+     */
+    public void discardNode(int numID) {
+        Buffer buffer = buffers.remove(numID);
+        if (buffer != null)
+            buffer.table.publish();
+    }
+
+    /**
+     * Removes all references to the node with the given numID
+     *
+     * @param numID the numID of the node you want to remove
+     * @return the stored node info of the given numID.
+     */
+    public NodeInfo remove(int numID) {
+        lookup.remove(numID);
+        NodeInfo ret = dataNodes.remove(numID);
+        if (ret != null) {
+            numIDs.remove(numID);
+            if (ret.getNameID() != null)
+                nameIDs.remove(ret.getNameIdentifier(), numID);
+        }
+        return ret;
+    }
+
+    /**
+     * Adds a data node to the numID and nameID indexes, replacing the data node
+     * it took the place of.
+     */
+    private void index(NodeInfo node, NodeInfo replaced) {
+        if (replaced != null && replaced.getNameID() != null)
+            nameIDs.remove(replaced.getNameIdentifier(), replaced.getNumID());
+        numIDs.add(node.getNumID());
+        if (node.getNameID() != null)
+            nameIDs.add(node.getNameIdentifier(), node.getNumID());
+    }
+
+    /**
+     * Gets the information of the node with the given numID
+     *
+     * @param numID the numID of the node you want to remove
+     * @return the stored node info of the given numID
+     */
+    public NodeInfo get(int numID) {
+        // if the requested node is the one currently in the buffer
+        // then it is okay return its NodeInfo
+        Buffer buffer = buffers.get(numID);
+        if (buffer != null) {
+            return buffer.node;
+        }
+        return dataNodes.get(numID);
+    }
+
+    /**
+     * Get the neighbor of the node with the given numID at the given level and
+     * direction.
+     *
+     * @param numID     The numID of the node that you want to check the neighbour
+     *                  of
+     * @param level     The level on the lookup table
+     * @param direction The direction (lookupTable.RIGHT or lookupTable.LEFT)
+     * @return The information of the desired neighbour or null if the numID is
+     * invalid
+     */
+    public NodeInfo get(int numID, int level, int direction) {
+        // if the lookup table of a node in the buffers is to be accessed,
+        // then this will cause a block at this point until finalizeNode
+        // publishes its table, unless the level is already linked.
+        Buffer buffer = buffers.get(numID);
+        if (buffer != null && level <= buffer.linkedLevel)
+            return buffer.table.get(level, direction);
+        if (buffer != null) {
+            try {
+                buffer.table.awaitPublished();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        if (!dataNodes.containsKey(numID))
+            return null;
+        Table table = lookup.get(numID);
+        return table == null ? null : table.get(level, direction);
+    }
+
+    public boolean nodeExist(int numID) {
+        return buffers.containsKey(numID) || dataNodes.containsKey(numID);
+    }
+
+    /**
+     * @return false if the node with the given numID is still being inserted, so
+     * that reading its lookup table would wait for the insertion to finish
+     */
+    public boolean isLockAvailable(int numID) {
+        Buffer buffer = buffers.get(numID);
+        return buffer == null || buffer.table.isPublished();
+    }
+
+    /**
+     * Waits until the node with the given numID is no longer being inserted. The
+     * wait ends as soon as finalizeNode or discardNode is called for the node.
+     *
+     * @param numID   the numID of the node
+     * @param timeout the maximum time to wait in milliseconds
+     * @return true if the node is not being inserted anymore, false if the
+     * timeout elapsed first
+     * @throws InterruptedException
+     */
+    public boolean awaitInsertion(int numID, long timeout) throws InterruptedException {
+        Buffer buffer = buffers.get(numID);
+        return buffer == null || buffer.table.awaitPublished(timeout);
+    }
+
+    /**
+     * Put the given newNode as a neighbor of the node with the given numID at the
+     * given level and direction if the node in place is the given expectedOldNode
+     *
+     * @param numID           The numID of the node that you want to check the
+     *                        neighbour of
+     * @param level           The level on the lookup table
+     * @param direction       The direction (lookupTable.RIGHT or lookupTable.LEFT)
+     * @param newNode         The node that you want in this location
+     * @param expectedOldNode The node that you think is in this location (This is
+     *                        to ensure that the lookup has not been modified since
+     *                        you last used "get()"
+     * @return Returns true if the node was placed properly and the expectedOldNode
+     * was what it replaced. False and the lookup is not modified otherwise.
+     */
+    public boolean put(int numID, int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode) {
+        Buffer buffer = buffers.get(numID);
+        if (buffer != null) {
+            return buffer.table.safePut(level, direction, newNode, expectedOldNode);
+        }
+        Table table = lookup.get(numID);
+        if (table == null)
+            return false;
+        return table.safePut(level, direction, newNode, expectedOldNode);
+    }
+
+    /**
+     * Returns the data node with the numID that is closest to the current node.
+     * Ties are broken in favour of the smaller numID.
+     *
+     * @param numID The numID you are looking for
+     * @return The numID of the node that is closest to the argument, or -1 if
+     * there are no data nodes.
+     */
+    public int getBestNum(int numID) {
+        return numIDs.closest(numID);
+    }
+
+    /**
+     * This method receives a nameID and returns the index of the data node which
+     * has the most common prefix with the given nameID
+     *
+     * @param name      nameID for which we shall find closest data node
+     * @param direction the direction of search at the moment of call
+     * @return numID of closest node
+     */
+    public int getBestName(String name, int direction) {
+        return getBestName(Identifier.valueOf(name), direction);
+    }
+
+    /**
+     * @see LookupTable#getBestName(String, int)
+     */
+    public int getBestName(Identifier name, int direction) {
+        try {
+            int num = name == null ? -1 : nameIDs.getBest(name, direction);
+            if (num != -1)
+                return num;
+            // no data node has a nameID comparable to the given one, so they are all
+            // equally far from it
+            return direction == Const.RIGHT ? numIDs.last() : numIDs.first();
+        } catch (Exception e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    public List<NodeInfo> getLevel(int level, NodeInfo start) {
+        List<NodeInfo> list = new ArrayList<>();
+
+        NodeInfo node = Util.assignNode(start);
+        while (node != null) {
+            list.add(node);
+            node = get(node.getNumID(), level, Const.LEFT);
+        }
+        Collections.reverse(list);
+        node = get(start.getNumID(), level, Const.RIGHT);
+        while (node != null) {
+            list.add(node);
+            node = get(node.getNumID(), level, Const.RIGHT);
+        }
+
+        return list;
+    }
+
+    /**
+     * Print the contents of the lookup table
+     *
+     * @param num numID of node whose table is to be printed
+     */
+    public void printLookup(int num) {
+        System.out.println("\n");
+        for (int i = maxLevels - 1; i >= 0; i--) {
+            NodeInfo lNode = get(num, i, Const.LEFT);
+            NodeInfo rNode = get(num, i, Const.RIGHT);
+            if (lNode == null)
+                Util.logLine("null\t");
+            else {
+                Util.logLine(lNode.toString() + "\t");
+            }
+            if (rNode == null)
+                Util.logLine("null\t");
+            else {
+                Util.logLine(rNode.toString() + "\t");
+            }
+            Util.log("\n\n");
+        }
+    }
+
+    /**
+     * @return maximum levels in skip graph
+     */
+    public int getMaxLevels() {
+        return maxLevels;
+    }
+
+    /**
+     * A node that is being inserted, together with its unpublished table.
+     */
+    private static class Buffer {
+        final NodeInfo node;
+        final Table table;
+        // the levels up to this one can be read before the node is finalized
+        volatile int linkedLevel = -1;
+
+        Buffer(NodeInfo node, Table table) {
+            this.node = node;
+            this.table = table;
+        }
+    }
+
+    /**
+     * The neighbors of one node, in a fixed array with one slot per level and
+     * direction. Slots are read and written without locks; a conditional update
+     * is a compare-and-set on its slot.
+     */
+    class Table {
+
+        private final AtomicReferenceArray<NodeInfo> table;
+
+        // released once the node of the table is fully inserted
+        private final CountDownLatch published;
+
+        /**
+         * constructor for Table
+         */
+        public Table() {
+            this(true);
+        }
+
+        /**
+         * @param published false for the table of a node that is still being
+         *                  inserted, whose reads through the LookupTable wait
+         *                  until {@link Table#publish()} is called
+         */
+        Table(boolean published) {
+            table = new AtomicReferenceArray<>(2 * (maxLevels + 1));
+            this.published = new CountDownLatch(published ? 0 : 1);
+        }
+
+        /**
+         * makes the table visible to the readers that wait for it
+         */
+        public void publish() {
+            published.countDown();
+        }
+
+        public boolean isPublished() {
+            return published.getCount() == 0;
+        }
+
+        /**
+         * waits until the table is published
+         *
+         * @throws InterruptedException
+         */
+        public void awaitPublished() throws InterruptedException {
+            published.await();
+        }
+
+        /**
+         * waits until the table is published or the timeout elapses
+         *
+         * @param timeout the maximum time to wait in milliseconds
+         * @return true if the table is published
+         * @throws InterruptedException
+         */
+        public boolean awaitPublished(long timeout) throws InterruptedException {
+            return published.await(timeout, TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * returns neighbor node at a particular level and direction
+         *
+         * @param level     the level at which want to get neighbor
+         * @param direction left or right
+         * @return neighbor node
+         */
+        public NodeInfo get(int level, int direction) {
+            if (!validate(level, direction))
+                return null;
+            return table.get(getIndex(level, direction));
+        }
+
+        // TODO: see if we can get rid of expectedOldNode==null
+
+        /**
+         * Replaces the neighbor at the given level and direction with newNode if the
+         * current neighbor equals expectedOldNode. The check and the replacement are
+         * a single atomic step, so concurrent updates of the same slot never
+         * overwrite each other unnoticed.
+         *
+         * @param level           level of addition
+         * @param direction       left or right
+         * @param newNode         new node to be added, or null to remove the entry
+         * @param expectedOldNode node that is expected to be at that particular
+         *                        place, or null to replace any node
+         * @return true if indeed expected old node was there or false otherwise
+         */
+        public boolean safePut(int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode) {
+            if (!validate(level, direction))
+                return false;
+            int index = getIndex(level, direction);
+            while (true) {
+                NodeInfo cur = table.get(index);
+                if (expectedOldNode != null && !equal(cur, expectedOldNode))
+                    return false;
+                if (table.compareAndSet(index, cur, newNode))
+                    return true;
+            }
+        }
+
+        /**
+         * checks if 2 node infos are equal
+         *
+         * @param nodeA first node to be compared
+         * @param nodeB second node to be compared
+         * @return true if nodes are equal, or false otherwise
+         */
+        private boolean equal(NodeInfo nodeA, NodeInfo nodeB) {
+            if (nodeA == null && nodeB == null) {
+                return true;
+            } else if (nodeA == null || nodeB == null)
+                return false;
+
+            return nodeA.equals(nodeB);
+        }
+
+        /**
+         * finds the index at which an entry will be placed in the table
+         *
+         * @param level     level of entry
+         * @param direction direction of entry (left or right)
+         * @return the index of position of entry in table
+         */
+        private int getIndex(int level, int direction) {
+            return 2 * level + direction;
+        }
+
+        /**
+         * validate checks if entry information is valid in that level should be less
+         * than maxLevels, and direction should be either left or right
+         *
+         * @param level     level of entry
+         * @param direction left or right
+         * @return
+         */
+        private boolean validate(int level, int direction) {
+            return validateLevel(level) && validateDir(direction);
+        }
+
+        private boolean validateLevel(int level) {
+            return level >= 0 && level <= maxLevels;
+        }
+
+        private boolean validateDir(int direction) {
+            return direction == Const.LEFT || direction == Const.RIGHT;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package skipGraph;
+
+import util.Const;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A compressed binary trie over the nameIDs of the data nodes hosted by a
+ * LookupTable. Every subtree keeps the smallest and greatest numID below it, so
+ * the data node with the longest common prefix with a nameID, and among those
+ * the left-most or right-most one, is found in a single walk down the trie
+ * whose cost depends on the length of the nameID but not on the number of
+ * data nodes. nameIDs of different lengths are kept in separate tries, since
+ * they share no common bits. Comparing two packed nameIDs takes a single XOR.
+ */
+class NameIDTrie {
+
+    // root of the trie of every nameID length
+    private final Map<Integer, Node> roots = new HashMap<>();
+
+    /**
+     * Adds the data node with the given nameID and numID.
+     */
+    public synchronized void add(Identifier nameID, int numID) {
+        Node root = roots.get(nameID.length());
+        if (root == null) {
+            roots.put(nameID.length(), Node.leaf(nameID, numID));
+            return;
+        }
+        Node parent = null;
+        Node node = root;
+        int common;
+        while (true) {
+            common = commonBits(nameID, node.key, node.prefixLength);
+            if (common < node.prefixLength) {
+                // the nameID leaves the subtree of node at bit common, so the two are
+                // joined by a new branch at that bit
+                Node leaf = Node.leaf(nameID, numID);
+                Node branch = Node.branch(node.key, common);
+                branch.children[bit(nameID, common)] = leaf;
+                branch.children[bit(node.key, common)] = node;
+                branch.min = Math.min(node.min, numID);
+                branch.max = Math.max(node.max, numID);
+                replace(parent, node, branch, nameID.length());
+                return;
+            }
+            node.min = Math.min(node.min, numID);
+            node.max = Math.max(node.max, numID);
+            if (node.isLeaf()) {
+                node.addNumID(numID);
+                return;
+            }
+            parent = node;
+            node = node.children[bit(nameID, node.prefixLength)];
+        }
+    }
+
+    /**
+     * Removes the data node with the given nameID and numID.
+     *
+     * @return true if the data node was in the trie
+     */
+    public synchronized boolean remove(Identifier nameID, int numID) {
+        Node root = roots.get(nameID.length());
+        if (root == null)
+            return false;
+        // collect the path down to the leaf of the nameID
+        Node[] path = new Node[nameID.length() + 1];
+        int depth = 0;
+        Node node = root;
+        while (!node.isLeaf()) {
+            path[depth++] = node;
+            node = node.children[bit(nameID, node.prefixLength)];
+        }
+        if (!node.key.equals(nameID) || !node.removeNumID(numID))
+            return false;
+
+        if (node.count == 0) {
+            // drop the leaf, and let its sibling take the place of their parent
+            if (depth == 0) {
+                roots.remove(nameID.length());
+                return true;
+            }
+            Node parent = path[--depth];
+            Node sibling = parent.children[1 - bit(nameID, parent.prefixLength)];
+            replace(depth == 0 ? null : path[depth - 1], parent, sibling, nameID.length());
+        }
+        for (int i = depth - 1; i >= 0; i--)
+            path[i].updateRange();
+        return true;
+    }
+
+    /**
+     * Returns the numID of the data node whose nameID has the most common bits
+     * with the given one. If several data nodes have as many common bits, the
+     * greatest numID among them is returned for the right direction and the
+     * smallest one for the left direction.
+     *
+     * @param nameID    the nameID to look for
+     * @param direction the direction of search
+     * @return the numID of the best data node, or -1 if there is no data node with
+     * a nameID of the same length
+     */
+    public synchronized int getBest(Identifier nameID, int direction) {
+        Node node = roots.get(nameID.length());
+        if (node == null)
+            return -1;
+        int common;
+        while (true) {
+            common = commonBits(nameID, node.key, node.prefixLength);
+            // every data node below node has exactly common bits in common with the
+            // nameID, unless the nameID follows node down to one of its children
+            if (common < node.prefixLength || node.isLeaf())
+                break;
+            node = node.children[bit(nameID, node.prefixLength)];
+        }
+        return direction == Const.RIGHT ? node.max : node.min;
+    }
+
+    private void replace(Node parent, Node oldChild, Node newChild, int length) {
+        if (parent == null)
+            roots.put(length, newChild);
+        else if (parent.children[0] == oldChild)
+            parent.children[0] = newChild;
+        else
+            parent.children[1] = newChild;
+    }
+
+    /**
+     * Counts the common leading bits of two nameIDs of the same length up to the
+     * given limit.
+     */
+    private static int commonBits(Identifier a, Identifier b, int limit) {
+        return Math.min(a.commonBits(b), limit);
+    }
+
+    private static int bit(Identifier nameID, int index) {
+        return nameID.bit(index);
+    }
+
+    private static class Node {
+        // every nameID below this node starts with the first prefixLength bits of key
+        final Identifier key;
+        final int prefixLength;
+        final Node[] children;
+        int min;
+        int max;
+        // the numIDs of a leaf in sorted order, since several data nodes may share a nameID
+        int[] numIDs;
+        int count;
+
+        private Node(Identifier key, int prefixLength, Node[] children) {
+            this.key = key;
+            this.prefixLength = prefixLength;
+            this.children = children;
+        }
+
+        static Node leaf(Identifier nameID, int numID) {
+            Node leaf = new Node(nameID, nameID.length(), null);
+            leaf.numIDs = new int[]{numID};
+            leaf.count = 1;
+            leaf.min = numID;
+            leaf.max = numID;
+            return leaf;
+        }
+
+        // every nameID below a branch shares its first prefixLength bits, and its
+        // two children differ in the next bit
+        static Node branch(Identifier key, int prefixLength) {
+            return new Node(key, prefixLength, new Node[2]);
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        void addNumID(int numID) {
+            int i = Arrays.binarySearch(numIDs, 0, count, numID);
+            if (i >= 0)
+                return;
+            i = -i - 1;
+            if (count == numIDs.length)
+                numIDs = Arrays.copyOf(numIDs, 2 * count);
+            System.arraycopy(numIDs, i, numIDs, i + 1, count - i);
+            numIDs[i] = numID;
+            count++;
+            updateRange();
+        }
+
+        boolean removeNumID(int numID) {
+            int i = Arrays.binarySearch(numIDs, 0, count, numID);
+            if (i < 0)
+                return false;
+            System.arraycopy(numIDs, i + 1, numIDs, i, count - i - 1);
+            count--;
+            if (count > 0)
+                updateRange();
+            return true;
+        }
+
+        void updateRange() {
+            if (isLeaf()) {
+                min = numIDs[0];
+                max = numIDs[count - 1];
+            } else {
+                min = Math.min(children[0].min, children[1].min);
+                max = Math.max(children[0].max, children[1].max);
+            }
+        }
+    }
+}
@@ -8,6 +8,8 @@ public class NodeInfo implements Serializable {
 	private String address;
 	private int numID;
 	private String nameID;
+	// the packed form of nameID, derived on first use
+	private transient Identifier nameIdentifier;
 
 	/*
 	 * Constructor for NodeInfo
@@ -49,6 +51,19 @@ public class NodeInfo implements Serializable {
 
 	public void setNameID(String name) {
 		this.nameID = name;
+		this.nameIdentifier = null;
+	}
+
+	/**
+	 * @return the nameID packed into an Identifier, for prefix comparisons
+	 */
+	public Identifier getNameIdentifier() {
+		Identifier id = nameIdentifier;
+		if (id == null && nameID != null) {
+			id = Identifier.valueOf(nameID);
+			nameIdentifier = id;
+		}
+		return id;
 	}
 
 	@Override
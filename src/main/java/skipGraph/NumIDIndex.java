@@ -0,0 +1,177 @@
+package skipGraph;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A sorted set of the numIDs of the data nodes hosted by a LookupTable. It is a
+ * skip list over primitive ints, so that the data node closest to a numID is
+ * found in O(log n) instead of scanning every data node.
+ */
+class NumIDIndex {
+
+    private static final int MAX_HEIGHT = 32;
+
+    // the head is a sentinel that precedes every numID
+    private final Entry head = new Entry(Integer.MIN_VALUE, MAX_HEIGHT);
+    private int height = 1;
+    private int size = 0;
+
+    /**
+     * Adds the numID to the index.
+     *
+     * @param numID numID of the data node
+     * @return false if the numID was already in the index, true otherwise
+     */
+    public synchronized boolean add(int numID) {
+        Entry[] preds = new Entry[MAX_HEIGHT];
+        Entry pred = findPredecessors(numID, preds);
+        if (pred.next[0] != null && pred.next[0].numID == numID)
+            return false;
+
+        int h = randomHeight();
+        if (h > height) {
+            for (int level = height; level < h; level++)
+                preds[level] = head;
+            height = h;
+        }
+        Entry entry = new Entry(numID, h);
+        for (int level = 0; level < h; level++) {
+            entry.next[level] = preds[level].next[level];
+            preds[level].next[level] = entry;
+        }
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the numID from the index.
+     *
+     * @param numID numID of the data node
+     * @return true if the numID was in the index
+     */
+    public synchronized boolean remove(int numID) {
+        Entry[] preds = new Entry[MAX_HEIGHT];
+        Entry pred = findPredecessors(numID, preds);
+        Entry entry = pred.next[0];
+        if (entry == null || entry.numID != numID)
+            return false;
+
+        for (int level = 0; level < entry.next.length; level++)
+            preds[level].next[level] = entry.next[level];
+        while (height > 1 && head.next[height - 1] == null)
+            height--;
+        size--;
+        return true;
+    }
+
+    public synchronized boolean contains(int numID) {
+        Entry next = findPredecessors(numID, null).next[0];
+        return next != null && next.numID == numID;
+    }
+
+    /**
+     * @return the greatest numID that is less than or equal to the given one, or
+     * null if there is none
+     */
+    public synchronized Integer floor(int numID) {
+        Entry pred = findPredecessors(numID, null);
+        Entry next = pred.next[0];
+        if (next != null && next.numID == numID)
+            return numID;
+        return pred == head ? null : pred.numID;
+    }
+
+    /**
+     * @return the smallest numID that is greater than or equal to the given one,
+     * or null if there is none
+     */
+    public synchronized Integer ceiling(int numID) {
+        Entry next = findPredecessors(numID, null).next[0];
+        return next == null ? null : next.numID;
+    }
+
+    /**
+     * Returns the numID of the index that is closest to the given one. Ties are
+     * broken in favour of the smaller numID.
+     *
+     * @param numID the numID to look for
+     * @return the closest numID, or -1 if the index is empty
+     */
+    public synchronized int closest(int numID) {
+        Entry pred = findPredecessors(numID, null);
+        Entry next = pred.next[0];
+        if (next != null && next.numID == numID)
+            return numID;
+        if (pred == head)
+            return next == null ? -1 : next.numID;
+        if (next == null)
+            return pred.numID;
+        long below = (long) numID - pred.numID;
+        long above = (long) next.numID - numID;
+        return below <= above ? pred.numID : next.numID;
+    }
+
+    /**
+     * @return the smallest numID of the index, or -1 if the index is empty
+     */
+    public synchronized int first() {
+        return head.next[0] == null ? -1 : head.next[0].numID;
+    }
+
+    /**
+     * @return the greatest numID of the index, or -1 if the index is empty
+     */
+    public synchronized int last() {
+        if (size == 0)
+            return -1;
+        Entry cur = head;
+        for (int level = height - 1; level >= 0; level--) {
+            while (cur.next[level] != null)
+                cur = cur.next[level];
+        }
+        return cur.numID;
+    }
+
+    public synchronized boolean isEmpty() {
+        return size == 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Finds the last entry of the lowest level whose numID is less than the given
+     * one, which is the head if there is none.
+     *
+     * @param numID the numID to look for
+     * @param preds if not null, receives the last such entry of every level
+     */
+    private Entry findPredecessors(int numID, Entry[] preds) {
+        Entry cur = head;
+        for (int level = height - 1; level >= 0; level--) {
+            while (cur.next[level] != null && cur.next[level].numID < numID)
+                cur = cur.next[level];
+            if (preds != null)
+                preds[level] = cur;
+        }
+        return cur;
+    }
+
+    private static int randomHeight() {
+        // every level is kept with probability 1/2
+        int bits = ThreadLocalRandom.current().nextInt();
+        int h = 1 + Integer.numberOfTrailingZeros(bits);
+        return Math.min(h, MAX_HEIGHT);
+    }
+
+    private static class Entry {
+        final int numID;
+        final Entry[] next;
+
+        Entry(int numID, int height) {
+            this.numID = numID;
+            this.next = new Entry[height];
+        }
+    }
+}
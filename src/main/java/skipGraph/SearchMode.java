@@ -0,0 +1,17 @@
+package skipGraph;
+
+/**
+ * The ways a search by numerical ID can be routed through the skip graph.
+ */
+public enum SearchMode {
+    /**
+     * Every hop forwards the search to the next hop and waits for the rest of the search path to
+     * come back, so each hop holds a thread until the whole search completes.
+     */
+    RECURSIVE,
+    /**
+     * The node that starts the search asks every hop only for its next hop and drives the search
+     * itself, so a hop answers immediately and the search path never leaves the origin.
+     */
+    ITERATIVE
+}
@@ -0,0 +1,43 @@
+package skipGraph;
+
+import java.io.Serializable;
+
+/**
+ * One hop of an iterative search by numerical ID: the node of the hop that is closest to the
+ * target, and the neighbor the search continues at together with the level of that neighbor.
+ */
+public class SearchStep implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final NodeInfo current;
+    private final NodeInfo next;
+    private final int level;
+
+    /**
+     * @param current the node of this hop that is closest to the target
+     * @param next    the neighbor to continue the search at, or null if the search ends here
+     * @param level   the level at which next was found
+     */
+    public SearchStep(NodeInfo current, NodeInfo next, int level) {
+        this.current = current;
+        this.next = next;
+        this.level = level;
+    }
+
+    public NodeInfo getCurrent() {
+        return current;
+    }
+
+    public NodeInfo getNext() {
+        return next;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isLast() {
+        return next == null;
+    }
+}
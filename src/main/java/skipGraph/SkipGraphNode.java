@@ -54,13 +54,19 @@ public interface SkipGraphNode {
 
 	public List<NodeInfo> searchNumID(int numID, int searchTarget, int level, List<NodeInfo> lst);
 
+	public SearchStep searchNumIDStep(int numID, int searchTarget, int level);
+
+	public List<NodeInfo> searchNumIDs(int numID, int[] searchTargets, int level);
+
+	public LevelScan scanLevel(int numID, int level, int direction, int limit);
+
 	/*
 	 * Skip Node with data nodes functions
 	 */
 
-	public NodeInfo searchName(int numID, String searchTarget, int level, int direction);
+	public NodeInfo searchName(int numID, Identifier searchTarget, int level, int direction);
 
-	public NodeInfo insertSearch(int level, int direction, int num, String target) throws FileNotFoundException;
+	public NodeInfo insertSearch(int level, int direction, int num, Identifier target) throws FileNotFoundException;
 
 	// Pinging
 
@@ -4,9 +4,12 @@ import org.apache.log4j.Logger;
 import remoteTest.Configuration;
 import remoteTest.PingLog;
 import remoteTest.TestingLog;
+import underlay.ResponseFutures;
 import underlay.Underlay;
 import underlay.requests.skipgraph.*;
+import underlay.responses.GenericResponse;
 import underlay.responses.IntegerResponse;
+import underlay.responses.LevelScanResponse;
 import underlay.responses.NodeInfoListResponse;
 import underlay.responses.NodeInfoResponse;
 import util.Const;
@@ -14,16 +17,47 @@ import util.Util;
 
 import java.io.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static underlay.responses.IntegerResponse.IntegerResponseOf;
+import static underlay.responses.LevelScanResponse.LevelScanResponseOf;
 import static underlay.responses.NodeInfoListResponse.NodeInfoListResponseOf;
 import static underlay.responses.NodeInfoResponse.NodeInfoResponseOf;
+import static underlay.responses.SearchStepResponse.SearchStepResponseOf;
 
 public class SkipNode implements SkipGraphNode {
 
     private static final long serialVersionUID = 1L;
+    // time (in ms) an iterative search waits for a hop, and how often it retries it
+    private static final long SEARCH_HOP_TIMEOUT = 5_000;
+    private static final int SEARCH_HOP_RETRIES = 1;
+    // the maximum number of nodes returned by a single ScanLevelRequest
+    private static final int MAX_SCAN_BATCH = 64;
+    // time (in ms) an insert search waits for a node that is still being inserted
+    private static final long INSERT_WAIT_TIMEOUT = 5_000;
+    // size of the cache of resolved numIDs, and how long (in ms) an entry is trusted
+    private static final int LOCATION_CACHE_CAPACITY = 1024;
+    private static final long LOCATION_CACHE_TTL = 30_000;
+
+    // search statistics of every node in this JVM, logged by the simulation to
+    // compare the search modes
+    public static final AtomicLong numIDSearchCount = new AtomicLong();
+    public static final AtomicLong numIDSearchHops = new AtomicLong();
+    public static final AtomicLong numIDSearchTime = new AtomicLong(); // in ns
+    private static final AtomicInteger activeSearchHandlers = new AtomicInteger();
+    // highest number of threads that were busy with a search hop at the same time
+    public static final AtomicInteger peakSearchHandlers = new AtomicInteger();
+    // how often insert searches waited for a node that was still being inserted,
+    // how long they waited, and how often they gave up
+    public static final AtomicLong insertWaitCount = new AtomicLong();
+    public static final AtomicLong insertWaitTime = new AtomicLong(); // in ns
+    public static final AtomicLong insertWaitTimeouts = new AtomicLong();
 
     protected NodeInfo peerNode;
     protected String address;
@@ -36,6 +70,8 @@ public class SkipNode implements SkipGraphNode {
     protected boolean isInserted = false;
     private LookupTable lookup;
     private Logger logger;
+    private SearchMode searchMode = SearchMode.RECURSIVE;
+    private final LocationCache locationCache = new LocationCache(LOCATION_CACHE_CAPACITY, LOCATION_CACHE_TTL);
 
     protected Underlay underlay;
 
@@ -134,6 +170,7 @@ public class SkipNode implements SkipGraphNode {
             }
             // Delete the node from the lookup.
             lookup.remove(num);
+            locationCache.invalidate(num);
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -167,6 +204,7 @@ public class SkipNode implements SkipGraphNode {
 
             if (closestNode == null) {
                 logger.error("The address resulting from the search is null");
+                lookup.discardNode(insertedNode.getNumID());
                 return;
             }
 
@@ -231,7 +269,7 @@ public class SkipNode implements SkipGraphNode {
 
                 if (leftNode != null) {
                     NodeInfoResponse response = NodeInfoResponseOf(underlay.sendMessage(
-                            new InsertSearchRequest(level, Const.LEFT, leftNodeNumID, insertedNode.getNameID()),
+                            new InsertSearchRequest(level, Const.LEFT, leftNodeNumID, insertedNode.getNameIdentifier()),
                             leftNode.getAddress()));
                     NodeInfo lft = response.result;
                     lookup.put(insertedNode.getNumID(), level + 1, Const.LEFT, Util.assignNode(lft), null);
@@ -251,7 +289,7 @@ public class SkipNode implements SkipGraphNode {
                 }
                 if (rightNode != null) {
                     NodeInfoResponse response = NodeInfoResponseOf(underlay.sendMessage(
-                            new InsertSearchRequest(level, Const.RIGHT, rightNodeNumID, insertedNode.getNameID()), rightNode.getAddress()));
+                            new InsertSearchRequest(level, Const.RIGHT, rightNodeNumID, insertedNode.getNameIdentifier()), rightNode.getAddress()));
                     NodeInfo rit = response.result;
 
                     lookup.put(insertedNode.getNumID(), level + 1, Const.RIGHT, Util.assignNode(rit), null);
@@ -274,14 +312,159 @@ public class SkipNode implements SkipGraphNode {
             // after we conclude inserting the node in all levels,
             // we add the inserted node to the data array
             // and we map its numID with its index in the data array using dataID
-            lookup.finalizeNode();
+            lookup.finalizeNode(insertedNode.getNumID());
 
         } catch (Exception e) {
             e.printStackTrace();
+            lookup.discardNode(insertedNode.getNumID());
         }
     }
 
 
+    /**
+     * Inserts a batch of data nodes in one pass over the skip graph instead of
+     * one insertNode per node. The batch is sorted by numID, so that consecutive
+     * nodes that fall between the same two neighbors at level 0 share a single
+     * search, and each such run of nodes is spliced into the list with one link
+     * update on either side. At the higher levels, the neighbors of a node are
+     * first looked for among the nodes of the batch, which are linked locally;
+     * only a search that leaves the batch is sent to another node.
+     *
+     * @param nodes the data nodes to insert
+     */
+    public void insertNodes(List<NodeInfo> nodes) {
+        if (nodes.isEmpty())
+            return;
+        if (!isInserted) {
+            // the first insertion goes through the introducer
+            for (NodeInfo node : nodes)
+                insertNode(node);
+            return;
+        }
+        // the batch sorted by numID, without duplicates
+        Map<Integer, NodeInfo> batch = new TreeMap<>();
+        for (NodeInfo node : nodes)
+            batch.putIfAbsent(node.getNumID(), node);
+        List<NodeInfo> sorted = new ArrayList<>(batch.values());
+        logger.debug("Inserting a batch of " + sorted.size() + " nodes");
+        try {
+            for (NodeInfo node : sorted)
+                lookup.initializeNode(node);
+
+            // find the gaps of level 0 the nodes fall in. Nothing is linked yet, so the
+            // gap of a node is also the gap of the next nodes up to its right neighbor.
+            List<List<NodeInfo>> runs = new ArrayList<>();
+            List<NodeInfo[]> gaps = new ArrayList<>();
+            List<NodeInfo> run = null;
+            NodeInfo[] gap = null;
+            for (NodeInfo node : sorted) {
+                if (gap != null && (gap[Const.RIGHT] == null || node.getNumID() < gap[Const.RIGHT].getNumID())) {
+                    run.add(node);
+                    continue;
+                }
+                NodeInfo closestNode = searchByNumID(node.getNumID());
+                if (closestNode == null) {
+                    logger.error("The address resulting from the search is null");
+                    throw new IllegalStateException("[SkipNode] Could not find the position of " + node.getNumID());
+                }
+                gap = new NodeInfo[2];
+                if (node.getNumID() < closestNode.getNumID()) {
+                    gap[Const.LEFT] = NodeInfoResponseOf(underlay.sendMessage(
+                            new GetLeftNodeRequest(Const.ZERO_LEVEL, closestNode.getNumID()), closestNode.getAddress())).result;
+                    gap[Const.RIGHT] = closestNode;
+                } else {
+                    gap[Const.LEFT] = closestNode;
+                    gap[Const.RIGHT] = NodeInfoResponseOf(underlay.sendMessage(
+                            new GetRightNodeRequest(Const.ZERO_LEVEL, closestNode.getNumID()), closestNode.getAddress())).result;
+                }
+                run = new ArrayList<>();
+                run.add(node);
+                runs.add(run);
+                gaps.add(gap);
+            }
+
+            // splice every run into its gap at level 0
+            for (int i = 0; i < runs.size(); i++) {
+                List<NodeInfo> cur = runs.get(i);
+                NodeInfo leftNode = gaps.get(i)[Const.LEFT];
+                NodeInfo rightNode = gaps.get(i)[Const.RIGHT];
+                for (int j = 0; j < cur.size(); j++) {
+                    NodeInfo lft = j == 0 ? leftNode : cur.get(j - 1);
+                    NodeInfo rit = j == cur.size() - 1 ? rightNode : cur.get(j + 1);
+                    if (lft != null)
+                        lookup.put(cur.get(j).getNumID(), Const.ZERO_LEVEL, Const.LEFT, Util.assignNode(lft), null);
+                    if (rit != null)
+                        lookup.put(cur.get(j).getNumID(), Const.ZERO_LEVEL, Const.RIGHT, Util.assignNode(rit), null);
+                }
+                if (leftNode != null)
+                    underlay.sendMessage(new SetRightNodeRequest(leftNode.getNumID(), Const.ZERO_LEVEL,
+                            cur.get(0), rightNode), leftNode.getAddress());
+                if (rightNode != null)
+                    underlay.sendMessage(new SetLeftNodeRequest(rightNode.getNumID(), Const.ZERO_LEVEL,
+                            cur.get(cur.size() - 1), leftNode), rightNode.getAddress());
+            }
+            for (NodeInfo node : sorted)
+                lookup.publishLevel(node.getNumID(), Const.ZERO_LEVEL);
+
+            // link the nodes at the rest of the levels, one level at a time
+            for (int level = Const.ZERO_LEVEL; level < maxLevels; level++) {
+                for (NodeInfo node : sorted) {
+                    for (int direction : new int[]{Const.LEFT, Const.RIGHT}) {
+                        NodeInfo neighbor = batchInsertSearch(node, level, direction, batch);
+                        if (neighbor == null)
+                            continue;
+                        lookup.put(node.getNumID(), level + 1, direction, Util.assignNode(neighbor), null);
+                        if (batch.containsKey(neighbor.getNumID()))
+                            // a neighbor from the batch links back to the node itself
+                            lookup.put(neighbor.getNumID(), level + 1, 1 - direction, Util.assignNode(node), null);
+                        else if (direction == Const.LEFT)
+                            underlay.sendMessage(new SetRightNodeRequest(neighbor.getNumID(), level + 1, node, null),
+                                    neighbor.getAddress());
+                        else
+                            underlay.sendMessage(new SetLeftNodeRequest(neighbor.getNumID(), level + 1, node, null),
+                                    neighbor.getAddress());
+                    }
+                }
+                for (NodeInfo node : sorted)
+                    lookup.publishLevel(node.getNumID(), level + 1);
+            }
+            for (NodeInfo node : sorted)
+                lookup.finalizeNode(node.getNumID());
+        } catch (Exception e) {
+            e.printStackTrace();
+            for (NodeInfo node : sorted)
+                lookup.discardNode(node.getNumID());
+        }
+    }
+
+    /**
+     * Finds the neighbor at level + 1 of a node of a batch that is being inserted,
+     * the way insertSearch does, by walking the list of the given level in the
+     * given direction until a node shares more than level bits of its nameID.
+     * The nodes of the batch are walked locally, and the walk is continued with an
+     * InsertSearchRequest once it reaches a node outside of the batch.
+     *
+     * @param node      the node of the batch
+     * @param level     the level whose list is walked
+     * @param direction the direction of the walk
+     * @param batch     the nodes of the batch by numID
+     * @return the neighbor of the node at level + 1, or null if there is none
+     */
+    private NodeInfo batchInsertSearch(NodeInfo node, int level, int direction, Map<Integer, NodeInfo> batch) {
+        NodeInfo cur = lookup.get(node.getNumID(), level, direction);
+        while (cur != null && batch.containsKey(cur.getNumID())) {
+            NodeInfo batchNode = batch.get(cur.getNumID());
+            if (Identifier.commonBits(node.getNameIdentifier(), batchNode.getNameIdentifier()) > level)
+                return batchNode;
+            cur = lookup.get(cur.getNumID(), level, direction);
+        }
+        if (cur == null)
+            return null;
+        NodeInfoResponse response = NodeInfoResponseOf(underlay.sendMessage(
+                new InsertSearchRequest(level, direction, cur.getNumID(), node.getNameIdentifier()), cur.getAddress()));
+        return response.result;
+    }
+
     /**
      * A helper method for Insert(), inserts a node recursively per level.
      *
@@ -292,11 +475,11 @@ public class SkipNode implements SkipGraphNode {
      * @param target    the name ID of the inserted node.
      * @return Right neighbor if direction is RIGHT, and left neighbor if direction
      * is LEFT
-     * @see SkipGraphNode#insertSearch(int, int, int, java.lang.String)
+     * @see SkipGraphNode#insertSearch(int, int, int, Identifier)
      */
-    public NodeInfo insertSearch(int level, int direction, int nodeNumID, String target) {
+    public NodeInfo insertSearch(int level, int direction, int nodeNumID, Identifier target) {
         try {
-            logger.debug("Inserting " + target + " at level " + level + "with class: " + target.getClass());
+            logger.debug("Inserting " + target + " at level " + level);
             NodeInfo currentNode = lookup.get(nodeNumID);
 
             if (currentNode == null)
@@ -304,7 +487,7 @@ public class SkipNode implements SkipGraphNode {
             // If the current node and the inserted node have common bits more than the
             // current level,
             // then this node is the neighbor so we return it
-            if (Util.commonBits(target, currentNode.getNameID()) > level)
+            if (Identifier.commonBits(target, currentNode.getNameIdentifier()) > level)
                 return currentNode;
             // If search is to the right then delegate the search to right if it exists
             // If the right neighbor is null then at this level the right neighbor of the
@@ -315,8 +498,10 @@ public class SkipNode implements SkipGraphNode {
 
             if (direction == Const.RIGHT) {
 
-                if (!lookup.isLockAvailable(nodeNumID))
-                    wait(new Random().nextInt(900) + 100);
+                if (!lookup.isLinked(nodeNumID, level) && !awaitInsertion(nodeNumID)) {
+                    logger.error("Node " + nodeNumID + " was not inserted within " + INSERT_WAIT_TIMEOUT + " ms");
+                    return null;
+                }
 
                 NodeInfo rNode = lookup.get(nodeNumID, level, direction);
                 if (rNode == null)
@@ -367,10 +552,24 @@ public class SkipNode implements SkipGraphNode {
      */
     public NodeInfo searchByNumID(int searchTarget) {
         logger.debug("Searching for " + searchTarget);
+        NodeInfo cached = getCachedNode(searchTarget);
+        if (cached != null)
+            return cached;
         try {
+            long start = System.nanoTime();
             List<NodeInfo> lst = new ArrayList<NodeInfo>();
             lst = searchByNumIDHelper(searchTarget, lst);
-            return lst == null ? null : lst.get(lst.size() - 1);
+            if (lst != null) {
+                numIDSearchCount.incrementAndGet();
+                numIDSearchHops.addAndGet(lst.size() - 1);
+                numIDSearchTime.addAndGet(System.nanoTime() - start);
+            }
+            NodeInfo result = lst == null ? null : lst.get(lst.size() - 1);
+            // only exact results are cached, since the closest node to a missing
+            // numID changes whenever a node joins close to it
+            if (result != null && result.getNumID() == searchTarget)
+                locationCache.put(result, lst.size() - 1);
+            return result;
 
         } catch (IllegalMonitorStateException | NullPointerException e) {
             return null;
@@ -382,6 +581,57 @@ public class SkipNode implements SkipGraphNode {
         }
     }
 
+    /**
+     * Looks the given numID up in the location cache and confirms the cached node
+     * with a GetNodeRequest to its address, which is a single request instead of
+     * a search through the skip graph.
+     *
+     * @param numID numerical ID that is searched for
+     * @return the node as its owner holds it now, or null if it is not cached or
+     * is no longer at the cached address
+     */
+    private NodeInfo getCachedNode(int numID) {
+        NodeInfo cached = locationCache.get(numID);
+        if (cached == null)
+            return null;
+        NodeInfo node;
+        int hops;
+        if (cached.getAddress().equals(address)) {
+            node = lookup.get(numID);
+            hops = 0;
+        } else {
+            NodeInfoResponse response = NodeInfoResponseOf(underlay.sendMessage(new GetNodeRequest(numID), cached.getAddress()));
+            node = response == null ? null : response.result;
+            hops = 1;
+        }
+        if (node == null || node.getNumID() != numID) {
+            locationCache.reject(numID);
+            return null;
+        }
+        locationCache.hit(numID, hops);
+        return node;
+    }
+
+    /**
+     * Drops the cached locations that a change of a neighbor shows to be outdated:
+     * a neighbor that is replaced by a node farther away has left the list, and a
+     * new neighbor may have moved to another address.
+     *
+     * @param direction the side of the neighbor that changes
+     * @param newNode   the new neighbor
+     * @param oldNode   the neighbor it replaces
+     */
+    private void invalidateRelinked(int direction, NodeInfo newNode, NodeInfo oldNode) {
+        if (oldNode != null && (newNode == null || isPast(oldNode.getNumID(), newNode.getNumID(), 1 - direction)))
+            locationCache.invalidate(oldNode.getNumID());
+        if (newNode != null)
+            locationCache.invalidateIfMoved(newNode);
+    }
+
+    public LocationCache getLocationCache() {
+        return locationCache;
+    }
+
     /**
      * A helper method for searchByNumID, it essentially starts the search operation
      * but it supplies the search with an empty list to collect the nodes on the
@@ -403,6 +653,8 @@ public class SkipNode implements SkipGraphNode {
                 lst.add(lookup.get(num));
                 return lst;
             }
+            if (searchMode == SearchMode.ITERATIVE)
+                return searchNumIDIterative(searchTarget, lst);
             return searchNumID(numID, searchTarget, level, lst);
         } catch (Exception e) {
             e.printStackTrace();
@@ -421,61 +673,18 @@ public class SkipNode implements SkipGraphNode {
      * @return list of nodes on the search path
      */
     public List<NodeInfo> searchNumID(int numID, int targetInt, int level, List<NodeInfo> lst) {
-
-        int num;
-        if (numID != lookup.bufferNumID()) {
-            // get the data node (or main node) that is closest to the target search
-            num = getBestNum(targetInt);
-//			num = numID;
-            // Add the current node's info to the search list
-        } else {
-            logger.debug("Accessing Buffered Node " + port + " ...");
-            num = numID;
-        }
-        lst.add(lookup.get(num));
-
-        if (num == targetInt)
-            return lst;
-
-        // If the target is greater than the current node then we should search right
-        if (num < targetInt) {
-            //logger.debug("Going Right from " + num + " to " + targetInt + "...");
-            // Keep going down levels as long as there is either no right neighbor
-            // or the right neighbor has a numID greater than the target
-            while (level >= Const.ZERO_LEVEL && (lookup.get(num, level, Const.RIGHT) == null
-                    || lookup.get(num, level, Const.RIGHT).getNumID() > targetInt))
-                level--;
-            // If there are no more levels to go down to return the current node
-            if (level < Const.ZERO_LEVEL) {
-                return lst;
-            }
-            // delegate the search to the right neighbor
-            try {
-                NodeInfoListResponse response = NodeInfoListResponseOf(underlay.sendMessage(
-                        new SearchNumIDRequest(lookup.get(num, level, Const.RIGHT).getNumID(), targetInt, level, lst)
-                        , lookup.get(num, level, Const.RIGHT).getAddress()));
-                return response.result;
-            } catch (StackOverflowError e) {
-                return null;
-            } catch (Exception e) {
-                return lst;
-            }
-        } else {
-            // If the target is less than the current node then we should search left
-            //logger.debug("Going Left from " + num + " to " + targetInt + "...");
-            // Keep going down levels as long as there is either no right neighbor
-            // or the left neighbor has a numID greater than the target
-            while (level >= Const.ZERO_LEVEL && (lookup.get(num, level, Const.LEFT) == null
-                    || lookup.get(num, level, Const.LEFT).getNumID() < targetInt))
-                level--;
+        enterSearchHandler();
+        try {
+            SearchStep step = searchNumIDStep(numID, targetInt, level);
+            lst.add(step.getCurrent());
             // If there are no more levels to go down to return the current node
-            if (level < Const.ZERO_LEVEL)
+            if (step.isLast())
                 return lst;
-            // delegate the search to the left neighbor
+            // delegate the search to the neighbor
             try {
                 NodeInfoListResponse response = NodeInfoListResponseOf(underlay.sendMessage(
-                        new SearchNumIDRequest(lookup.get(num, level, Const.LEFT).getNumID(), targetInt, level, lst)
-                        , lookup.get(num, level, Const.LEFT).getAddress()));
+                        new SearchNumIDRequest(step.getNext().getNumID(), targetInt, step.getLevel(), lst)
+                        , step.getNext().getAddress()));
                 return response.result;
             } catch (StackOverflowError e) {
                 logger.error("StackOverflow", e);
@@ -487,9 +696,201 @@ public class SkipNode implements SkipGraphNode {
             } catch (Exception e) {
                 return lst;
             }
+        } finally {
+            exitSearchHandler();
         }
     }
 
+    /**
+     * Performs a single hop of a search by numerical ID without forwarding it. It
+     * finds the node of this address that is closest to the target, and the
+     * neighbor of that node at the highest level not above the given one which
+     * gets the search closer to the target without passing it.
+     *
+     * @param numID     numerical ID of current node at which the search has arrived
+     * @param targetInt the target of search
+     * @param level     the level of skip graph at which we are searching
+     * @return the node of this hop and the next hop, which is null if the search
+     * ends at this node
+     */
+    public SearchStep searchNumIDStep(int numID, int targetInt, int level) {
+        enterSearchHandler();
+        try {
+            int num;
+            if (!lookup.isBuffered(numID)) {
+                // get the data node (or main node) that is closest to the target search
+                num = getBestNum(targetInt);
+            } else {
+                logger.debug("Accessing Buffered Node " + port + " ...");
+                num = numID;
+            }
+            NodeInfo current = lookup.get(num);
+            if (num == targetInt)
+                return new SearchStep(current, null, level);
+
+            // If the target is greater than the current node then we should search right,
+            // otherwise we should search left
+            int direction = num < targetInt ? Const.RIGHT : Const.LEFT;
+            // Keep going down levels as long as there is either no neighbor
+            // or the neighbor is past the target
+            while (level >= Const.ZERO_LEVEL && (lookup.get(num, level, direction) == null
+                    || isPast(lookup.get(num, level, direction).getNumID(), targetInt, direction)))
+                level--;
+            if (level < Const.ZERO_LEVEL)
+                return new SearchStep(current, null, level);
+            return new SearchStep(current, lookup.get(num, level, direction), level);
+        } finally {
+            exitSearchHandler();
+        }
+    }
+
+    private static boolean isPast(int num, int targetInt, int direction) {
+        return direction == Const.RIGHT ? num > targetInt : num < targetInt;
+    }
+
+    /**
+     * Searches for the given numerical ID iteratively: this node asks every hop for
+     * its next hop through a SearchNumIDStepRequest and walks the search path
+     * itself. A hop that does not answer in time is retried, and if it keeps
+     * failing the search ends at the last hop that answered, the same way the
+     * recursive search does.
+     *
+     * @param targetInt the target of search
+     * @param lst       the list which will collect the nodes on the search path
+     * @return list of nodes on the search path
+     */
+    private List<NodeInfo> searchNumIDIterative(int targetInt, List<NodeInfo> lst) {
+        SearchStep step = searchNumIDStep(numID, targetInt, lookup.getMaxLevels());
+        lst.add(step.getCurrent());
+        while (!step.isLast()) {
+            NodeInfo next = step.getNext();
+            SearchStep nextStep = null;
+            for (int attempt = 0; nextStep == null && attempt <= SEARCH_HOP_RETRIES; attempt++) {
+                try {
+                    nextStep = SearchStepResponseOf(underlay.sendMessageAsync(
+                            new SearchNumIDStepRequest(next.getNumID(), targetInt, step.getLevel()),
+                            next.getAddress(), SEARCH_HOP_TIMEOUT).get()).result;
+                } catch (Exception e) {
+                    logger.debug("Search hop to " + next.getAddress() + " failed: " + e);
+                }
+            }
+            if (nextStep == null)
+                return lst;
+            step = nextStep;
+            lst.add(step.getCurrent());
+        }
+        return lst;
+    }
+
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+
+    /**
+     * Searches for several numerical IDs at once. The targets travel together
+     * along their common route and the batch is split whenever their routes
+     * diverge, with the sub-batches searched in parallel, so that all the targets
+     * are found in about the time of a single search.
+     *
+     * @param searchTargets numerical IDs to search for
+     * @return the result of searchByNumID for every target, in the order of the
+     * targets; the result of a target whose search failed is null
+     */
+    public List<NodeInfo> searchByNumIDs(int[] searchTargets) {
+        logger.debug("Searching for " + searchTargets.length + " numIDs");
+        return searchNumIDs(numID, searchTargets, lookup.getMaxLevels());
+    }
+
+    /**
+     * One hop of searchByNumIDs. Every target takes a step of searchNumIDStep
+     * from this node; the targets that end here are answered, and the rest are
+     * grouped by the neighbor they continue at and forwarded to it as one
+     * SearchNumIDsRequest per neighbor, all of which run concurrently.
+     *
+     * @param numID         numerical ID of the node at which the search has arrived
+     * @param searchTargets numerical IDs to search for
+     * @param level         the level at which the search continues
+     * @return the node found for every target, in the order of the targets
+     */
+    public List<NodeInfo> searchNumIDs(int numID, int[] searchTargets, int level) {
+        NodeInfo[] results = new NodeInfo[searchTargets.length];
+        // the indexes of the targets that continue at each neighbor, by its numID
+        Map<Integer, List<Integer>> batches = new TreeMap<>();
+        Map<Integer, SearchStep> steps = new TreeMap<>();
+        for (int i = 0; i < searchTargets.length; i++) {
+            SearchStep step = searchNumIDStep(numID, searchTargets[i], level);
+            if (step.isLast()) {
+                results[i] = step.getCurrent();
+                continue;
+            }
+            int next = step.getNext().getNumID();
+            batches.computeIfAbsent(next, k -> new ArrayList<>()).add(i);
+            // the search can go on at the highest level any of the targets needs
+            SearchStep known = steps.get(next);
+            if (known == null || known.getLevel() < step.getLevel())
+                steps.put(next, step);
+        }
+
+        List<CompletableFuture<GenericResponse>> futures = new ArrayList<>();
+        List<List<Integer>> forwarded = new ArrayList<>();
+        for (Map.Entry<Integer, List<Integer>> batch : batches.entrySet()) {
+            List<Integer> indexes = batch.getValue();
+            int[] targets = new int[indexes.size()];
+            for (int i = 0; i < targets.length; i++)
+                targets[i] = searchTargets[indexes.get(i)];
+            SearchStep step = steps.get(batch.getKey());
+            futures.add(underlay.sendMessageAsync(
+                    new SearchNumIDsRequest(step.getNext().getNumID(), targets, step.getLevel()),
+                    step.getNext().getAddress()));
+            forwarded.add(indexes);
+        }
+        try {
+            List<GenericResponse> responses = ResponseFutures.allOf(futures).get();
+            for (int b = 0; b < responses.size(); b++) {
+                if (responses.get(b) == null)
+                    continue;
+                List<NodeInfo> found = NodeInfoListResponseOf(responses.get(b)).result;
+                List<Integer> indexes = forwarded.get(b);
+                for (int i = 0; i < indexes.size(); i++)
+                    results[indexes.get(i)] = found.get(i);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Waits until the node with the given numID, which is being inserted, is
+     * finalized, so that its lookup table can be read.
+     *
+     * @param numID numID of the node that is being inserted
+     * @return true once the node is finalized, false if it was not finalized
+     * within INSERT_WAIT_TIMEOUT
+     */
+    private boolean awaitInsertion(int numID) throws InterruptedException {
+        long start = System.nanoTime();
+        boolean inserted = lookup.awaitInsertion(numID, INSERT_WAIT_TIMEOUT);
+        insertWaitCount.incrementAndGet();
+        insertWaitTime.addAndGet(System.nanoTime() - start);
+        if (!inserted)
+            insertWaitTimeouts.incrementAndGet();
+        return inserted;
+    }
+
+    private static void enterSearchHandler() {
+        int active = activeSearchHandlers.incrementAndGet();
+        peakSearchHandlers.accumulateAndGet(active, Math::max);
+    }
+
+    private static void exitSearchHandler() {
+        activeSearchHandlers.decrementAndGet();
+    }
+
     /**
      * This method receives a nameID and returns the index of the data node which
      * has the most common prefix with the given nameID
@@ -503,6 +904,10 @@ public class SkipNode implements SkipGraphNode {
         return lookup.getBestName(name, direction);
     }
 
+    public int getBestName(Identifier name, int direction) {
+        return lookup.getBestName(name, direction);
+    }
+
     /**
      * This methods starts a search by nameID, and returns the node as an instance
      * of NodeInfo class which contains (address, numID, nameID) of the node, such
@@ -521,13 +926,22 @@ public class SkipNode implements SkipGraphNode {
      * returned
      */
     public NodeInfo searchByNameID(String searchTarget) {
+        return searchByNameID(Identifier.valueOf(searchTarget));
+    }
+
+    /**
+     * Starts a search by nameID with the nameID already packed into an Identifier.
+     *
+     * @see SkipNode#searchByNameID(String)
+     */
+    public NodeInfo searchByNameID(Identifier searchTarget) {
         try {
             int bestNum = getBestName(searchTarget, 1);
             NodeInfo ansNode = lookup.get(bestNum);
-            if (ansNode.getNameID().equals(searchTarget))
+            if (ansNode.getNameIdentifier().equals(searchTarget))
                 return ansNode;
 
-            int newLevel = Util.commonBits(searchTarget, ansNode.getNameID());
+            int newLevel = Identifier.commonBits(searchTarget, ansNode.getNameIdentifier());
 
             // First execute the search in the right direction and see the result it returns
             if (lookup.get(bestNum, newLevel, Const.RIGHT) != null) {
@@ -535,7 +949,7 @@ public class SkipNode implements SkipGraphNode {
 		NodeInfoResponse response = NodeInfoResponseOf(underlay.sendMessage(new SearchNameRequest(lookup.get(bestNum, newLevel, Const.RIGHT).getNumID(),
                         searchTarget, newLevel, Const.RIGHT), lookup.get(bestNum, newLevel, Const.RIGHT).getAddress()));
                 NodeInfo rightResult = response.result;
-                int commonRight = Util.commonBits(rightResult.getNameID(), searchTarget);
+                int commonRight = Identifier.commonBits(rightResult.getNameIdentifier(), searchTarget);
                 if (commonRight > newLevel)
                     ansNode = Util.assignNode(rightResult);
             }
@@ -546,7 +960,7 @@ public class SkipNode implements SkipGraphNode {
                         searchTarget, newLevel, Const.LEFT), lookup.get(bestNum, newLevel, Const.LEFT).getAddress()));
                 NodeInfo leftResult = response.result;
 
-                int commonLeft = Util.commonBits(leftResult.getNameID(), searchTarget);
+                int commonLeft = Identifier.commonBits(leftResult.getNameIdentifier(), searchTarget);
                 if (commonLeft > newLevel)
                     ansNode = Util.assignNode(leftResult);
             }
@@ -571,23 +985,24 @@ public class SkipNode implements SkipGraphNode {
      * @return NodeInfo of result of search
      */
 
-    public NodeInfo searchName(int numID, String searchTarget, int level, int direction) {
+    public NodeInfo searchName(int numID, Identifier searchTarget, int level, int direction) {
         logger.debug("Searching nameID at " + port + "...");
         try {
             // TODO: handle this after finalizing lookupTable
-            if (numID == lookup.bufferNumID()) {
-                // only executes when the buffer node finishes inserting
-                lookup.get(numID, 0, Const.LEFT);
+            // only executes when the buffer node finishes inserting
+            if (lookup.isBuffered(numID) && !awaitInsertion(numID)) {
+                logger.error("Node " + numID + " was not inserted within " + INSERT_WAIT_TIMEOUT + " ms");
+                return null;
             }
             int bestNum = getBestName(searchTarget, direction);
             // we initialize the result to current node
             NodeInfo ansNode = lookup.get(bestNum);
             // if the current node hold the same nameID, return it.
-            if (ansNode.getNameID().equals(searchTarget))
+            if (ansNode.getNameIdentifier().equals(searchTarget))
                 return ansNode;
 
             // calculate common bits to find to which level the search must be routed
-            int newLevel = Util.commonBits(ansNode.getNameID(), searchTarget);
+            int newLevel = Identifier.commonBits(ansNode.getNameIdentifier(), searchTarget);
 
             // If the number of common bits is not more than the current level
             // then we continue the search in the same level in the same direction
@@ -610,7 +1025,7 @@ public class SkipNode implements SkipGraphNode {
                         newLevel, direction), lookup.get(bestNum, newLevel, direction).getAddress()));
                 NodeInfo curNode = response.result;
 
-                int common = Util.commonBits(curNode.getNameID(), searchTarget);
+                int common = Identifier.commonBits(curNode.getNameIdentifier(), searchTarget);
                 if (common > newLevel)
                     ansNode = Util.assignNode(curNode);
             }
@@ -622,7 +1037,7 @@ public class SkipNode implements SkipGraphNode {
                 NodeInfo otherNode = response.result;
 
 
-                int common = Util.commonBits(otherNode.getNameID(), searchTarget);
+                int common = Identifier.commonBits(otherNode.getNameIdentifier(), searchTarget);
                 if (common > newLevel)
                     ansNode = Util.assignNode(otherNode);
             }
@@ -648,76 +1063,38 @@ public class SkipNode implements SkipGraphNode {
      * @return list of nodes who have the given name as name ID
      */
     public List<NodeInfo> getNodesWithNameID(String name) {
+        return getNodesWithNameID(name, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Collects up to limit nodes that have the given name as nameID, the same way
+     * as getNodesWithNameID(String). The last level is read in batches through
+     * ScanLevelRequests, each of which returns the consecutive nodes a peer hosts
+     * together with the neighbor to continue at, instead of three requests per
+     * node.
+     *
+     * @param name  nameID for which we want to collect nodes that have this name ID
+     * @param limit the maximum number of nodes to collect
+     * @return list of at most limit nodes who have the given name as name ID
+     */
+    public List<NodeInfo> getNodesWithNameID(String name, int limit) {
         logger.debug("Gathering Node batch of Nodes with same ID...");
         try {
             // find a transaction that has the given nameID
-            NodeInfo ansNode = searchByNameID(name);
+            Identifier target = Identifier.valueOf(name);
+            NodeInfo ansNode = searchByNameID(target);
             // an empty list to add transaction to it and return it
             List<NodeInfo> list = new ArrayList<>();
 
-            if (ansNode == null || !ansNode.getNameID().equals(name)) {
+            if (ansNode == null || !ansNode.getNameIdentifier().equals(target)) {
                 logger.debug("getNodesWithNameID: No Node was found with the given nameID");
                 return list;
             }
 
-            list.add(ansNode);
-
-            // leftNode and rightNode will store the nodes we are visiting in left
-            // and right respectively
-            NodeInfo leftNode, rightNode;
-            // leftNum and rightNum will store numIDs of left and right nodes, used to
-            // correctly access nodes (data nodes functionality)
-            int leftNumID = Const.UNASSIGNED_INT, rightNumID = Const.UNASSIGNED_INT;
-            // thisRMI is just used to extract information of neighbors
-
-            int ansNodeNumID = ansNode.getNumID();
-
-            // get addresses of left and right nodes, as well as their numIDs
-            NodeInfoResponse response = NodeInfoResponseOf(underlay.sendMessage(new GetLeftNodeRequest(maxLevels, ansNodeNumID), ansNode.getAddress()));
-            leftNode = response.result;
-
-            if (leftNode != null) {
-                IntegerResponse integerResponse = IntegerResponseOf(underlay.sendMessage(new GetLeftNumIDRequest(maxLevels, ansNodeNumID), ansNode.getAddress()));
-                leftNumID = integerResponse.result;
-            }
-
-            NodeInfoResponse rightNodeResponse = NodeInfoResponseOf(underlay.sendMessage(new GetRightNodeRequest(maxLevels, ansNodeNumID), ansNode.getAddress()));
-            rightNode = rightNodeResponse.result;
-
-            if (rightNode != null) {
-                IntegerResponse rightNumIDResponse = IntegerResponseOf(underlay.sendMessage(new GetRightNumIDRequest(maxLevels, ansNodeNumID), ansNode.getAddress()));
-                rightNumID = rightNumIDResponse.result;
-            }
-
-
-            // now in the last level of the skip graph, we go left and right
-            while (leftNode != null) {
-                String addr = leftNode.getAddress();
-                NodeInfoResponse curNodeResponse = NodeInfoResponseOf(underlay.sendMessage(new GetNodeRequest(leftNumID), addr));
-                NodeInfo curNode = curNodeResponse.result;
-                list.add(curNode);
-                NodeInfoResponse leftNodeResponse = NodeInfoResponseOf(underlay.sendMessage(new GetLeftNodeRequest(lookup.getMaxLevels(), leftNumID), addr));
-                leftNode = leftNodeResponse.result;
-
-                if (leftNode != null) {
-                    IntegerResponse leftNumIDResponse = IntegerResponseOf(underlay.sendMessage(new GetLeftNumIDRequest(lookup.getMaxLevels(), leftNumID), addr));
-                    leftNumID = leftNumIDResponse.result;
-                }
-            }
-            while (rightNode != null) {
-                String addr = rightNode.getAddress();
-                NodeInfoResponse curNodeResponse = NodeInfoResponseOf(underlay.sendMessage(new GetNodeRequest(rightNumID), addr));
-                NodeInfo curNode = curNodeResponse.result;
-                list.add(curNode);
-                rightNodeResponse = NodeInfoResponseOf(underlay.sendMessage(new GetRightNodeRequest(lookup.getMaxLevels(), rightNumID), addr));
-                rightNode = rightNodeResponse.result;
-
-                if (rightNode != null) {
-                    IntegerResponse rightNumIDResponse = IntegerResponseOf(underlay.sendMessage(new GetRightNumIDRequest(lookup.getMaxLevels(), rightNumID), addr));
-                    rightNumID = rightNumIDResponse.result;
-                }
-
-            }
+            // now in the last level of the skip graph, we go left and right. Both
+            // scans start at ansNode, which is only collected by the left one.
+            scanLevel(ansNode, Const.LEFT, true, limit, list);
+            scanLevel(ansNode, Const.RIGHT, false, limit, list);
             return list;
         } catch (Exception e) {
             e.printStackTrace();
@@ -725,6 +1102,63 @@ public class SkipNode implements SkipGraphNode {
         }
     }
 
+    /**
+     * Walks the list of the last level from the given node in the given direction
+     * and adds the nodes it visits to the list until the level ends or the list
+     * holds limit nodes.
+     *
+     * @param start        the node to start at
+     * @param direction    the direction of the walk
+     * @param includeStart whether start itself is added to the list
+     * @param limit        the maximum size of the list
+     * @param list         the list to add the nodes to
+     */
+    private void scanLevel(NodeInfo start, int direction, boolean includeStart, int limit, List<NodeInfo> list) {
+        NodeInfo cur = start;
+        boolean skipFirst = !includeStart;
+        while (cur != null && list.size() < limit) {
+            int wanted = Math.min(limit - list.size(), MAX_SCAN_BATCH) + (skipFirst ? 1 : 0);
+            LevelScanResponse response = LevelScanResponseOf(underlay.sendMessage(
+                    new ScanLevelRequest(cur.getNumID(), maxLevels, direction, wanted), cur.getAddress()));
+            LevelScan scan = response.result;
+            List<NodeInfo> nodes = scan.getNodes();
+            for (int i = skipFirst ? 1 : 0; i < nodes.size() && list.size() < limit; i++)
+                list.add(nodes.get(i));
+            skipFirst = false;
+            cur = scan.getNext();
+        }
+    }
+
+    /**
+     * Returns up to limit consecutive nodes of the list at the given level,
+     * starting at the data node with the given numID and following the links in
+     * the given direction for as long as they lead to data nodes of this node.
+     *
+     * @param numID     the numID of the data node to start at
+     * @param level     the level of the list
+     * @param direction the direction to follow
+     * @param limit     the maximum number of nodes to return
+     * @return the nodes in the order of the scan, and the neighbor of the last
+     * one, which is null if the list ends there
+     */
+    public LevelScan scanLevel(int numID, int level, int direction, int limit) {
+        List<NodeInfo> nodes = new ArrayList<>();
+        NodeInfo next = null;
+        int num = numID;
+        limit = Math.min(limit, MAX_SCAN_BATCH);
+        NodeInfo node;
+        while ((node = lookup.get(num)) != null) {
+            nodes.add(node);
+            next = lookup.get(num, level, direction);
+            // continue locally only while the neighbor is one of our own data nodes
+            if (next == null || nodes.size() >= limit
+                    || !getAddress().equals(next.getAddress()) || !lookup.nodeExist(next.getNumID()))
+                break;
+            num = next.getNumID();
+        }
+        return new LevelScan(nodes, next);
+    }
+
 
     public void printLevel(int level) {
         List<NodeInfo> list = lookup.getLevel(level, peerNode);
@@ -775,10 +1209,12 @@ public class SkipNode implements SkipGraphNode {
     }
 
     public boolean setLeftNode(int num, int level, NodeInfo newNode, NodeInfo oldNode) {
+        invalidateRelinked(Const.LEFT, newNode, oldNode);
         return lookup.put(num, level, Const.LEFT, Util.assignNode(newNode), oldNode);
     }
 
     public boolean setRightNode(int num, int level, NodeInfo newNode, NodeInfo oldNode) {
+        invalidateRelinked(Const.RIGHT, newNode, oldNode);
         return lookup.put(num, level, Const.RIGHT, Util.assignNode(newNode), oldNode);
     }
 
@@ -1,7 +1,14 @@
 package underlay;
 
-/** Used to differentiate which underlying Interface to call in the underlay. */
+/**
+ * Used to differentiate which underlying Interface to call in the underlay, and which transport
+ * an underlay is launched on.
+ */
 public enum InterfaceType {
   SkipNodeInterface,
-  LightChainInterface
+  LightChainInterface,
+  /** Java RMI transport, see underlay.rmi.RMIUnderlay */
+  RMIInterface,
+  /** Non-blocking TCP transport with a binary wire format, see underlay.nio.NIOUnderlay */
+  NIOInterface
 }
@@ -0,0 +1,114 @@
+package underlay;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Predicate;
+
+/**
+ * Helpers to compose the futures returned by Underlay.sendMessageAsync, so that a node can issue
+ * independent requests concurrently and then wait for all of them, or only for the first k that
+ * satisfy a condition.
+ */
+public final class ResponseFutures {
+
+  private static final ScheduledExecutorService timer =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread t = new Thread(r, "ResponseFutures-timer");
+            t.setDaemon(true);
+            return t;
+          });
+
+  private ResponseFutures() {}
+
+  /**
+   * Fails the given future with a TimeoutException if it is not completed within the timeout.
+   *
+   * @param future the future to bound
+   * @param timeout timeout in milliseconds, a non-positive value means no timeout
+   * @return the same future
+   */
+  public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> future, long timeout) {
+    if (timeout <= 0 || future.isDone()) return future;
+    timer.schedule(
+        () -> future.completeExceptionally(new TimeoutException("No response within " + timeout + " ms")),
+        timeout,
+        TimeUnit.MILLISECONDS);
+    return future;
+  }
+
+  /**
+   * Waits for all of the given futures. The results are in the order of the futures; a future that
+   * failed, e.g. because its request timed out, contributes null, the same way sendMessage returns
+   * null for a failed request.
+   *
+   * @param futures the futures to wait for
+   * @return a future of the results of all the futures
+   */
+  public static <T> CompletableFuture<List<T>> allOf(List<CompletableFuture<T>> futures) {
+    List<CompletableFuture<T>> guarded = new ArrayList<>(futures.size());
+    for (CompletableFuture<T> future : futures) guarded.add(future.exceptionally(e -> null));
+    return CompletableFuture.allOf(guarded.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            v -> {
+              List<T> results = new ArrayList<>(guarded.size());
+              for (CompletableFuture<T> future : guarded) results.add(future.join());
+              return results;
+            });
+  }
+
+  /**
+   * Waits for the first k of the given futures that complete with an accepted result. The
+   * returned future completes as soon as k results were accepted, or as soon as so many futures
+   * were rejected or failed that k can no longer be reached. The futures that are still running
+   * at that point are cancelled.
+   *
+   * @param futures the futures to wait for
+   * @param k the number of accepted results to wait for
+   * @param accept decides whether a result counts towards the quorum
+   * @return a future of the accepted results in order of arrival; it holds fewer than k results
+   *     iff the quorum could not be reached
+   */
+  public static <T> CompletableFuture<List<T>> quorum(
+      List<CompletableFuture<T>> futures, int k, Predicate<? super T> accept) {
+    CompletableFuture<List<T>> result = new CompletableFuture<>();
+    List<T> accepted = new ArrayList<>();
+    int[] undecided = {futures.size()};
+    if (k <= 0 || futures.size() < k) {
+      result.complete(accepted);
+    }
+    for (CompletableFuture<T> future : futures) {
+      future.whenComplete(
+          (value, error) -> {
+            synchronized (accepted) {
+              if (result.isDone()) return;
+              undecided[0]--;
+              if (error == null && accept.test(value)) accepted.add(value);
+              if (accepted.size() >= k || accepted.size() + undecided[0] < k) {
+                result.complete(Collections.unmodifiableList(new ArrayList<>(accepted)));
+              }
+            }
+          });
+    }
+    result.whenComplete(
+        (value, error) -> {
+          for (CompletableFuture<T> future : futures) future.cancel(true);
+        });
+    return result;
+  }
+
+  /**
+   * Waits for the first k of the given futures that complete successfully.
+   *
+   * @see ResponseFutures#quorum(List, int, Predicate)
+   */
+  public static <T> CompletableFuture<List<T>> quorum(List<CompletableFuture<T>> futures, int k) {
+    return quorum(futures, k, value -> true);
+  }
+}
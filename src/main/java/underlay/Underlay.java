@@ -5,6 +5,10 @@ import skipGraph.SkipGraphNode;
 import underlay.requests.GenericRequest;
 import underlay.responses.GenericResponse;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
 public abstract class Underlay {
   /** The underlying SkipGraphNode instance. Is used for skipnode calls */
   protected SkipGraphNode skipNode;
@@ -30,6 +34,54 @@ public abstract class Underlay {
    */
   public abstract GenericResponse sendMessage(GenericRequest req, String targetAddress);
 
+  /**
+   * Sends a request to the remote server without waiting for its response, so that independent
+   * requests can be in flight at the same time. See ResponseFutures to compose the futures of
+   * several requests.
+   * @param req             The request which will be invoked on the remote server
+   * @param targetAddress   The address used to specify the target remote server
+   * @return                A future of the response returned by the remote server; cancelling
+   *                        it abandons the request
+   */
+  public abstract CompletableFuture<GenericResponse> sendMessageAsync(GenericRequest req, String targetAddress);
+
+  /**
+   * Sends a request to the remote server without waiting for its response, failing it with a
+   * TimeoutException if no response arrives in time.
+   * @param req             The request which will be invoked on the remote server
+   * @param targetAddress   The address used to specify the target remote server
+   * @param timeout         The timeout of this call in milliseconds
+   * @return                A future of the response returned by the remote server
+   */
+  public CompletableFuture<GenericResponse> sendMessageAsync(GenericRequest req, String targetAddress, long timeout) {
+    return ResponseFutures.withTimeout(sendMessageAsync(req, targetAddress), timeout);
+  }
+
+  /**
+   * Runs the blocking sendMessage on a thread of the given executor, for underlays whose calls
+   * block. Cancelling the returned future, or failing it e.g. through a timeout, interrupts that
+   * thread.
+   * @param executor        The executor that runs the blocking call
+   * @param req             The request which will be invoked on the remote server
+   * @param targetAddress   The address used to specify the target remote server
+   * @return                A future of the response returned by the remote server
+   */
+  protected CompletableFuture<GenericResponse> sendMessageOn(
+      ExecutorService executor, GenericRequest req, String targetAddress) {
+    CompletableFuture<GenericResponse> future = new CompletableFuture<>();
+    Future<?> call = executor.submit(() -> {
+      try {
+        future.complete(sendMessage(req, targetAddress));
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    });
+    future.whenComplete((res, e) -> {
+      if (e != null) call.cancel(true);
+    });
+    return future;
+  }
+
   /**
    * Terminates the underlay.
    * @return true iff the termination was successful.
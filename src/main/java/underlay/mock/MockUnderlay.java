@@ -10,6 +10,9 @@ import underlay.responses.*;
 import java.io.FileNotFoundException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static underlay.rmi.RMIUnderlay.processRequest;
 
@@ -20,8 +23,17 @@ import static underlay.rmi.RMIUnderlay.processRequest;
  */
 public class MockUnderlay extends Underlay {
     private static Map<String, MockUnderlay> inventory = new HashMap<>();
+    // asynchronous requests are answered on their own threads, as they would be by a remote node
+    private static ExecutorService asyncCalls = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "MockUnderlay-async");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final String myAddress;
 
     public MockUnderlay(String myAddress){
+        this.myAddress = myAddress;
         inventory.put(myAddress, this);
     }
 
@@ -37,8 +49,21 @@ public class MockUnderlay extends Underlay {
         return null;
     }
 
+    /**
+     * Every asynchronous request is answered on a thread of its own, like a blocking RMI call.
+     * Cancelling the returned future interrupts that thread.
+     */
+    @Override
+    public CompletableFuture<GenericResponse> sendMessageAsync(GenericRequest req, String targetAddress) {
+        return sendMessageOn(asyncCalls, req, targetAddress);
+    }
+
+    /**
+     * Removes this underlay from the inventory, so it is no longer reachable.
+     */
     @Override
     public boolean terminate() {
+        inventory.remove(myAddress);
         return true;
     }
 
@@ -0,0 +1,178 @@
+package underlay.nio;
+
+import underlay.responses.GenericResponse;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent connection between two NIOUnderlays. A single connection carries any number of
+ * in-flight requests; each of them is identified by its requestID and waits on its own future
+ * in the pending map until the matching response frame arrives.
+ */
+class NIOConnection {
+
+  private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+  private static final int MAX_FRAME_SIZE = 64 * 1024 * 1024;
+
+  private final NIOUnderlay underlay;
+  private final SocketChannel channel;
+  private final String remoteAddress;
+  private SelectionKey key;
+
+  private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+  /** Frames that could not be written right away, guarded by this. */
+  private final Queue<ByteBuffer> writeQueue = new ArrayDeque<>();
+
+  /** Requests sent over this connection that are still waiting for their response. */
+  final Map<Integer, CompletableFuture<GenericResponse>> pending = new ConcurrentHashMap<>();
+
+  private volatile boolean closed = false;
+  /** False while an outgoing connection is still being established, guarded by this. */
+  private boolean connected;
+
+  /**
+   * @param underlay the underlay that owns this connection
+   * @param channel the non-blocking channel, which may still be connecting
+   * @param remoteAddress the address of the remote underlay, or null for accepted connections
+   */
+  NIOConnection(NIOUnderlay underlay, SocketChannel channel, String remoteAddress) {
+    this.underlay = underlay;
+    this.channel = channel;
+    this.remoteAddress = remoteAddress;
+    this.connected = channel.isConnected();
+  }
+
+  SocketChannel getChannel() {
+    return channel;
+  }
+
+  String getRemoteAddress() {
+    return remoteAddress;
+  }
+
+  boolean isClosed() {
+    return closed;
+  }
+
+  /** Called by the event loop once the channel was registered with its selector. */
+  synchronized void setKey(SelectionKey key) {
+    this.key = key;
+    if (!connected) key.interestOps(SelectionKey.OP_CONNECT);
+    else if (!writeQueue.isEmpty()) key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+  }
+
+  /**
+   * Called by the event loop when an outgoing connection can be completed. The frames that were
+   * sent while connecting are flushed once it is.
+   *
+   * @throws IOException if the connection could not be established
+   */
+  synchronized void finishConnect() throws IOException {
+    if (!channel.finishConnect()) return;
+    connected = true;
+    key.interestOps(
+        writeQueue.isEmpty() ? SelectionKey.OP_READ : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+  }
+
+  /**
+   * Writes the given frame. The frame is written directly if the channel is connected and nothing
+   * is queued ahead of it, otherwise it is queued and the event loop flushes it once the channel
+   * becomes writable.
+   *
+   * @param frame the frame to write
+   */
+  void send(ByteBuffer frame) throws IOException {
+    synchronized (this) {
+      if (closed) throw new IOException("Connection to " + remoteAddress + " is closed");
+      if (connected && writeQueue.isEmpty()) {
+        channel.write(frame);
+        if (!frame.hasRemaining()) return;
+      }
+      writeQueue.add(frame);
+    }
+    underlay.requestWrite(this);
+  }
+
+  /** Called by the event loop when the channel is writable. */
+  synchronized void flush() throws IOException {
+    while (!writeQueue.isEmpty()) {
+      ByteBuffer frame = writeQueue.peek();
+      channel.write(frame);
+      if (frame.hasRemaining()) return;
+      writeQueue.poll();
+    }
+    if (key != null && key.isValid()) key.interestOps(SelectionKey.OP_READ);
+  }
+
+  /** Asks the event loop to watch the channel for writability if frames are queued. */
+  synchronized void enableWrite() {
+    if (connected && key != null && key.isValid() && !writeQueue.isEmpty())
+      key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+  }
+
+  /**
+   * Called by the event loop when the channel is readable. Reads whatever is available and hands
+   * every complete frame to the underlay.
+   */
+  void read() throws IOException {
+    if (channel.read(readBuffer) < 0) throw new EOFException("Connection closed by peer");
+    readBuffer.flip();
+    int needed = 4;
+    while (readBuffer.remaining() >= 4) {
+      int length = readBuffer.getInt(readBuffer.position());
+      if (length < WireCodec.HEADER_SIZE || length > MAX_FRAME_SIZE)
+        throw new IOException("Invalid frame length " + length);
+      if (readBuffer.remaining() < 4 + length) {
+        needed = 4 + length;
+        break;
+      }
+      readBuffer.getInt();
+      byte kind = readBuffer.get();
+      int requestID = readBuffer.getInt();
+      byte[] payload = new byte[length - WireCodec.HEADER_SIZE];
+      readBuffer.get(payload);
+      underlay.onFrame(this, kind, requestID, payload);
+    }
+    if (needed > readBuffer.capacity()) {
+      // the next frame does not fit, so we grow the buffer to hold it entirely
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(needed, 2 * readBuffer.capacity()));
+      bigger.put(readBuffer);
+      readBuffer = bigger;
+    } else {
+      readBuffer.compact();
+    }
+  }
+
+  /**
+   * Closes the channel and fails every request that is still waiting for a response.
+   *
+   * @param cause the reason of closing, handed to the waiting requests
+   */
+  void close(Throwable cause) {
+    synchronized (this) {
+      if (closed) return;
+      closed = true;
+      writeQueue.clear();
+    }
+    try {
+      channel.close();
+    } catch (IOException e) {
+      // the channel is dropped either way
+    }
+    IOException failure =
+        new IOException("Connection to " + (remoteAddress == null ? "peer" : remoteAddress) + " was closed", cause);
+    for (CompletableFuture<GenericResponse> future : pending.values()) {
+      future.completeExceptionally(failure);
+    }
+    pending.clear();
+  }
+}
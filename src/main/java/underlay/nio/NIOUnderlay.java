@@ -0,0 +1,293 @@
+package underlay.nio;
+
+import org.apache.log4j.Logger;
+import underlay.Underlay;
+import underlay.requests.GenericRequest;
+import underlay.responses.GenericResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static underlay.rmi.RMIUnderlay.processRequest;
+
+/**
+ * An underlay that speaks the binary frames of the WireCodec over persistent TCP connections.
+ * A single selector thread accepts connections and reads and writes frames; incoming requests
+ * are dispatched to a worker pool through RMIUnderlay.processRequest, so that handlers which
+ * send requests of their own (e.g. recursive searches) never block the selector. Every peer is
+ * reached over one outgoing connection that multiplexes all of the requests sent to it, and
+ * responses are matched to their requests by requestID.
+ */
+public class NIOUnderlay extends Underlay {
+
+  /** A request that is not answered within this time fails. */
+  private static final long REQUEST_TIMEOUT = 60_000;
+
+  private final int port;
+  private final Selector selector;
+  private final ServerSocketChannel serverChannel;
+  private final Thread eventLoop;
+  private final ExecutorService workers;
+  private volatile boolean running = true;
+
+  /** Work that has to run on the selector thread, e.g. registering a channel. */
+  private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<>();
+  /** Outgoing connections keyed by the address of the remote underlay. */
+  private final Map<String, NIOConnection> connections = new ConcurrentHashMap<>();
+  /** Every open connection, outgoing as well as accepted ones. */
+  private final Set<NIOConnection> openConnections = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger nextRequestID = new AtomicInteger();
+
+  private final Logger logger;
+
+  public NIOUnderlay(int port) {
+    this.port = port;
+    this.logger = Logger.getLogger("" + port);
+    try {
+      selector = Selector.open();
+      serverChannel = ServerSocketChannel.open();
+      serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+      serverChannel.bind(new InetSocketAddress(port));
+      serverChannel.configureBlocking(false);
+      serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    } catch (IOException e) {
+      throw new IllegalStateException("[NIOUnderlay] Could not listen on port " + port, e);
+    }
+    workers =
+        Executors.newCachedThreadPool(
+            r -> {
+              Thread t = new Thread(r, "NIOUnderlay-worker-" + port);
+              t.setDaemon(true);
+              return t;
+            });
+    eventLoop = new Thread(this::runEventLoop, "NIOUnderlay-" + port);
+    eventLoop.setDaemon(true);
+    eventLoop.start();
+    logger.info("NIO underlay listening on port " + port);
+  }
+
+  @Override
+  public GenericResponse sendMessage(GenericRequest req, String targetAddress) {
+    try {
+      return sendMessageAsync(req, targetAddress).get(REQUEST_TIMEOUT, TimeUnit.MILLISECONDS);
+    } catch (Exception e) {
+      System.err.println("[NIOUnderlay] Could not send the message to " + targetAddress);
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  /**
+   * Sends the request over the connection to the target and returns a future of its response
+   * without waiting for it. Requests are multiplexed over the connection, so this never blocks on
+   * other in-flight requests.
+   *
+   * @param req the request to send
+   * @param targetAddress the address of the remote underlay
+   * @return a future that completes with the response, or exceptionally if the connection fails
+   */
+  @Override
+  public CompletableFuture<GenericResponse> sendMessageAsync(GenericRequest req, String targetAddress) {
+    CompletableFuture<GenericResponse> future = new CompletableFuture<>();
+    NIOConnection conn;
+    try {
+      conn = getConnection(targetAddress);
+    } catch (IOException e) {
+      future.completeExceptionally(e);
+      return future;
+    }
+    int requestID = nextRequestID.incrementAndGet();
+    conn.pending.put(requestID, future);
+    // a request that timed out or was cancelled no longer waits for its response
+    future.whenComplete((res, e) -> conn.pending.remove(requestID));
+    try {
+      conn.send(WireCodec.encodeRequest(requestID, req));
+    } catch (IOException e) {
+      conn.pending.remove(requestID);
+      dropConnection(conn, e);
+      future.completeExceptionally(e);
+    }
+    return future;
+  }
+
+  /**
+   * Returns the open connection to the given address, connecting to it if there is none. The
+   * connection is established by the selector thread, so a slow or unreachable peer does not hold
+   * up the sends to other peers; frames sent in the meantime are queued until it is connected.
+   *
+   * @param address the address of the remote underlay in the form ip:port
+   */
+  private NIOConnection getConnection(String address) throws IOException {
+    NIOConnection conn = connections.get(address);
+    if (conn != null && !conn.isClosed()) return conn;
+    int colon = address.lastIndexOf(':');
+    if (colon < 0) throw new IOException("Invalid address " + address);
+    InetSocketAddress target =
+        new InetSocketAddress(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+    synchronized (connections) {
+      conn = connections.get(address);
+      if (conn != null && !conn.isClosed()) return conn;
+      SocketChannel channel = SocketChannel.open();
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      channel.configureBlocking(false);
+      try {
+        channel.connect(target);
+      } catch (IOException | RuntimeException e) {
+        channel.close();
+        throw e;
+      }
+      NIOConnection newConn = new NIOConnection(this, channel, address);
+      connections.put(address, newConn);
+      runOnSelector(() -> register(newConn));
+      return newConn;
+    }
+  }
+
+  /** Handles a complete frame read from the given connection. Runs on the selector thread. */
+  void onFrame(NIOConnection conn, byte kind, int requestID, byte[] payload) {
+    if (kind == WireCodec.RESPONSE) {
+      CompletableFuture<GenericResponse> future = conn.pending.remove(requestID);
+      if (future == null) return;
+      try {
+        future.complete(WireCodec.readResponse(new DataInputStream(new ByteArrayInputStream(payload))));
+      } catch (IOException | RuntimeException e) {
+        future.completeExceptionally(e);
+      }
+      return;
+    }
+    try {
+      workers.execute(() -> answer(conn, requestID, payload));
+    } catch (RejectedExecutionException e) {
+      // the underlay is terminating, so the request is left unanswered
+    }
+  }
+
+  /** Decodes and processes a request, then writes its response back over the same connection. */
+  private void answer(NIOConnection conn, int requestID, byte[] payload) {
+    GenericResponse response = null;
+    try {
+      GenericRequest req = WireCodec.readRequest(new DataInputStream(new ByteArrayInputStream(payload)));
+      response = processRequest(this.skipNode, this.lightChainNode, req);
+    } catch (Exception e) {
+      System.err.println("[NIOUnderlay] Could not process a request.");
+      e.printStackTrace();
+    }
+    try {
+      conn.send(WireCodec.encodeResponse(requestID, response));
+    } catch (IOException e) {
+      dropConnection(conn, e);
+    }
+  }
+
+  /** Asks the selector thread to flush the queued frames of the given connection. */
+  void requestWrite(NIOConnection conn) {
+    runOnSelector(conn::enableWrite);
+  }
+
+  private void runOnSelector(Runnable task) {
+    selectorTasks.add(task);
+    selector.wakeup();
+  }
+
+  private void register(NIOConnection conn) {
+    openConnections.add(conn);
+    try {
+      conn.setKey(conn.getChannel().register(selector, SelectionKey.OP_READ, conn));
+    } catch (IOException e) {
+      dropConnection(conn, e);
+    }
+  }
+
+  private void dropConnection(NIOConnection conn, Throwable cause) {
+    conn.close(cause);
+    openConnections.remove(conn);
+    if (conn.getRemoteAddress() != null) connections.remove(conn.getRemoteAddress(), conn);
+  }
+
+  private void runEventLoop() {
+    while (running) {
+      try {
+        selector.select();
+        Runnable task;
+        while ((task = selectorTasks.poll()) != null) task.run();
+        Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+        while (it.hasNext()) {
+          SelectionKey key = it.next();
+          it.remove();
+          if (!key.isValid()) continue;
+          if (key.isAcceptable()) {
+            accept();
+            continue;
+          }
+          NIOConnection conn = (NIOConnection) key.attachment();
+          try {
+            if (key.isConnectable()) conn.finishConnect();
+            if (key.isValid() && key.isReadable()) conn.read();
+            if (key.isValid() && key.isWritable()) conn.flush();
+          } catch (IOException | RuntimeException e) {
+            // e.g. a frame that does not decode; only this connection is dropped, so the selector
+            // thread keeps serving the others
+            dropConnection(conn, e);
+          }
+        }
+      } catch (ClosedSelectorException e) {
+        return;
+      } catch (IOException e) {
+        if (running) logger.error("Error in the NIO event loop", e);
+      }
+    }
+  }
+
+  private void accept() throws IOException {
+    SocketChannel channel = serverChannel.accept();
+    if (channel == null) return;
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+    channel.configureBlocking(false);
+    register(new NIOConnection(this, channel, null));
+  }
+
+  /** Terminates the NIO underlay, closing the listening socket and every connection. */
+  @Override
+  public boolean terminate() {
+    running = false;
+    try {
+      serverChannel.close();
+      for (NIOConnection conn : connections.values()) conn.close(new IOException("Underlay terminated"));
+      for (NIOConnection conn : openConnections) conn.close(new IOException("Underlay terminated"));
+      connections.clear();
+      openConnections.clear();
+      selector.close();
+    } catch (Exception e) {
+      System.err.println("[NIOUnderlay] Could not terminate.");
+      e.printStackTrace();
+      return false;
+    } finally {
+      workers.shutdownNow();
+    }
+    return true;
+  }
+
+  public int getPort() {
+    return port;
+  }
+}
@@ -0,0 +1,641 @@
+package underlay.nio;
+
+import blockchain.Block;
+import blockchain.Transaction;
+import signature.SignedBytes;
+import skipGraph.Identifier;
+import skipGraph.LevelScan;
+import skipGraph.NodeInfo;
+import skipGraph.SearchStep;
+import underlay.requests.GenericRequest;
+import underlay.requests.RequestType;
+import underlay.requests.lightchain.GetModeRequest;
+import underlay.requests.lightchain.GetPublicKeyRequest;
+import underlay.requests.lightchain.GetTokenRequest;
+import underlay.requests.lightchain.NewBlockRequest;
+import underlay.requests.lightchain.PoVRequest;
+import underlay.requests.lightchain.RemoveFlagNodeRequest;
+import underlay.requests.skipgraph.*;
+import underlay.responses.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The binary wire format of the NIOUnderlay. Every message travels in a frame of the form
+ *
+ * <pre>
+ *   int length | byte kind | int requestID | payload
+ * </pre>
+ *
+ * where length counts every byte after itself, kind tells requests and responses apart and the
+ * requestID correlates a response with the request it answers. The requests and responses of the
+ * skip graph and LightChain layers are written field by field; any message type the codec does
+ * not know about falls back to Java serialization so that new requests work on this transport
+ * before they get a compact encoding.
+ */
+public final class WireCodec {
+
+  public static final byte REQUEST = 0;
+  public static final byte RESPONSE = 1;
+
+  /** Size of the kind and requestID fields that follow the length prefix. */
+  public static final int HEADER_SIZE = 5;
+
+  // tag of requests that are encoded through Java serialization
+  private static final byte SERIALIZED_REQUEST = -1;
+
+  // response tags
+  private static final byte NULL_RESPONSE = 0;
+  private static final byte EMPTY_RESPONSE = 1;
+  private static final byte BOOLEAN_RESPONSE = 2;
+  private static final byte INTEGER_RESPONSE = 3;
+  private static final byte NODE_INFO_RESPONSE = 4;
+  private static final byte NODE_INFO_LIST_RESPONSE = 5;
+  private static final byte PUBLIC_KEY_RESPONSE = 6;
+  private static final byte SIGNATURE_RESPONSE = 7;
+  private static final byte SERIALIZED_RESPONSE = 8;
+  private static final byte SEARCH_STEP_RESPONSE = 9;
+  private static final byte LEVEL_SCAN_RESPONSE = 10;
+
+  // node tags
+  private static final byte NULL_NODE = 0;
+  private static final byte PLAIN_NODE = 1;
+  private static final byte TRANSACTION_NODE = 2;
+  private static final byte BLOCK_NODE = 3;
+  private static final byte SERIALIZED_NODE = 4;
+
+  private WireCodec() {}
+
+  /**
+   * Encodes a request into a frame that is ready to be written to a channel.
+   *
+   * @param requestID the ID used to correlate the response with this request
+   * @param req the request to encode
+   * @return the frame, flipped for reading
+   */
+  public static ByteBuffer encodeRequest(int requestID, GenericRequest req) throws IOException {
+    FrameOutput out = new FrameOutput(REQUEST, requestID);
+    writeRequest(out.data, req);
+    return out.toFrame();
+  }
+
+  /**
+   * Encodes a response into a frame that is ready to be written to a channel.
+   *
+   * @param requestID the ID of the request this response answers
+   * @param res the response to encode, may be null
+   * @return the frame, flipped for reading
+   */
+  public static ByteBuffer encodeResponse(int requestID, GenericResponse res) throws IOException {
+    FrameOutput out = new FrameOutput(RESPONSE, requestID);
+    writeResponse(out.data, res);
+    return out.toFrame();
+  }
+
+  public static void writeRequest(DataOutputStream out, GenericRequest req) throws IOException {
+    switch (req.type) {
+      case PingRequest:
+      case GetNumIDRequest:
+      case GetModeRequest:
+      case GetPublicKeyRequest:
+      case RemoveFlagNodeRequest:
+      case GetTokenRequest:
+        out.writeByte(req.type.ordinal());
+        return;
+      case SetLeftNodeRequest:
+        {
+          SetLeftNodeRequest r = (SetLeftNodeRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.num);
+          out.writeInt(r.level);
+          writeNode(out, r.newNode);
+          writeNode(out, r.oldNode);
+          return;
+        }
+      case SetRightNodeRequest:
+        {
+          SetRightNodeRequest r = (SetRightNodeRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.num);
+          out.writeInt(r.level);
+          writeNode(out, r.newNode);
+          writeNode(out, r.oldNode);
+          return;
+        }
+      case SearchByNumIDRequest:
+        out.writeByte(req.type.ordinal());
+        out.writeInt(((SearchByNumIDRequest) req).num);
+        return;
+      case SearchByNameIDRequest:
+        out.writeByte(req.type.ordinal());
+        writeString(out, ((SearchByNameIDRequest) req).targetString);
+        return;
+      case GetLeftNodeRequest:
+        {
+          GetLeftNodeRequest r = (GetLeftNodeRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.level);
+          out.writeInt(r.num);
+          return;
+        }
+      case GetRightNodeRequest:
+        {
+          GetRightNodeRequest r = (GetRightNodeRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.level);
+          out.writeInt(r.num);
+          return;
+        }
+      case GetLeftNumIDRequest:
+        {
+          GetLeftNumIDRequest r = (GetLeftNumIDRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.level);
+          out.writeInt(r.num);
+          return;
+        }
+      case GetRightNumIDRequest:
+        {
+          GetRightNumIDRequest r = (GetRightNumIDRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.level);
+          out.writeInt(r.num);
+          return;
+        }
+      case InsertSearchRequest:
+        {
+          InsertSearchRequest r = (InsertSearchRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.level);
+          out.writeInt(r.direction);
+          out.writeInt(r.num);
+          writeIdentifier(out, r.target);
+          return;
+        }
+      case SearchNumIDRequest:
+        {
+          SearchNumIDRequest r = (SearchNumIDRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.numID);
+          out.writeInt(r.searchTarget);
+          out.writeInt(r.level);
+          writeNodeList(out, r.lst);
+          return;
+        }
+      case SearchNumIDStepRequest:
+        {
+          SearchNumIDStepRequest r = (SearchNumIDStepRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.numID);
+          out.writeInt(r.searchTarget);
+          out.writeInt(r.level);
+          return;
+        }
+      case SearchNumIDsRequest:
+        {
+          SearchNumIDsRequest r = (SearchNumIDsRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.numID);
+          out.writeInt(r.searchTargets.length);
+          for (int target : r.searchTargets) out.writeInt(target);
+          out.writeInt(r.level);
+          return;
+        }
+      case ScanLevelRequest:
+        {
+          ScanLevelRequest r = (ScanLevelRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.numID);
+          out.writeInt(r.level);
+          out.writeInt(r.direction);
+          out.writeInt(r.limit);
+          return;
+        }
+      case SearchNameRequest:
+        {
+          SearchNameRequest r = (SearchNameRequest) req;
+          out.writeByte(req.type.ordinal());
+          out.writeInt(r.numID);
+          writeIdentifier(out, r.searchTarget);
+          out.writeInt(r.level);
+          out.writeInt(r.direction);
+          return;
+        }
+      case GetNodeRequest:
+        out.writeByte(req.type.ordinal());
+        out.writeInt(((GetNodeRequest) req).num);
+        return;
+      case PoVRequest:
+        {
+          PoVRequest r = (PoVRequest) req;
+          out.writeByte(req.type.ordinal());
+          writeNode(out, r.blk != null ? r.blk : r.t);
+          return;
+        }
+      case NewBlockRequest:
+        out.writeByte(req.type.ordinal());
+        writeNode(out, ((NewBlockRequest) req).blk);
+        return;
+      default:
+        out.writeByte(SERIALIZED_REQUEST);
+        writeSerialized(out, req);
+    }
+  }
+
+  public static GenericRequest readRequest(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    if (tag == SERIALIZED_REQUEST) return (GenericRequest) readSerialized(in);
+    RequestType type = RequestType.values()[tag];
+    switch (type) {
+      case PingRequest:
+        return new PingRequest();
+      case GetNumIDRequest:
+        return new GetNumIDRequest();
+      case GetModeRequest:
+        return new GetModeRequest();
+      case GetPublicKeyRequest:
+        return new GetPublicKeyRequest();
+      case RemoveFlagNodeRequest:
+        return new RemoveFlagNodeRequest();
+      case GetTokenRequest:
+        return new GetTokenRequest();
+      case SetLeftNodeRequest:
+        return new SetLeftNodeRequest(in.readInt(), in.readInt(), readNode(in), readNode(in));
+      case SetRightNodeRequest:
+        return new SetRightNodeRequest(in.readInt(), in.readInt(), readNode(in), readNode(in));
+      case SearchByNumIDRequest:
+        return new SearchByNumIDRequest(in.readInt());
+      case SearchByNameIDRequest:
+        return new SearchByNameIDRequest(readString(in));
+      case GetLeftNodeRequest:
+        return new GetLeftNodeRequest(in.readInt(), in.readInt());
+      case GetRightNodeRequest:
+        return new GetRightNodeRequest(in.readInt(), in.readInt());
+      case GetLeftNumIDRequest:
+        return new GetLeftNumIDRequest(in.readInt(), in.readInt());
+      case GetRightNumIDRequest:
+        return new GetRightNumIDRequest(in.readInt(), in.readInt());
+      case InsertSearchRequest:
+        return new InsertSearchRequest(in.readInt(), in.readInt(), in.readInt(), readIdentifier(in));
+      case SearchNumIDRequest:
+        return new SearchNumIDRequest(in.readInt(), in.readInt(), in.readInt(), readNodeList(in));
+      case SearchNumIDStepRequest:
+        return new SearchNumIDStepRequest(in.readInt(), in.readInt(), in.readInt());
+      case SearchNumIDsRequest:
+        {
+          int numID = in.readInt();
+          int[] targets = new int[in.readInt()];
+          for (int i = 0; i < targets.length; i++) targets[i] = in.readInt();
+          return new SearchNumIDsRequest(numID, targets, in.readInt());
+        }
+      case ScanLevelRequest:
+        return new ScanLevelRequest(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+      case SearchNameRequest:
+        return new SearchNameRequest(in.readInt(), readIdentifier(in), in.readInt(), in.readInt());
+      case GetNodeRequest:
+        return new GetNodeRequest(in.readInt());
+      case PoVRequest:
+        {
+          NodeInfo node = readNode(in);
+          if (node instanceof Block) return new PoVRequest((Block) node);
+          return new PoVRequest((Transaction) node);
+        }
+      case NewBlockRequest:
+        return new NewBlockRequest((Block) readNode(in));
+      default:
+        throw new IOException("Unknown request type on the wire: " + type);
+    }
+  }
+
+  public static void writeResponse(DataOutputStream out, GenericResponse res) throws IOException {
+    if (res == null) {
+      out.writeByte(NULL_RESPONSE);
+    } else if (res.getClass() == EmptyResponse.class) {
+      out.writeByte(EMPTY_RESPONSE);
+    } else if (res instanceof BooleanResponse) {
+      out.writeByte(BOOLEAN_RESPONSE);
+      out.writeBoolean(((BooleanResponse) res).result);
+    } else if (res.getClass() == IntegerResponse.class) {
+      out.writeByte(INTEGER_RESPONSE);
+      out.writeInt(((IntegerResponse) res).result);
+    } else if (res.getClass() == NodeInfoResponse.class) {
+      out.writeByte(NODE_INFO_RESPONSE);
+      writeNode(out, ((NodeInfoResponse) res).result);
+    } else if (res.getClass() == NodeInfoListResponse.class) {
+      out.writeByte(NODE_INFO_LIST_RESPONSE);
+      writeNodeList(out, ((NodeInfoListResponse) res).result);
+    } else if (res.getClass() == PublicKeyResponse.class && isX509(((PublicKeyResponse) res).result)) {
+      PublicKey key = ((PublicKeyResponse) res).result;
+      out.writeByte(PUBLIC_KEY_RESPONSE);
+      writeString(out, key.getAlgorithm());
+      writeBytes(out, key.getEncoded());
+    } else if (res.getClass() == SearchStepResponse.class && ((SearchStepResponse) res).result != null) {
+      SearchStep step = ((SearchStepResponse) res).result;
+      out.writeByte(SEARCH_STEP_RESPONSE);
+      writeNode(out, step.getCurrent());
+      writeNode(out, step.getNext());
+      out.writeInt(step.getLevel());
+    } else if (res.getClass() == LevelScanResponse.class && ((LevelScanResponse) res).result != null) {
+      LevelScan scan = ((LevelScanResponse) res).result;
+      out.writeByte(LEVEL_SCAN_RESPONSE);
+      writeNodeList(out, scan.getNodes());
+      writeNode(out, scan.getNext());
+    } else if (res.getClass() == SignatureResponse.class) {
+      out.writeByte(SIGNATURE_RESPONSE);
+      writeSignedBytes(out, ((SignatureResponse) res).result);
+    } else {
+      out.writeByte(SERIALIZED_RESPONSE);
+      writeSerialized(out, res);
+    }
+  }
+
+  public static GenericResponse readResponse(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL_RESPONSE:
+        return null;
+      case EMPTY_RESPONSE:
+        return new EmptyResponse();
+      case BOOLEAN_RESPONSE:
+        return new BooleanResponse(in.readBoolean());
+      case INTEGER_RESPONSE:
+        return new IntegerResponse(in.readInt());
+      case NODE_INFO_RESPONSE:
+        return new NodeInfoResponse(readNode(in));
+      case NODE_INFO_LIST_RESPONSE:
+        return new NodeInfoListResponse(readNodeList(in));
+      case PUBLIC_KEY_RESPONSE:
+        {
+          String algorithm = readString(in);
+          byte[] encoded = readBytes(in);
+          try {
+            KeyFactory kf = KeyFactory.getInstance(algorithm);
+            return new PublicKeyResponse(kf.generatePublic(new X509EncodedKeySpec(encoded)));
+          } catch (Exception e) {
+            throw new IOException("Could not decode public key", e);
+          }
+        }
+      case SIGNATURE_RESPONSE:
+        return new SignatureResponse(readSignedBytes(in));
+      case SEARCH_STEP_RESPONSE:
+        return new SearchStepResponse(new SearchStep(readNode(in), readNode(in), in.readInt()));
+      case LEVEL_SCAN_RESPONSE:
+        return new LevelScanResponse(new LevelScan(readNodeList(in), readNode(in)));
+      case SERIALIZED_RESPONSE:
+        return (GenericResponse) readSerialized(in);
+      default:
+        throw new IOException("Unknown response tag on the wire: " + tag);
+    }
+  }
+
+  public static void writeNode(DataOutputStream out, NodeInfo node) throws IOException {
+    if (node == null) {
+      out.writeByte(NULL_NODE);
+    } else if (node.getClass() == NodeInfo.class) {
+      out.writeByte(PLAIN_NODE);
+      writeNodeFields(out, node);
+    } else if (node.getClass() == Transaction.class) {
+      out.writeByte(TRANSACTION_NODE);
+      writeTransaction(out, (Transaction) node);
+    } else if (node.getClass() == Block.class) {
+      Block blk = (Block) node;
+      out.writeByte(BLOCK_NODE);
+      writeNodeFields(out, blk);
+      writeString(out, blk.getPrev());
+      out.writeInt(blk.getOwner());
+      writeString(out, blk.getHash());
+      writeBytes(out, blk.getMerkleRoot());
+      out.writeInt(blk.getIndex());
+      out.writeInt(blk.getLevels());
+      List<Transaction> tList = blk.getTransactionSet();
+      out.writeInt(tList == null ? -1 : tList.size());
+      if (tList != null) {
+        for (Transaction t : tList) writeTransaction(out, t);
+      }
+      writeSigma(out, blk.getSigma());
+    } else {
+      out.writeByte(SERIALIZED_NODE);
+      writeSerialized(out, node);
+    }
+  }
+
+  public static NodeInfo readNode(DataInputStream in) throws IOException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL_NODE:
+        return null;
+      case PLAIN_NODE:
+        return new NodeInfo(readString(in), in.readInt(), readString(in));
+      case TRANSACTION_NODE:
+        return readTransaction(in);
+      case BLOCK_NODE:
+        {
+          String address = readString(in);
+          int numID = in.readInt();
+          String nameID = readString(in);
+          String prev = readString(in);
+          int owner = in.readInt();
+          String hash = readString(in);
+          byte[] merkleRoot = readBytes(in);
+          int index = in.readInt();
+          int levels = in.readInt();
+          int size = in.readInt();
+          List<Transaction> tList = null;
+          if (size >= 0) {
+            tList = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) tList.add(readTransaction(in));
+          }
+          List<SignedBytes> sigma = readSigma(in);
+          return new Block(prev, owner, hash, merkleRoot, address, numID, nameID, tList, sigma, index, levels);
+        }
+      case SERIALIZED_NODE:
+        return (NodeInfo) readSerialized(in);
+      default:
+        throw new IOException("Unknown node tag on the wire: " + tag);
+    }
+  }
+
+  private static void writeNodeFields(DataOutputStream out, NodeInfo node) throws IOException {
+    writeString(out, node.getAddress());
+    out.writeInt(node.getNumID());
+    writeString(out, node.getNameID());
+  }
+
+  private static void writeTransaction(DataOutputStream out, Transaction t) throws IOException {
+    writeNodeFields(out, t);
+    writeString(out, t.getPrev());
+    out.writeInt(t.getOwner());
+    writeString(out, t.getCont());
+    writeString(out, t.getHash());
+    out.writeInt(t.getLevels());
+    writeSigma(out, t.getSigma());
+  }
+
+  private static Transaction readTransaction(DataInputStream in) throws IOException {
+    String address = readString(in);
+    int numID = in.readInt();
+    String nameID = readString(in);
+    String prev = readString(in);
+    int owner = in.readInt();
+    String cont = readString(in);
+    String hash = readString(in);
+    int levels = in.readInt();
+    List<SignedBytes> sigma = readSigma(in);
+    return new Transaction(prev, owner, cont, hash, address, numID, nameID, levels, sigma);
+  }
+
+  private static void writeNodeList(DataOutputStream out, List<NodeInfo> list) throws IOException {
+    out.writeInt(list == null ? -1 : list.size());
+    if (list == null) return;
+    for (NodeInfo node : list) writeNode(out, node);
+  }
+
+  private static List<NodeInfo> readNodeList(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) return null;
+    List<NodeInfo> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) list.add(readNode(in));
+    return list;
+  }
+
+  private static void writeSigma(DataOutputStream out, List<SignedBytes> sigma) throws IOException {
+    out.writeInt(sigma == null ? -1 : sigma.size());
+    if (sigma == null) return;
+    for (SignedBytes signature : sigma) writeSignedBytes(out, signature);
+  }
+
+  private static List<SignedBytes> readSigma(DataInputStream in) throws IOException {
+    int size = in.readInt();
+    if (size < 0) return null;
+    List<SignedBytes> sigma = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) sigma.add(readSignedBytes(in));
+    return sigma;
+  }
+
+  private static void writeSignedBytes(DataOutputStream out, SignedBytes signature)
+      throws IOException {
+    out.writeBoolean(signature != null);
+    if (signature == null) return;
+    writeBytes(out, signature.getBytes());
+    out.writeBoolean(signature.isAuth());
+    out.writeBoolean(signature.isSound());
+    out.writeBoolean(signature.isCorrect());
+    out.writeBoolean(signature.hasBalance());
+    out.writeLong(signature.getValidationTime());
+  }
+
+  private static SignedBytes readSignedBytes(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) return null;
+    byte[] bytes = readBytes(in);
+    SignedBytes signature =
+        new SignedBytes(bytes, in.readBoolean(), in.readBoolean(), in.readBoolean(), in.readBoolean());
+    signature.setValidationTime(in.readLong());
+    return signature;
+  }
+
+  /**
+   * Writes a packed identifier as its length and its bits, and any other identifier as its
+   * String, with a length of -1 telling them apart.
+   */
+  private static void writeIdentifier(DataOutputStream out, Identifier id) throws IOException {
+    if (id != null && id.isPacked()) {
+      out.writeByte(id.length());
+      out.writeLong(id.getBits());
+    } else {
+      out.writeByte(-1);
+      writeString(out, id == null ? null : id.toString());
+    }
+  }
+
+  private static Identifier readIdentifier(DataInputStream in) throws IOException {
+    int length = in.readByte();
+    if (length >= 0) return Identifier.of(in.readLong(), length);
+    return Identifier.valueOf(readString(in));
+  }
+
+  private static void writeString(DataOutputStream out, String s) throws IOException {
+    writeBytes(out, s == null ? null : s.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String readString(DataInputStream in) throws IOException {
+    byte[] bytes = readBytes(in);
+    return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+    out.writeInt(bytes == null ? -1 : bytes.length);
+    if (bytes != null) out.write(bytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) return null;
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private static void writeSerialized(DataOutputStream out, Object obj) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bytes)) {
+      oos.writeObject(obj);
+    }
+    writeBytes(out, bytes.toByteArray());
+  }
+
+  private static Object readSerialized(DataInputStream in) throws IOException {
+    byte[] bytes = readBytes(in);
+    try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return ois.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new IOException("Could not deserialize message", e);
+    }
+  }
+
+  private static boolean isX509(PublicKey key) {
+    return key != null && key.getAlgorithm() != null && "X.509".equals(key.getFormat());
+  }
+
+  /** Collects the payload of a frame behind a reserved header. */
+  private static class FrameOutput {
+    final ExposedByteArrayOutputStream bytes = new ExposedByteArrayOutputStream();
+    final DataOutputStream data = new DataOutputStream(bytes);
+
+    FrameOutput(byte kind, int requestID) throws IOException {
+      data.writeInt(0); // length, patched in toFrame
+      data.writeByte(kind);
+      data.writeInt(requestID);
+    }
+
+    ByteBuffer toFrame() throws IOException {
+      data.flush();
+      ByteBuffer frame = ByteBuffer.wrap(bytes.buffer(), 0, bytes.size());
+      frame.putInt(0, bytes.size() - 4);
+      return frame;
+    }
+  }
+
+  /** Gives access to the internal buffer so that a frame can be wrapped without copying it. */
+  private static class ExposedByteArrayOutputStream extends ByteArrayOutputStream {
+    ExposedByteArrayOutputStream() {
+      super(128);
+    }
+
+    byte[] buffer() {
+      return buf;
+    }
+  }
+}
@@ -24,5 +24,9 @@ public enum RequestType {
   GetLeftNumIDRequest,
   GetRightNumIDRequest,
   GetNodeRequest,
-  PingRequest
+  PingRequest,
+  SearchNumIDStepRequest,
+  ScanLevelRequest,
+  SearchNumIDsRequest,
+  NewBlockRequest
 }
@@ -0,0 +1,13 @@
+package underlay.requests.lightchain;
+
+import blockchain.Block;
+import underlay.requests.RequestType;
+
+public class NewBlockRequest extends GenericLightChainRequest {
+  public final Block blk;
+
+  public NewBlockRequest(Block blk) {
+    super(RequestType.NewBlockRequest);
+    this.blk = blk;
+  }
+}
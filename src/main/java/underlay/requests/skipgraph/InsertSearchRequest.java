@@ -1,14 +1,15 @@
 package underlay.requests.skipgraph;
 
+import skipGraph.Identifier;
 import underlay.requests.RequestType;
 
 public class InsertSearchRequest extends GenericSkipGraphRequest {
   public final int level;
   public final int direction;
   public final int num;
-  public final String target;
+  public final Identifier target;
 
-  public InsertSearchRequest(int level, int direction, int num, String target) {
+  public InsertSearchRequest(int level, int direction, int num, Identifier target) {
     super(RequestType.InsertSearchRequest);
     this.level = level;
     this.direction = direction;
@@ -0,0 +1,18 @@
+package underlay.requests.skipgraph;
+
+import underlay.requests.RequestType;
+
+public class ScanLevelRequest extends GenericSkipGraphRequest {
+  public final int numID;
+  public final int level;
+  public final int direction;
+  public final int limit;
+
+  public ScanLevelRequest(int numID, int level, int direction, int limit) {
+    super(RequestType.ScanLevelRequest);
+    this.numID = numID;
+    this.level = level;
+    this.direction = direction;
+    this.limit = limit;
+  }
+}
@@ -1,14 +1,15 @@
 package underlay.requests.skipgraph;
 
+import skipGraph.Identifier;
 import underlay.requests.RequestType;
 
 public class SearchNameRequest extends GenericSkipGraphRequest {
   public final int numID;
-  public final String searchTarget;
+  public final Identifier searchTarget;
   public final int level;
   public final int direction;
 
-  public SearchNameRequest(int numID, String searchTarget, int level, int direction) {
+  public SearchNameRequest(int numID, Identifier searchTarget, int level, int direction) {
     super(RequestType.SearchNameRequest);
     this.numID = numID;
     this.searchTarget = searchTarget;
@@ -0,0 +1,16 @@
+package underlay.requests.skipgraph;
+
+import underlay.requests.RequestType;
+
+public class SearchNumIDStepRequest extends GenericSkipGraphRequest {
+  public final int numID;
+  public final int searchTarget;
+  public final int level;
+
+  public SearchNumIDStepRequest(int numID, int searchTarget, int level) {
+    super(RequestType.SearchNumIDStepRequest);
+    this.numID = numID;
+    this.searchTarget = searchTarget;
+    this.level = level;
+  }
+}
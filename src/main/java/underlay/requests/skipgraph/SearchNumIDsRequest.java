@@ -0,0 +1,16 @@
+package underlay.requests.skipgraph;
+
+import underlay.requests.RequestType;
+
+public class SearchNumIDsRequest extends GenericSkipGraphRequest {
+  public final int numID;
+  public final int[] searchTargets;
+  public final int level;
+
+  public SearchNumIDsRequest(int numID, int[] searchTargets, int level) {
+    super(RequestType.SearchNumIDsRequest);
+    this.numID = numID;
+    this.searchTargets = searchTargets;
+    this.level = level;
+  }
+}
@@ -0,0 +1,16 @@
+package underlay.responses;
+
+import skipGraph.LevelScan;
+
+/** Represents a response which returns a batch of consecutive nodes of a level. */
+public class LevelScanResponse extends GenericResponse {
+  public final LevelScan result;
+
+  public LevelScanResponse(LevelScan result) {
+    this.result = result;
+  }
+
+  public static LevelScanResponse LevelScanResponseOf(GenericResponse response) {
+    return (LevelScanResponse) response;
+  }
+}
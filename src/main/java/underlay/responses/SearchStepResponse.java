@@ -0,0 +1,16 @@
+package underlay.responses;
+
+import skipGraph.SearchStep;
+
+/** Represents a response which returns one hop of an iterative search. */
+public class SearchStepResponse extends GenericResponse {
+  public final SearchStep result;
+
+  public SearchStepResponse(SearchStep result) {
+    this.result = result;
+  }
+
+  public static SearchStepResponse SearchStepResponseOf(GenericResponse response) {
+    return (SearchStepResponse) response;
+  }
+}
@@ -0,0 +1,135 @@
+package underlay.rmi;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded cache of resolved RMI stubs keyed by the target address. Resolving a stub through
+ * Naming.lookup costs a full round trip to the remote registry, so the RMIUnderlay keeps the
+ * stubs it has already resolved and reuses them for subsequent requests to the same address.
+ * Entries are evicted in LRU order once the capacity is exceeded, and entries that have not been
+ * used for longer than the idle timeout are dropped on access.
+ */
+public class RMIStubCache {
+
+  /** Maps an address to its cached stub, ordered by access (least recently used first). */
+  private final LinkedHashMap<String, Entry> stubs;
+
+  private final int capacity;
+  private final long idleTimeoutMillis;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong invalidations = new AtomicLong();
+
+  /**
+   * @param capacity maximum number of stubs kept in the cache
+   * @param idleTimeoutMillis a stub that has not been used for this long is considered stale
+   */
+  public RMIStubCache(int capacity, long idleTimeoutMillis) {
+    this.capacity = capacity;
+    this.idleTimeoutMillis = idleTimeoutMillis;
+    this.stubs = new LinkedHashMap<>(16, 0.75f, true);
+  }
+
+  /**
+   * Returns the cached stub of the given address, or null if there is no fresh stub cached for it.
+   * A hit refreshes the idle timer of the entry.
+   *
+   * @param address the address of the remote RMI server
+   * @return the cached stub or null
+   */
+  public synchronized RMIService get(String address) {
+    Entry entry = stubs.get(address);
+    long now = System.currentTimeMillis();
+    if (entry == null || now - entry.lastUsed > idleTimeoutMillis) {
+      if (entry != null) stubs.remove(address);
+      misses.incrementAndGet();
+      return null;
+    }
+    entry.lastUsed = now;
+    hits.incrementAndGet();
+    return entry.stub;
+  }
+
+  /**
+   * Stores the stub of the given address, evicting idle entries and then the least recently used
+   * entries if the capacity is exceeded.
+   *
+   * @param address the address of the remote RMI server
+   * @param stub the resolved stub
+   */
+  public synchronized void put(String address, RMIService stub) {
+    long now = System.currentTimeMillis();
+    stubs.put(address, new Entry(stub, now));
+    Iterator<Map.Entry<String, Entry>> it = stubs.entrySet().iterator();
+    while (it.hasNext() && stubs.size() > capacity) {
+      it.next();
+      it.remove();
+    }
+    evictIdle(now);
+  }
+
+  /**
+   * Drops the stub of the given address, e.g. after a call through it failed with a connection
+   * error, so that the next request resolves a fresh stub from the registry.
+   *
+   * @param address the address of the remote RMI server
+   * @param stub the stub that failed; the entry is only dropped if it still holds this stub
+   */
+  public synchronized void invalidate(String address, RMIService stub) {
+    Entry entry = stubs.get(address);
+    if (entry != null && entry.stub == stub) {
+      stubs.remove(address);
+      invalidations.incrementAndGet();
+    }
+  }
+
+  /** Drops every cached stub. */
+  public synchronized void clear() {
+    stubs.clear();
+  }
+
+  public synchronized int size() {
+    return stubs.size();
+  }
+
+  public long getHits() {
+    return hits.get();
+  }
+
+  public long getMisses() {
+    return misses.get();
+  }
+
+  public long getInvalidations() {
+    return invalidations.get();
+  }
+
+  /** @return the fraction of lookups that were served from the cache */
+  public double getHitRatio() {
+    long total = hits.get() + misses.get();
+    return total == 0 ? 0 : (double) hits.get() / total;
+  }
+
+  private void evictIdle(long now) {
+    // entries are kept in access order, so the idle ones are all at the head
+    Iterator<Entry> it = stubs.values().iterator();
+    while (it.hasNext()) {
+      if (now - it.next().lastUsed <= idleTimeoutMillis) break;
+      it.remove();
+    }
+  }
+
+  private static class Entry {
+    final RMIService stub;
+    long lastUsed;
+
+    Entry(RMIService stub, long lastUsed) {
+      this.stub = stub;
+      this.lastUsed = lastUsed;
+    }
+  }
+}
@@ -8,16 +8,23 @@ import skipGraph.SkipGraphNode;
 import underlay.Underlay;
 import underlay.requests.GenericRequest;
 import underlay.requests.lightchain.GenericLightChainRequest;
+import underlay.requests.lightchain.NewBlockRequest;
 import underlay.requests.lightchain.PoVRequest;
 import underlay.requests.skipgraph.*;
 import underlay.responses.*;
 import util.Util;
 
 import java.io.FileNotFoundException;
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
 import java.rmi.Naming;
+import java.rmi.NoSuchObjectException;
 import java.rmi.RemoteException;
 import java.rmi.registry.LocateRegistry;
 import java.rmi.server.ExportException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The underlay class is used to abstract away the RMI primitives used in the skipGraph and
@@ -25,10 +32,22 @@ import java.rmi.server.ExportException;
  */
 public class RMIUnderlay extends Underlay {
 
+  /** Maximum number of remote stubs kept by the stub cache. */
+  private static final int STUB_CACHE_CAPACITY = 256;
+  /** A cached stub that has not been used for this long is looked up again. */
+  private static final long STUB_IDLE_TIMEOUT = 60_000;
+
   private String IP;
   private int port;
   private String address;
   JavaRMIHost host;
+  private final RMIStubCache stubCache = new RMIStubCache(STUB_CACHE_CAPACITY, STUB_IDLE_TIMEOUT);
+  /** Runs the blocking RMI calls of sendMessageAsync, one thread per in-flight call. */
+  private final ExecutorService asyncCalls = Executors.newCachedThreadPool(r -> {
+    Thread t = new Thread(r, "RMIUnderlay-async");
+    t.setDaemon(true);
+    return t;
+  });
 
   private final Logger logger = Logger.getLogger("" + port);
 
@@ -61,6 +80,21 @@ public class RMIUnderlay extends Underlay {
       return null;
     try {
       return remote.answer(req);
+    } catch (ConnectException | ConnectIOException | NoSuchObjectException e) {
+      // the cached stub points at a server that went away or was re-bound, so we drop it
+      // and retry once through a freshly resolved stub.
+      stubCache.invalidate(targetAddress, remote);
+      remote = getRMI(targetAddress);
+      if (remote == null)
+        return null;
+      try {
+        return remote.answer(req);
+      } catch (Exception ex) {
+        stubCache.invalidate(targetAddress, remote);
+        System.err.println("[JavaRMIUnderlay] Could not send the message.");
+        ex.printStackTrace();
+        return null;
+      }
     } catch (Exception e) {
       System.err.println("[JavaRMIUnderlay] Could not send the message.");
       e.printStackTrace();
@@ -68,6 +102,15 @@ public class RMIUnderlay extends Underlay {
     }
   }
 
+  /**
+   * Java RMI calls are blocking, so every asynchronous request occupies a thread of its own for
+   * the duration of the call. Cancelling the returned future interrupts that thread.
+   */
+  @Override
+  public CompletableFuture<GenericResponse> sendMessageAsync(GenericRequest req, String targetAddress) {
+    return sendMessageOn(asyncCalls, req, targetAddress);
+  }
+
   public GenericResponse answer(GenericRequest req) throws FileNotFoundException{
     return processRequest(this.skipNode, this.lightChainNode, req);
   }
@@ -129,6 +172,21 @@ public class RMIUnderlay extends Underlay {
           return new NodeInfoListResponse(
               skipGraphNode.searchNumID(r.numID, r.searchTarget, r.level, r.lst));
         }
+      case SearchNumIDStepRequest:
+        {
+          SearchNumIDStepRequest r = (SearchNumIDStepRequest) req;
+          return new SearchStepResponse(skipGraphNode.searchNumIDStep(r.numID, r.searchTarget, r.level));
+        }
+      case SearchNumIDsRequest:
+        {
+          SearchNumIDsRequest r = (SearchNumIDsRequest) req;
+          return new NodeInfoListResponse(skipGraphNode.searchNumIDs(r.numID, r.searchTargets, r.level));
+        }
+      case ScanLevelRequest:
+        {
+          ScanLevelRequest r = (ScanLevelRequest) req;
+          return new LevelScanResponse(skipGraphNode.scanLevel(r.numID, r.level, r.direction, r.limit));
+        }
       case SearchNameRequest:
         {
           SearchNameRequest r = (SearchNameRequest) req;
@@ -155,6 +213,11 @@ public class RMIUnderlay extends Underlay {
         lightChainNode.removeFlagNode();
         return new EmptyResponse();
       }
+      case NewBlockRequest:
+      {
+        lightChainNode.notifyNewBlock(((NewBlockRequest) req).blk);
+        return new EmptyResponse();
+      }
       case PoVRequest:
       {
         PoVRequest r = (PoVRequest) req;
@@ -184,15 +247,19 @@ public class RMIUnderlay extends Underlay {
 
 
   /**
-   * This method returns the underlying RMI of the given address based on the type.
+   * This method returns the underlying RMI of the given address based on the type. Stubs that were
+   * resolved before are served from the stub cache, so the registry is only contacted on a miss.
    *
    * @param adrs A string which specifies the address of the target node.
    */
   public RMIService getRMI(String adrs) {
+    RMIService remote = stubCache.get(adrs);
+    if (remote != null)
+      return remote;
+
     if (!Util.validateIP(adrs)) {
       logger.debug("Error in lookup up RMI. Address " + adrs + " is not a valid address");
     }
-    RMIService remote;
 
     try {
       remote = (RMIService) Naming.lookup("//" + adrs + "/RMIImpl");
@@ -200,9 +267,15 @@ public class RMIUnderlay extends Underlay {
       System.err.println("[JavaRMIUnderlay] Could not connect to the remote RMI server!");
       return null;
     }
+    stubCache.put(adrs, remote);
     return remote;
   }
 
+  /** @return the cache of resolved remote stubs, e.g. to read its hit/miss counters */
+  public RMIStubCache getStubCache() {
+    return stubCache;
+  }
+
   /** This method initializes all the RMI system properties required for proper functionality */
   protected void initRMI() {
     try {
@@ -218,6 +291,8 @@ public class RMIUnderlay extends Underlay {
 
   /** Terminates the Java RMI underlay service. */
   public boolean terminate() {
+    stubCache.clear();
+    asyncCalls.shutdownNow();
     try {
       Naming.unbind("//" + address + "/RMIImpl");
     } catch (Exception e) {
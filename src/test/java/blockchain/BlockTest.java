@@ -0,0 +1,63 @@
+package blockchain;
+
+import hashing.HashingTools;
+import hashing.MerkleProof;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Merkle root of a block and the inclusion proofs of its
+ * transactions.
+ */
+class BlockTest {
+
+	private static final int LEVELS = 30;
+
+	private List<Transaction> transactions(int n, String prev) {
+		List<Transaction> tList = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+			tList.add(new Transaction(prev, i, "content" + i, "127.0.0.1:700" + i, LEVELS));
+		return tList;
+	}
+
+	/**
+	 * Every transaction of a block is proven to be in it against the Merkle root
+	 * alone, and a transaction that is not in it gets no proof.
+	 */
+	@Test
+	void testInclusionProofs() {
+		List<Transaction> tList = transactions(7, "000");
+		Block blk = new Block("000", 1, "127.0.0.1:7000", tList, 1, LEVELS);
+		for (Transaction t : tList) {
+			MerkleProof proof = blk.getInclusionProof(t);
+			assertNotNull(proof);
+			assertTrue(Block.verifyInclusion(t, proof, blk.getMerkleRoot()));
+		}
+
+		Transaction other = new Transaction("000", 9, "other", "127.0.0.1:7009", LEVELS);
+		assertNull(blk.getInclusionProof(other));
+		MerkleProof proof = blk.getInclusionProof(tList.get(3));
+		assertFalse(Block.verifyInclusion(other, proof, blk.getMerkleRoot()));
+		assertFalse(Block.verifyInclusion(tList.get(3), null, blk.getMerkleRoot()));
+	}
+
+	/**
+	 * The hash of a block commits to its transactions through the Merkle root.
+	 */
+	@Test
+	void testHashCommitsToRoot() {
+		HashingTools hasher = new HashingTools();
+		List<Transaction> tList = transactions(5, "000");
+		Block blk = new Block("000", 1, "127.0.0.1:7000", tList, 1, LEVELS);
+		assertArrayEquals(Block.merkleRoot(hasher, tList), blk.getMerkleRoot());
+		assertEquals(blk.getHash(), Block.hash(hasher, "000", 1, blk.getMerkleRoot(), LEVELS));
+
+		List<Transaction> changed = new ArrayList<>(tList);
+		changed.set(2, new Transaction("000", 2, "changed", "127.0.0.1:7002", LEVELS));
+		assertNotEquals(blk.getHash(), new Block("000", 1, "127.0.0.1:7000", changed, 1, LEVELS).getHash());
+	}
+}
@@ -0,0 +1,76 @@
+package blockchain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the Mempool, covering deduplication, selection by the block the
+ * transactions point to, and the removal of included and evicted transactions.
+ */
+class MempoolTest {
+
+	private static final int LEVELS = 30;
+	private final Block tip = new Block("000", 1, "127.0.0.1:7000", 0, LEVELS);
+
+	private Transaction transaction(String prev, int owner) {
+		return new Transaction(prev, owner, "content" + owner, "127.0.0.1:7001", LEVELS);
+	}
+
+	/**
+	 * A transaction is only kept once, and only transactions pointing to the given
+	 * block are selected, the oldest ones first.
+	 */
+	@Test
+	void testSelect() {
+		Mempool mempool = new Mempool(16);
+		Transaction a = transaction(tip.getHash(), 1);
+		Transaction b = transaction(tip.getHash(), 2);
+		Transaction c = transaction(tip.getHash(), 3);
+		Transaction stale = transaction("000", 4);
+		assertTrue(mempool.add(a));
+		assertTrue(mempool.add(b));
+		assertTrue(mempool.add(stale));
+		assertFalse(mempool.add(a));
+		assertTrue(mempool.add(c));
+
+		assertEquals(Arrays.asList(a, b, c), mempool.select(tip.getHash(), 5));
+		assertEquals(Arrays.asList(a, b), mempool.select(tip.getHash(), 2));
+		assertTrue(mempool.select("111", 5).isEmpty());
+
+		assertEquals(4, mempool.size());
+		assertEquals(4, mempool.getAdded());
+		assertEquals(1, mempool.getDuplicates());
+	}
+
+	/**
+	 * The transactions of a block leave the pool, and the oldest transactions are
+	 * evicted once the pool is full.
+	 */
+	@Test
+	void testRemoval() {
+		Mempool mempool = new Mempool(3);
+		Transaction a = transaction(tip.getHash(), 1);
+		Transaction b = transaction(tip.getHash(), 2);
+		Transaction c = transaction(tip.getHash(), 3);
+		Transaction d = transaction(tip.getHash(), 4);
+		mempool.add(a);
+		mempool.add(b);
+		mempool.add(c);
+		mempool.add(d);
+		assertFalse(mempool.contains(a));
+		assertEquals(1, mempool.getDropped());
+
+		List<Transaction> tList = Arrays.asList(b, c);
+		mempool.removeIncluded(new Block(tip.getHash(), 2, "127.0.0.1:7002", tList, 1, LEVELS));
+		assertEquals(Arrays.asList(d), mempool.select(tip.getHash(), 5));
+		assertEquals(2, mempool.getIncluded());
+
+		mempool.removeIncluded(new Block(tip.getHash(), 2, "127.0.0.1:7002", Arrays.asList(d), 1, LEVELS));
+		assertEquals(0, mempool.size());
+		assertTrue(mempool.select(tip.getHash(), 5).isEmpty());
+	}
+}
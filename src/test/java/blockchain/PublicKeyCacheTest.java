@@ -0,0 +1,110 @@
+package blockchain;
+
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the PublicKeyCache, covering hits, failed fetches, eviction and the
+ * sharing of concurrent fetches.
+ */
+class PublicKeyCacheTest {
+
+	private final PublicKey key;
+
+	PublicKeyCacheTest() throws NoSuchAlgorithmException {
+		KeyPairGenerator gen = KeyPairGenerator.getInstance("RSA");
+		gen.initialize(1024);
+		key = gen.generateKeyPair().getPublic();
+	}
+
+	/**
+	 * A fetched key is served from the cache afterwards, while a failed fetch is retried.
+	 */
+	@Test
+	void testHitAndFailedFetch() {
+		PublicKeyCache cache = new PublicKeyCache(4);
+		AtomicInteger fetches = new AtomicInteger();
+
+		assertNull(cache.get(1, num -> {
+			fetches.incrementAndGet();
+			return null;
+		}));
+		assertSame(key, cache.get(1, num -> {
+			fetches.incrementAndGet();
+			return key;
+		}));
+		assertSame(key, cache.get(1, num -> {
+			fetches.incrementAndGet();
+			return key;
+		}));
+
+		assertEquals(2, fetches.get());
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	/**
+	 * When the capacity is exceeded, the least recently used key is evicted.
+	 */
+	@Test
+	void testEviction() {
+		PublicKeyCache cache = new PublicKeyCache(2);
+		cache.put(1, key);
+		cache.put(2, key);
+		// touching the first numID makes the second one the least recently used
+		cache.get(1, num -> null);
+		cache.put(3, key);
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get(2, num -> null));
+		assertSame(key, cache.get(3, num -> null));
+	}
+
+	/**
+	 * Concurrent lookups of a key that is not cached share a single fetch.
+	 */
+	@Test
+	void testSingleFlight() throws InterruptedException {
+		PublicKeyCache cache = new PublicKeyCache(4);
+		AtomicInteger fetches = new AtomicInteger();
+		CountDownLatch fetching = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		int threads = 8;
+		CountDownLatch done = new CountDownLatch(threads);
+		AtomicInteger found = new AtomicInteger();
+
+		for (int i = 0; i < threads; i++) {
+			new Thread(() -> {
+				PublicKey result = cache.get(7, num -> {
+					fetches.incrementAndGet();
+					fetching.countDown();
+					try {
+						release.await();
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					}
+					return key;
+				});
+				if (result == key)
+					found.incrementAndGet();
+				done.countDown();
+			}).start();
+		}
+		assertTrue(fetching.await(5, TimeUnit.SECONDS));
+		// give the other threads time to join the fetch in flight
+		Thread.sleep(100);
+		release.countDown();
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+
+		assertEquals(1, fetches.get());
+		assertEquals(threads, found.get());
+	}
+}
@@ -0,0 +1,41 @@
+package blockchain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SignedBlockCache, covering lookups and eviction.
+ */
+class SignedBlockCacheTest {
+
+	/**
+	 * Only the hashes that were put are contained, and putting one twice keeps a
+	 * single entry.
+	 */
+	@Test
+	void testContains() {
+		SignedBlockCache cache = new SignedBlockCache(4);
+		assertFalse(cache.contains("a"));
+		cache.put("a");
+		cache.put("a");
+		assertTrue(cache.contains("a"));
+		assertFalse(cache.contains("b"));
+		assertEquals(1, cache.size());
+	}
+
+	/**
+	 * When the capacity is exceeded, the oldest hash is evicted.
+	 */
+	@Test
+	void testEviction() {
+		SignedBlockCache cache = new SignedBlockCache(2);
+		cache.put("a");
+		cache.put("b");
+		cache.put("c");
+		assertFalse(cache.contains("a"));
+		assertTrue(cache.contains("b"));
+		assertTrue(cache.contains("c"));
+		assertEquals(2, cache.size());
+	}
+}
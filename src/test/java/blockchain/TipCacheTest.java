@@ -0,0 +1,67 @@
+package blockchain;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TipCache, covering expiry, invalidation and the versioning of
+ * lookups and pushed blocks.
+ */
+class TipCacheTest {
+
+	private final Block genesis = new Block("000", 1, "127.0.0.1:7000", 0, 3);
+	private final Block next = new Block(genesis.getHash(), 2, "127.0.0.1:7001", 1, 3);
+
+	/**
+	 * A looked up tip is served until it expires.
+	 */
+	@Test
+	void testExpiry() throws InterruptedException {
+		TipCache cache = new TipCache(20);
+		assertNull(cache.get());
+		assertTrue(cache.put(genesis, cache.getVersion()));
+		assertSame(genesis, cache.get());
+		Thread.sleep(50);
+		assertNull(cache.get());
+
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+	}
+
+	/**
+	 * The result of a lookup that started before the cache was changed is not cached.
+	 */
+	@Test
+	void testStaleLookup() {
+		TipCache cache = new TipCache(60_000);
+		long version = cache.getVersion();
+		cache.invalidate();
+		assertFalse(cache.put(genesis, version));
+		assertNull(cache.get());
+
+		version = cache.getVersion();
+		assertTrue(cache.offer(next));
+		assertFalse(cache.put(genesis, version));
+		assertSame(next, cache.get());
+	}
+
+	/**
+	 * Pushed blocks replace the tip only if they are newer than any block seen so far,
+	 * and an invalidation drops the tip.
+	 */
+	@Test
+	void testOfferAndInvalidate() {
+		TipCache cache = new TipCache(60_000);
+		assertTrue(cache.offer(genesis));
+		assertTrue(cache.offer(next));
+		assertFalse(cache.offer(genesis));
+		assertSame(next, cache.get());
+		assertEquals(2, cache.getPushes());
+
+		cache.invalidate();
+		assertNull(cache.get());
+		assertFalse(cache.offer(next));
+		assertEquals(1, cache.getInvalidations());
+	}
+}
@@ -0,0 +1,81 @@
+package blockchain;
+
+import org.junit.jupiter.api.Test;
+import signature.SignedBytes;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ValidatedTransactionCache, covering hits, tampered transactions
+ * and eviction.
+ */
+class ValidatedTransactionCacheTest {
+
+	private static final int LEVELS = 8;
+
+	private final SignedBytes signature = new SignedBytes(new byte[] {1, 2, 3});
+
+	private Transaction signed(String prev, int owner, String cont, SignedBytes sig) {
+		Transaction t = new Transaction(prev, owner, cont, "127.0.0.1:7000", LEVELS);
+		t.addSignature(sig);
+		return t;
+	}
+
+	/**
+	 * A transaction that was authenticated is taken from the cache when it is seen
+	 * again, e.g. inside a block.
+	 */
+	@Test
+	void testHit() {
+		ValidatedTransactionCache cache = new ValidatedTransactionCache(4);
+		Transaction t = signed("00000000", 3, "content", signature);
+		assertFalse(cache.isAuthenticated(t));
+		cache.put(t, signature);
+
+		Transaction copy = signed("00000000", 3, "content", new SignedBytes(new byte[] {1, 2, 3}));
+		assertTrue(cache.isAuthenticated(copy));
+		assertEquals(1, cache.getHits());
+		assertEquals(1, cache.getMisses());
+	}
+
+	/**
+	 * A transaction with the hash of an authenticated one is not taken from the cache
+	 * if its contents differ or it lacks the verified signature.
+	 */
+	@Test
+	void testTampered() {
+		ValidatedTransactionCache cache = new ValidatedTransactionCache(4);
+		Transaction t = signed("00000000", 3, "content", signature);
+		cache.put(t, signature);
+
+		Transaction unsigned = new Transaction("00000000", 3, "content", "127.0.0.1:7000", LEVELS);
+		assertFalse(cache.isAuthenticated(unsigned));
+		Transaction otherSignature = signed("00000000", 3, "content", new SignedBytes(new byte[] {9}));
+		assertFalse(cache.isAuthenticated(otherSignature));
+		Transaction forged = new Transaction("00000000", 3, "forged", t.getHash(), "127.0.0.1:7000",
+				t.getNumID(), t.getNameID(), LEVELS, t.getSigma());
+		assertFalse(cache.isAuthenticated(forged));
+		assertEquals(0, cache.getHits());
+	}
+
+	/**
+	 * When the capacity is exceeded, the least recently used transaction is evicted.
+	 */
+	@Test
+	void testEviction() {
+		ValidatedTransactionCache cache = new ValidatedTransactionCache(2);
+		Transaction t1 = signed("00000000", 1, "a", signature);
+		Transaction t2 = signed("00000000", 2, "b", signature);
+		Transaction t3 = signed("00000000", 3, "c", signature);
+		cache.put(t1, signature);
+		cache.put(t2, signature);
+		// touching the first transaction makes the second one the least recently used
+		assertTrue(cache.isAuthenticated(t1));
+		cache.put(t3, signature);
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.isAuthenticated(t1));
+		assertFalse(cache.isAuthenticated(t2));
+		assertTrue(cache.isAuthenticated(t3));
+	}
+}
@@ -0,0 +1,98 @@
+package blockchain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the incremental maintenance of the View, covering the tails and
+ * transactions that are applied and the version of the view.
+ */
+class ViewTest {
+
+	private static final int LEVELS = 30;
+
+	private final Block genesis = new Block("000", 1, "127.0.0.1:7000", 0, LEVELS);
+	private final Block next = new Block(genesis.getHash(), 2, "127.0.0.1:7001", 1, LEVELS);
+
+	private Transaction transaction(Block prev, int owner) {
+		return new Transaction(prev.getHash(), owner, "content" + owner, "127.0.0.1:7002", LEVELS);
+	}
+
+	/**
+	 * A tail is applied once, tails older than the applied one are ignored, and
+	 * the owners of the transactions pointing at the tail have it as their latest
+	 * block.
+	 */
+	@Test
+	void testApplyBlock() {
+		View view = new View();
+		assertEquals(-1, view.getAppliedIndex());
+		assertFalse(view.isApplied(genesis));
+
+		assertTrue(view.applyBlock(genesis, Arrays.asList(transaction(genesis, 5))));
+		assertTrue(view.isApplied(genesis));
+		assertFalse(view.applyBlock(genesis, Collections.<Transaction>emptyList()));
+		assertEquals(genesis.getNumID(), view.getLastBlk(5));
+		assertEquals(1, view.getVersion());
+
+		assertTrue(view.applyBlock(next, Arrays.asList(transaction(next, 6))));
+		assertEquals(1, view.getAppliedIndex());
+		assertEquals(next.getNumID(), view.getLastBlk(6));
+		assertEquals(genesis.getNumID(), view.getLastBlk(5));
+
+		assertTrue(view.isApplied(genesis));
+		assertFalse(view.applyBlock(genesis, Arrays.asList(transaction(genesis, 6))));
+		assertEquals(next.getNumID(), view.getLastBlk(6));
+		assertEquals(2, view.getVersion());
+	}
+
+	/**
+	 * A transaction pointing at the applied tail that turns up after the tail was
+	 * first applied is reflected when the tail is applied again, while applying
+	 * the same transactions again leaves the view as it is.
+	 */
+	@Test
+	void testLateTransaction() {
+		View view = new View();
+		Transaction first = transaction(next, 5);
+		Transaction late = transaction(next, 6);
+		assertTrue(view.applyBlock(next, Arrays.asList(first)));
+		long version = view.getVersion();
+		assertFalse(view.hasLastBlkEntry(6));
+
+		assertTrue(view.applyBlock(next, Arrays.asList(first, late)));
+		assertEquals(next.getNumID(), view.getLastBlk(6));
+		assertEquals(version + 1, view.getVersion());
+
+		assertFalse(view.applyBlock(next, Arrays.asList(first, late)));
+		assertEquals(version + 1, view.getVersion());
+	}
+
+	/**
+	 * Only transactions pointing at the applied tail change the view, and
+	 * applying one twice does not change its version.
+	 */
+	@Test
+	void testApplyTransaction() {
+		View view = new View();
+		Transaction t = transaction(next, 7);
+		assertFalse(view.applyTransaction(t));
+
+		view.applyBlock(next, Collections.<Transaction>emptyList());
+		long version = view.getVersion();
+		assertFalse(view.applyTransaction(transaction(genesis, 7)));
+		assertFalse(view.hasLastBlkEntry(7));
+		assertTrue(view.applyTransaction(t));
+		assertEquals(next.getNumID(), view.getLastBlk(7));
+		assertFalse(view.applyTransaction(t));
+		assertEquals(version + 1, view.getVersion());
+
+		// plain updates do not count as a new version
+		view.updateBalance(7, 10);
+		assertEquals(version + 1, view.getVersion());
+	}
+}
@@ -0,0 +1,65 @@
+package hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Microbenchmark of HashingTools against the implementation it replaced, which
+ * looked up a new digest on every call and converted every byte with
+ * String.format. The inputs are shaped like the hashes of transactions and the
+ * validator candidates of getValidators. Run it with the main method; it is not
+ * part of the tests.
+ */
+public class HashingBenchmark {
+
+    private static final int LEVELS = 30;
+    private static final int ITERATIONS = 200_000;
+    private static final String PREV = "010110100111010110100101101001";
+
+    // a sink for the results, so the JIT can not drop the hashing
+    private static long sink;
+
+    public static void main(String[] args) throws NoSuchAlgorithmException {
+        HashingTools hasher = new HashingTools();
+        for (int round = 0; round < 3; round++) {
+            // the first rounds warm up
+            boolean print = round == 2;
+            long start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                sink += Integer.parseInt(legacyHash(PREV + 17 + "content" + i, LEVELS), 2);
+            report(print, "legacy getHash + parseInt", start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                sink += hasher.getHash(PREV + 17 + "content" + i, LEVELS).length();
+            report(print, "getHash", start);
+
+            start = System.nanoTime();
+            for (int i = 0; i < ITERATIONS; i++)
+                sink += hasher.getHashInt(PREV + 17 + "content" + i, LEVELS);
+            report(print, "getHashInt", start);
+        }
+        if (sink == 42)
+            System.out.println();
+    }
+
+    private static void report(boolean print, String name, long start) {
+        if (print) {
+            double ns = (double) (System.nanoTime() - start) / ITERATIONS;
+            System.out.printf("%s: %.0f ns per hash%n", name, ns);
+        }
+    }
+
+    // the implementation HashingTools used before
+    private static String legacyHash(String input, int neededSize) throws NoSuchAlgorithmException {
+        MessageDigest dig = MessageDigest.getInstance("SHA-256");
+        byte[] hash = dig.digest(input.getBytes(StandardCharsets.UTF_8));
+        StringBuffer binString = new StringBuffer();
+        for (int i = 0; i < hash.length; i++) {
+            String bin = String.format("%8s", Integer.toBinaryString(((1 << 8) - 1) & hash[i])).replace(" ", "0");
+            binString.append(bin);
+        }
+        return binString.toString().substring(0, neededSize);
+    }
+}
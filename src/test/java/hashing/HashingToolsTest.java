@@ -0,0 +1,97 @@
+package hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that HashingTools gives the same hashes as a plain SHA-256 digest converted
+ * bit by bit, for Strings, byte arrays and the numeric forms.
+ */
+class HashingToolsTest {
+
+	private final HashingTools hasher = new HashingTools();
+
+	private static String reference(byte[] input) throws NoSuchAlgorithmException {
+		byte[] hash = MessageDigest.getInstance("SHA-256").digest(input);
+		StringBuilder sb = new StringBuilder();
+		for (byte b : hash)
+			sb.append(String.format("%8s", Integer.toBinaryString(b & 0xff)).replace(' ', '0'));
+		return sb.toString();
+	}
+
+	/**
+	 * The binary hash of every length matches the reference, including for Strings
+	 * that are not ASCII and Strings longer than the reused buffer.
+	 */
+	@Test
+	void testGetHash() throws NoSuchAlgorithmException {
+		Random rnd = new Random(1);
+		String[] inputs = {"", "0110", "prev" + 42 + "content", "n\u00e4me\u20ac", new String(new char[1000]).replace('\0', 'x')};
+		for (String input : inputs) {
+			String expected = reference(input.getBytes(StandardCharsets.UTF_8));
+			assertEquals(expected, hasher.getHash(input));
+			for (int size = 0; size <= 256; size += 7)
+				assertEquals(expected.substring(0, size), hasher.getHash(input, size));
+		}
+		for (int i = 0; i < 20; i++) {
+			byte[] input = new byte[rnd.nextInt(600)];
+			rnd.nextBytes(input);
+			String expected = reference(input);
+			assertEquals(expected, hasher.getHash(input));
+			assertEquals(expected.substring(0, 30), hasher.getHash(input, 30));
+		}
+	}
+
+	/**
+	 * The numeric hashes equal the parsed binary hashes.
+	 */
+	@Test
+	void testGetHashNumeric() {
+		Random rnd = new Random(2);
+		for (int i = 0; i < 50; i++) {
+			String input = "block" + rnd.nextInt();
+			byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+			for (int size = 0; size <= 31; size++) {
+				int expected = size == 0 ? 0 : Integer.parseInt(hasher.getHash(input, size), 2);
+				assertEquals(expected, hasher.getHashInt(input, size));
+				assertEquals(expected, hasher.getHashInt(bytes, size));
+			}
+			assertEquals(Long.parseLong(hasher.getHash(bytes, 63), 2), hasher.getHashLong(bytes, 63));
+		}
+		assertThrows(IllegalArgumentException.class, () -> hasher.getHashInt("x", 32));
+	}
+
+	/**
+	 * A hash fed field by field equals the hash of the concatenated fields, for fields
+	 * longer than the buffer of the stream, negative numbers and Strings that are not
+	 * ASCII.
+	 */
+	@Test
+	void testStreamMatchesConcatenation() {
+		String longField = new String(new char[700]).replace('\0', '1');
+		Object[][] fieldLists = {
+				{},
+				{"0110", 42},
+				{longField, -17, "content", Integer.MIN_VALUE, Integer.MAX_VALUE, 0},
+				{"n\u00e4me", 7, "\u20ac" + longField, "tail"},
+		};
+		for (Object[] fields : fieldLists) {
+			HashStream stream = hasher.newStream();
+			StringBuilder sb = new StringBuilder();
+			for (Object field : fields) {
+				if (field instanceof Integer)
+					stream.add((Integer) field);
+				else
+					stream.add((String) field);
+				sb.append(field);
+			}
+			assertEquals(hasher.getHash(sb.toString(), 30), stream.getHash(30));
+		}
+	}
+}
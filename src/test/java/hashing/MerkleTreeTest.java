@@ -0,0 +1,86 @@
+package hashing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MerkleTree and MerkleProof, covering trees of every shape up to a
+ * few levels and proofs that were tampered with.
+ */
+class MerkleTreeTest {
+
+	private final HashingTools hasher = new HashingTools();
+
+	private List<byte[]> leaves(int n) {
+		List<byte[]> leaves = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+			leaves.add(hasher.newStream().add("leaf").add(i).digest());
+		return leaves;
+	}
+
+	/**
+	 * Every leaf of trees of even and odd sizes has a proof of at most log(n)
+	 * hashes that verifies against the root.
+	 */
+	@Test
+	void testProofs() {
+		for (int n = 1; n <= 33; n++) {
+			List<byte[]> leaves = leaves(n);
+			MerkleTree tree = new MerkleTree(hasher, leaves);
+			assertArrayEquals(tree.getRoot(), MerkleTree.root(hasher, leaves));
+			int depth = 32 - Integer.numberOfLeadingZeros(n - 1);
+			for (int i = 0; i < n; i++) {
+				MerkleProof proof = tree.getProof(i);
+				assertTrue(proof.getSiblings().size() <= depth);
+				assertTrue(proof.verify(hasher, leaves.get(i), tree.getRoot()), n + " leaves, leaf " + i);
+			}
+		}
+	}
+
+	/**
+	 * A proof does not verify for another leaf, another position, another root or
+	 * with a sibling changed.
+	 */
+	@Test
+	void testTamperedProofs() {
+		List<byte[]> leaves = leaves(11);
+		MerkleTree tree = new MerkleTree(hasher, leaves);
+		byte[] root = tree.getRoot();
+		MerkleProof proof = tree.getProof(6);
+
+		assertFalse(proof.verify(hasher, leaves.get(7), root));
+		MerkleProof moved = new MerkleProof(7, proof.getSize(), proof.getSiblings());
+		assertFalse(moved.verify(hasher, leaves.get(6), root));
+		assertFalse(proof.verify(hasher, leaves.get(6), MerkleTree.root(hasher, leaves(10))));
+
+		List<byte[]> siblings = new ArrayList<>(proof.getSiblings());
+		byte[] changed = siblings.get(1).clone();
+		changed[0] ^= 1;
+		siblings.set(1, changed);
+		assertFalse(new MerkleProof(6, proof.getSize(), siblings).verify(hasher, leaves.get(6), root));
+		siblings.remove(1);
+		assertFalse(new MerkleProof(6, proof.getSize(), siblings).verify(hasher, leaves.get(6), root));
+	}
+
+	/**
+	 * The root depends on the order of the leaves, and a tree without leaves has
+	 * the hash of no input as its root.
+	 */
+	@Test
+	void testRoot() {
+		List<byte[]> leaves = leaves(4);
+		byte[] root = MerkleTree.root(hasher, leaves);
+		List<byte[]> swapped = new ArrayList<>(leaves);
+		swapped.set(0, leaves.get(1));
+		swapped.set(1, leaves.get(0));
+		assertFalse(Arrays.equals(root, MerkleTree.root(hasher, swapped)));
+
+		assertArrayEquals(hasher.newStream().digest(), MerkleTree.root(hasher, new ArrayList<>()));
+		assertThrows(IllegalArgumentException.class, () -> new MerkleTree(hasher, leaves).getProof(4));
+	}
+}
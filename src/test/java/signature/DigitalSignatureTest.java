@@ -0,0 +1,44 @@
+package signature;
+
+import hashing.HashingTools;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests that every signature scheme signs and verifies, and that a numID can be
+ * derived from its public keys the way LightChainNode derives it.
+ */
+class DigitalSignatureTest {
+
+	/**
+	 * A signature verifies with the signer's key, but not with another key or for
+	 * other data.
+	 */
+	@Test
+	void testSignAndVerify() {
+		for (SignatureScheme scheme : SignatureScheme.values()) {
+			DigitalSignature signer = new DigitalSignature(scheme);
+			DigitalSignature other = new DigitalSignature(scheme);
+			SignedBytes signed = signer.signString("0110");
+
+			assertTrue(signer.verifyString("0110", signed, signer.getPublicKey()), scheme.toString());
+			assertFalse(signer.verifyString("0111", signed, signer.getPublicKey()), scheme.toString());
+			assertFalse(signer.verifyString("0110", signed, other.getPublicKey()), scheme.toString());
+		}
+	}
+
+	/**
+	 * The public key of every scheme hashes into a numID.
+	 */
+	@Test
+	void testNumIDFromPublicKey() {
+		HashingTools hasher = new HashingTools();
+		for (SignatureScheme scheme : SignatureScheme.values()) {
+			DigitalSignature signature = new DigitalSignature(scheme);
+			String name = hasher.getHash(signature.getPublicKey().getEncoded(), 20);
+			assertEquals(20, name.length(), scheme.toString());
+			assertTrue(Integer.parseInt(name, 2) >= 0, scheme.toString());
+		}
+	}
+}
@@ -0,0 +1,79 @@
+package signature;
+
+import java.security.KeyPair;
+import java.security.Signature;
+import java.util.Random;
+
+/**
+ * Compares the signature schemes a DigitalSignature can use: the throughput of key
+ * generation, signing and verification, and the size of signatures and encoded
+ * public keys. The signed messages are as long as the hash strings that nodes sign.
+ * Run it with the main method; it is not part of the tests.
+ */
+public class SignatureSchemeBenchmark {
+
+	private static final int KEYS = 50;
+	private static final int MESSAGES = 2_000;
+	private static final int MESSAGE_LENGTH = 256;
+
+	public static void main(String[] args) throws Exception {
+		byte[][] messages = new byte[MESSAGES][MESSAGE_LENGTH];
+		Random rnd = new Random(42);
+		for (byte[] message : messages) {
+			for (int i = 0; i < MESSAGE_LENGTH; i++)
+				message[i] = (byte) (rnd.nextBoolean() ? '1' : '0');
+		}
+		for (int round = 0; round < 2; round++) {
+			// the first round warms up
+			for (SignatureScheme scheme : SignatureScheme.values())
+				run(scheme, messages, round == 1);
+		}
+	}
+
+	private static void run(SignatureScheme scheme, byte[][] messages, boolean print) throws Exception {
+		KeyPair keyPair;
+		long start = System.nanoTime();
+		try {
+			keyPair = scheme.generateKeyPair();
+			for (int i = 1; i < KEYS; i++)
+				scheme.generateKeyPair();
+		} catch (IllegalStateException e) {
+			if (print)
+				System.out.println(scheme + ": not supported by this JVM");
+			return;
+		}
+		long keygen = System.nanoTime() - start;
+
+		Signature signer = Signature.getInstance(scheme.getSignatureAlgorithm());
+		byte[][] signatures = new byte[messages.length][];
+		start = System.nanoTime();
+		for (int i = 0; i < messages.length; i++) {
+			signer.initSign(keyPair.getPrivate());
+			signer.update(messages[i]);
+			signatures[i] = signer.sign();
+		}
+		long sign = System.nanoTime() - start;
+
+		Signature verifier = Signature.getInstance(scheme.getSignatureAlgorithm());
+		int verified = 0;
+		start = System.nanoTime();
+		for (int i = 0; i < messages.length; i++) {
+			verifier.initVerify(keyPair.getPublic());
+			verifier.update(messages[i]);
+			if (verifier.verify(signatures[i]))
+				verified++;
+		}
+		long verify = System.nanoTime() - start;
+		if (verified != messages.length)
+			throw new IllegalStateException(scheme + ": " + (messages.length - verified) + " signatures did not verify");
+
+		long signatureBytes = 0;
+		for (byte[] signature : signatures)
+			signatureBytes += signature.length;
+		if (print) {
+			System.out.printf("%s: %.0f keygen/s, %.0f sign/s, %.0f verify/s, %.1f bytes per signature, %d bytes per public key%n",
+					scheme, KEYS / (keygen / 1e9), messages.length / (sign / 1e9), messages.length / (verify / 1e9),
+					(double) signatureBytes / messages.length, keyPair.getPublic().getEncoded().length);
+		}
+	}
+}
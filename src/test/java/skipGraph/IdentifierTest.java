@@ -0,0 +1,55 @@
+package skipGraph;
+
+import org.junit.jupiter.api.Test;
+import util.Util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdentifierTest {
+
+    // packing a nameID keeps its bits, and converts back to the same String
+    @Test
+    void testValueOf() {
+        Identifier id = Identifier.valueOf("1011");
+        assertTrue(id.isPacked());
+        assertEquals(4, id.length());
+        assertEquals(1, id.bit(0));
+        assertEquals(0, id.bit(1));
+        assertEquals("1011", id.toString());
+        assertEquals(id, Identifier.of(0b1011L << 60, 4));
+        assertEquals("", Identifier.valueOf("").toString());
+        assertNull(Identifier.valueOf(null));
+
+        // identifiers that cannot be packed keep their String
+        assertFalse(Identifier.valueOf("12").isPacked());
+        assertEquals("12", Identifier.valueOf("12").toString());
+    }
+
+    // common bits agree with comparing the Strings
+    @Test
+    void testCommonBits() {
+        Random rnd = new Random(3);
+        for (int length : new int[]{1, 8, 30, 63, 64, 70}) {
+            for (int i = 0; i < 200; i++) {
+                String a = randomName(rnd, length);
+                // b shares a random prefix with a
+                String b = a.substring(0, rnd.nextInt(length + 1)) + randomName(rnd, length);
+                b = b.substring(0, length);
+                assertEquals(Util.commonBits(a, b), Identifier.commonBits(Identifier.valueOf(a), Identifier.valueOf(b)),
+                        a + " " + b);
+            }
+        }
+        assertEquals(-1, Identifier.commonBits(Identifier.valueOf("01"), Identifier.valueOf("011")));
+        assertEquals(-1, Identifier.commonBits(Identifier.valueOf("01"), null));
+        assertEquals(1, Identifier.commonBits(Identifier.valueOf("12"), Identifier.valueOf("13")));
+    }
+
+    private static String randomName(Random rnd, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append(rnd.nextBoolean() ? '1' : '0');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package skipGraph;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LocationCache, covering hits and misses, LRU and TTL eviction
+ * and invalidation.
+ */
+public class LocationCacheTest {
+
+    private final NodeInfo node1 = new NodeInfo("10.0.0.1:7000", 1, "001");
+    private final NodeInfo node2 = new NodeInfo("10.0.0.2:7000", 2, "010");
+    private final NodeInfo node3 = new NodeInfo("10.0.0.3:7000", 3, "011");
+
+    /**
+     * A confirmed node counts as a hit and saves the hops of its search apart from
+     * the confirmation, while unknown and rejected numIDs count as misses.
+     */
+    @Test
+    void testHitAndMiss() {
+        LocationCache cache = new LocationCache(4, 60_000);
+        assertNull(cache.get(1));
+        cache.put(node1, 5);
+        assertEquals(node1, cache.get(1));
+        cache.hit(1, 1);
+
+        assertEquals(node1, cache.get(1));
+        cache.reject(1);
+        assertNull(cache.get(1));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+        assertEquals(1, cache.getInvalidations());
+        assertEquals(4, cache.getSavedHops());
+        assertEquals(0.25, cache.getHitRatio());
+    }
+
+    /**
+     * When the capacity is exceeded, the least recently used node is evicted.
+     */
+    @Test
+    void testLruEviction() {
+        LocationCache cache = new LocationCache(2, 60_000);
+        cache.put(node1, 2);
+        cache.put(node2, 2);
+        // touching the first numID makes the second one the least recently used
+        cache.get(1);
+        cache.put(node3, 2);
+
+        assertEquals(2, cache.size());
+        assertEquals(node1, cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals(node3, cache.get(3));
+    }
+
+    /**
+     * A node that was resolved longer ago than the TTL is no longer served.
+     */
+    @Test
+    void testTtlExpiry() throws InterruptedException {
+        LocationCache cache = new LocationCache(4, 20);
+        cache.put(node1, 2);
+        Thread.sleep(50);
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * A node is only dropped as moved if it is cached at another address.
+     */
+    @Test
+    void testInvalidateIfMoved() {
+        LocationCache cache = new LocationCache(4, 60_000);
+        cache.put(node1, 2);
+        cache.invalidateIfMoved(new NodeInfo("10.0.0.1:7000", 1, "001"));
+        assertEquals(node1, cache.get(1));
+
+        cache.invalidateIfMoved(new NodeInfo("10.0.0.9:7000", 1, "001"));
+        assertNull(cache.get(1));
+        assertEquals(1, cache.getInvalidations());
+    }
+}
@@ -0,0 +1,77 @@
+package skipGraph;
+
+import java.util.Random;
+
+/**
+ * Microbenchmark of LookupTable.getBestNum and getBestName on a peer that hosts
+ * a large number of data nodes, compared with the linear scan over the data
+ * nodes getBestNum used to do.
+ * Run it with the main method; it is not part of the tests.
+ */
+public class LookupTableBenchmark {
+
+    private static final int DATA_NODES = 1_000_000;
+    private static final int QUERIES = 1_000_000;
+    private static final int SCAN_QUERIES = 200;
+
+    public static void main(String[] args) {
+        Random rnd = new Random(1);
+        LookupTable table = new LookupTable(30);
+        int[] nums = new int[DATA_NODES];
+        String[] names = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++)
+            names[i] = randomName(rnd);
+        long start = System.nanoTime();
+        for (int i = 0; i < DATA_NODES; i++) {
+            nums[i] = rnd.nextInt(Integer.MAX_VALUE);
+            table.addNode(new NodeInfo("127.0.0.1:7000", nums[i], randomName(rnd)));
+        }
+        System.out.printf("addNode: %.1f ns/op%n", (System.nanoTime() - start) / (double) DATA_NODES);
+
+        long sink = 0;
+        // warm up
+        for (int i = 0; i < QUERIES; i++)
+            sink += table.getBestNum(rnd.nextInt(Integer.MAX_VALUE));
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++)
+            sink += table.getBestNum(rnd.nextInt(Integer.MAX_VALUE));
+        System.out.printf("getBestNum (index): %.1f ns/op%n", (System.nanoTime() - start) / (double) QUERIES);
+
+        for (int i = 0; i < QUERIES; i++)
+            sink += table.getBestName(names[i], i & 1);
+        start = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++)
+            sink += table.getBestName(names[i], i & 1);
+        System.out.printf("getBestName (trie): %.1f ns/op%n", (System.nanoTime() - start) / (double) QUERIES);
+
+        start = System.nanoTime();
+        for (int i = 0; i < SCAN_QUERIES; i++)
+            sink += scan(nums, rnd.nextInt(Integer.MAX_VALUE));
+        System.out.printf("getBestNum (scan): %.1f ns/op%n", (System.nanoTime() - start) / (double) SCAN_QUERIES);
+
+        start = System.nanoTime();
+        for (int i = 0; i < DATA_NODES / 2; i++)
+            table.remove(nums[i]);
+        System.out.printf("remove: %.1f ns/op%n", (System.nanoTime() - start) / (double) (DATA_NODES / 2));
+        System.out.println(sink == 42 ? "" : "done");
+    }
+
+    private static String randomName(Random rnd) {
+        String bits = Integer.toBinaryString(rnd.nextInt(1 << 30) | (1 << 30));
+        return bits.substring(1);
+    }
+
+    // the linear scan that getBestNum used to do over the data nodes
+    private static int scan(int[] nums, int numID) {
+        long bestDif = Long.MAX_VALUE;
+        int bestNum = -1;
+        for (int cur : nums) {
+            long dif = Math.abs((long) numID - cur);
+            if (dif < bestDif) {
+                bestDif = dif;
+                bestNum = cur;
+            }
+        }
+        return bestNum;
+    }
+}
@@ -0,0 +1,155 @@
+package skipGraph;
+
+import util.Const;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Contention microbenchmark of the neighbor tables of LookupTable. Reader threads
+ * walk the lists of the data nodes the way searches do, while writer threads keep
+ * replacing neighbors with conditional puts the way insertions do. The lock-free
+ * tables are compared with the read-write locked tables LookupTable used before.
+ * Run it with the main method; it is not part of the tests.
+ */
+public class LookupTableContentionBenchmark {
+
+    private static final int MAX_LEVELS = 8;
+    private static final int DATA_NODES = 256;
+    private static final int READERS = 6;
+    private static final int WRITERS = 2;
+    private static final long DURATION = 2_000; // in ms
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int round = 0; round < 2; round++) {
+            // the first round warms up
+            run("locked", new LockedTables());
+            run("lock-free", new LockFreeTables());
+        }
+    }
+
+    private static void run(String name, Neighbors tables) throws InterruptedException {
+        NodeInfo[] nodes = new NodeInfo[DATA_NODES];
+        for (int i = 0; i < DATA_NODES; i++) {
+            nodes[i] = new NodeInfo("127.0.0.1:7000", i, Integer.toBinaryString(i));
+            tables.add(nodes[i]);
+        }
+        for (int i = 0; i < DATA_NODES; i++) {
+            for (int level = 0; level <= MAX_LEVELS; level++) {
+                tables.put(i, level, Const.RIGHT, nodes[(i + 1) % DATA_NODES], null);
+                tables.put(i, level, Const.LEFT, nodes[(i + DATA_NODES - 1) % DATA_NODES], null);
+            }
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        AtomicLong writes = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(READERS + WRITERS);
+        for (int t = 0; t < READERS; t++) {
+            int seed = t;
+            new Thread(() -> {
+                Random rnd = new Random(seed);
+                long count = 0;
+                while (running.get()) {
+                    // a walk of a few hops along one level, as a search does
+                    int num = rnd.nextInt(DATA_NODES);
+                    int level = rnd.nextInt(MAX_LEVELS + 1);
+                    int direction = rnd.nextInt(2);
+                    for (int hop = 0; hop < 16; hop++) {
+                        NodeInfo next = tables.get(num, level, direction);
+                        count++;
+                        if (next == null)
+                            break;
+                        num = next.getNumID();
+                    }
+                }
+                reads.addAndGet(count);
+                done.countDown();
+            }).start();
+        }
+        for (int t = 0; t < WRITERS; t++) {
+            int seed = 100 + t;
+            new Thread(() -> {
+                Random rnd = new Random(seed);
+                long count = 0;
+                while (running.get()) {
+                    int num = rnd.nextInt(DATA_NODES);
+                    int level = rnd.nextInt(MAX_LEVELS + 1);
+                    int direction = rnd.nextInt(2);
+                    NodeInfo old = tables.get(num, level, direction);
+                    NodeInfo replacement = nodes[rnd.nextInt(DATA_NODES)];
+                    tables.put(num, level, direction, replacement, old);
+                    count++;
+                }
+                writes.addAndGet(count);
+                done.countDown();
+            }).start();
+        }
+        Thread.sleep(DURATION);
+        running.set(false);
+        done.await();
+        System.out.printf("%s: %.1f M reads/s, %.1f M writes/s%n", name,
+                reads.get() / (DURATION * 1000.0), writes.get() / (DURATION * 1000.0));
+    }
+
+    private interface Neighbors {
+        void add(NodeInfo node);
+
+        NodeInfo get(int numID, int level, int direction);
+
+        boolean put(int numID, int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode);
+    }
+
+    private static class LockFreeTables implements Neighbors {
+        private final LookupTable lookup = new LookupTable(MAX_LEVELS);
+
+        public void add(NodeInfo node) {
+            lookup.addNode(node);
+        }
+
+        public NodeInfo get(int numID, int level, int direction) {
+            return lookup.get(numID, level, direction);
+        }
+
+        public boolean put(int numID, int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode) {
+            return lookup.put(numID, level, direction, newNode, expectedOldNode);
+        }
+    }
+
+    // the tables LookupTable used before: a map per node behind a fair read-write
+    // lock, and a conditional put that reverts the slot if the old node differs
+    private static class LockedTables implements Neighbors {
+        private final Map<Integer, ReadWriteLock> locks = new ConcurrentHashMap<>();
+        private final Map<Integer, Map<Integer, NodeInfo>> tables = new ConcurrentHashMap<>();
+
+        public void add(NodeInfo node) {
+            locks.put(node.getNumID(), new ReentrantReadWriteLock(true));
+            tables.put(node.getNumID(), new ConcurrentHashMap<>());
+        }
+
+        public NodeInfo get(int numID, int level, int direction) {
+            ReadWriteLock lock = locks.get(numID);
+            lock.readLock().lock();
+            try {
+                return tables.get(numID).get(2 * level + direction);
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        public boolean put(int numID, int level, int direction, NodeInfo newNode, NodeInfo expectedOldNode) {
+            Map<Integer, NodeInfo> table = tables.get(numID);
+            NodeInfo cur = table.put(2 * level + direction, newNode);
+            if (expectedOldNode == null || expectedOldNode.equals(cur))
+                return true;
+            table.put(2 * level + direction, cur);
+            return false;
+        }
+    }
+}
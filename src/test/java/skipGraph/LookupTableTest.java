@@ -0,0 +1,257 @@
+package skipGraph;
+
+import org.junit.jupiter.api.Test;
+import util.Const;
+import util.Util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LookupTableTest {
+
+    private final int maxLevels = 3;
+
+    // a neighbor is only replaced if the expected one is in place, also under concurrent updates
+    @Test
+    void testPutExpectedOldNode() throws InterruptedException {
+        LookupTable table = new LookupTable(maxLevels);
+        table.addNode(new NodeInfo("127.0.0.1:7000", 10, "000"));
+        NodeInfo a = new NodeInfo("127.0.0.1:7001", 20, "001");
+        NodeInfo b = new NodeInfo("127.0.0.1:7002", 30, "010");
+
+        assertTrue(table.put(10, 0, Const.RIGHT, a, null));
+        assertFalse(table.put(10, 0, Const.RIGHT, b, b));
+        assertEquals(a, table.get(10, 0, Const.RIGHT));
+        assertTrue(table.put(10, 0, Const.RIGHT, b, a));
+        assertEquals(b, table.get(10, 0, Const.RIGHT));
+        assertFalse(table.put(11, 0, Const.RIGHT, a, null));
+
+        // every thread tries to replace the same neighbor, only one of them can win
+        int threads = 8;
+        int[] wins = new int[1];
+        List<Thread> list = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            NodeInfo mine = new NodeInfo("127.0.0.1:7100", 100 + i, "011");
+            Thread t = new Thread(() -> {
+                if (table.put(10, 0, Const.RIGHT, mine, b)) {
+                    synchronized (wins) {
+                        wins[0]++;
+                    }
+                }
+            });
+            list.add(t);
+            t.start();
+        }
+        for (Thread t : list)
+            t.join();
+        assertEquals(1, wins[0]);
+    }
+
+    // reading the table of a node that is being inserted waits until it is finalized
+    @Test
+    void testBufferedTableVisibility() throws InterruptedException {
+        LookupTable table = new LookupTable(maxLevels);
+        NodeInfo neighbor = new NodeInfo("127.0.0.1:7001", 20, "001");
+        table.initializeNode(new NodeInfo("127.0.0.1:7000", 10, "000"));
+        table.put(10, 0, Const.RIGHT, neighbor, null);
+        assertFalse(table.isLockAvailable(10));
+
+        NodeInfo[] read = new NodeInfo[1];
+        Thread reader = new Thread(() -> read[0] = table.get(10, 0, Const.RIGHT));
+        reader.start();
+        reader.join(200);
+        assertTrue(reader.isAlive(), "the buffered table was read before it was finalized");
+
+        table.finalizeNode(10);
+        reader.join(5000);
+        assertFalse(reader.isAlive());
+        assertEquals(neighbor, read[0]);
+        assertTrue(table.isLockAvailable(10));
+    }
+
+    // several nodes can be inserted at the same time, each with its own buffer
+    @Test
+    void testConcurrentBuffers() throws InterruptedException {
+        LookupTable table = new LookupTable(maxLevels);
+        NodeInfo a = new NodeInfo("127.0.0.1:7000", 10, "000");
+        NodeInfo b = new NodeInfo("127.0.0.1:7000", 20, "001");
+        table.initializeNode(a);
+        table.initializeNode(b);
+        assertTrue(table.isBuffered(10));
+        assertTrue(table.isBuffered(20));
+        assertTrue(table.put(10, 0, Const.RIGHT, b, null));
+        assertTrue(table.put(20, 0, Const.LEFT, a, null));
+
+        // finalizing one node publishes its table but leaves the other one buffered
+        assertTrue(table.finalizeNode(20));
+        assertFalse(table.isBuffered(20));
+        assertEquals(a, table.get(20, 0, Const.LEFT));
+        assertEquals(20, table.getBestNum(11));
+        assertFalse(table.isLockAvailable(10));
+
+        NodeInfo[] read = new NodeInfo[1];
+        Thread reader = new Thread(() -> read[0] = table.get(10, 0, Const.RIGHT));
+        reader.start();
+        reader.join(200);
+        assertTrue(reader.isAlive(), "the buffered table was read before it was finalized");
+        assertTrue(table.finalizeNode(10));
+        reader.join(5000);
+        assertEquals(b, read[0]);
+        assertFalse(table.finalizeNode(10));
+
+        // a discarded insertion releases its readers and leaves no trace
+        table.initializeNode(new NodeInfo("127.0.0.1:7000", 30, "010"));
+        Thread waiting = new Thread(() -> read[0] = table.get(30, 0, Const.LEFT));
+        waiting.start();
+        table.discardNode(30);
+        waiting.join(5000);
+        assertFalse(waiting.isAlive());
+        assertNull(read[0]);
+        assertFalse(table.nodeExist(30));
+    }
+
+    // waiting for an insertion ends as soon as the node is finalized, or after the timeout
+    @Test
+    void testAwaitInsertion() throws InterruptedException {
+        LookupTable table = new LookupTable(maxLevels);
+        assertTrue(table.awaitInsertion(10, 0));
+
+        table.initializeNode(new NodeInfo("127.0.0.1:7000", 10, "000"));
+        assertFalse(table.awaitInsertion(10, 50));
+
+        boolean[] inserted = new boolean[1];
+        long[] waited = new long[1];
+        Thread waiting = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                inserted[0] = table.awaitInsertion(10, 10_000);
+            } catch (InterruptedException e) {
+                e.printStackTrace();
+            }
+            waited[0] = System.nanoTime() - start;
+        });
+        waiting.start();
+        Thread.sleep(100);
+        table.finalizeNode(10);
+        waiting.join(5000);
+        assertTrue(inserted[0]);
+        assertTrue(waited[0] < 5_000_000_000L, "the wait did not end when the node was finalized");
+    }
+
+    // the closest data node is found among the nodes added, finalized and removed
+    @Test
+    void testGetBestNum() {
+        LookupTable table = new LookupTable(maxLevels);
+        assertEquals(-1, table.getBestNum(10));
+
+        table.addNode(new NodeInfo("127.0.0.1:7000", 10, "000"));
+        table.addNode(new NodeInfo("127.0.0.1:7000", 20, "001"));
+        table.addNode(new NodeInfo("127.0.0.1:7000", 40, "010"));
+
+        assertEquals(10, table.getBestNum(0));
+        assertEquals(10, table.getBestNum(15)); // ties go to the smaller numID
+        assertEquals(20, table.getBestNum(16));
+        assertEquals(20, table.getBestNum(20));
+        assertEquals(40, table.getBestNum(Integer.MAX_VALUE));
+
+        // a node in the buffer is not visible until it is finalized
+        table.initializeNode(new NodeInfo("127.0.0.1:7000", 30, "011"));
+        assertEquals(40, table.getBestNum(31));
+        table.finalizeNode(30);
+        assertEquals(30, table.getBestNum(31));
+
+        table.remove(30);
+        table.remove(10);
+        assertEquals(40, table.getBestNum(31));
+        assertEquals(20, table.getBestNum(0));
+    }
+
+    // the index agrees with a scan over all data nodes
+    @Test
+    void testGetBestNumMatchesScan() {
+        LookupTable table = new LookupTable(maxLevels);
+        List<Integer> nums = new ArrayList<>();
+        Random rnd = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            int num = rnd.nextInt(100000);
+            if (table.addNode(new NodeInfo("127.0.0.1:7000", num, "000")))
+                nums.add(num);
+        }
+        for (int i = 0; i < 500; i++)
+            table.remove(nums.remove(rnd.nextInt(nums.size())));
+
+        for (int i = 0; i < 2000; i++) {
+            int target = rnd.nextInt(110000);
+            int best = -1;
+            for (int num : nums) {
+                if (best == -1 || Math.abs(target - num) < Math.abs(target - best)
+                        || (Math.abs(target - num) == Math.abs(target - best) && num < best))
+                    best = num;
+            }
+            assertEquals(best, table.getBestNum(target), "wrong closest numID for " + target);
+        }
+    }
+
+    // the nameID index agrees with comparing the nameIDs of all data nodes
+    @Test
+    void testGetBestNameMatchesScan() {
+        LookupTable table = new LookupTable(maxLevels);
+        List<NodeInfo> nodes = new ArrayList<>();
+        Random rnd = new Random(7);
+        for (int i = 0; i < 1000; i++) {
+            // few distinct nameIDs, so that many data nodes share one
+            NodeInfo node = new NodeInfo("127.0.0.1:7000", rnd.nextInt(100000), randomName(rnd, 8));
+            if (!table.nodeExist(node.getNumID()) && table.addNode(node))
+                nodes.add(node);
+        }
+        for (int i = 0; i < 300; i++)
+            table.remove(nodes.remove(rnd.nextInt(nodes.size())).getNumID());
+
+        for (int i = 0; i < 1000; i++) {
+            String target = randomName(rnd, 8);
+            for (int direction : new int[]{Const.LEFT, Const.RIGHT}) {
+                int best = -1;
+                int num = -1;
+                for (NodeInfo node : nodes) {
+                    int bits = Util.commonBits(target, node.getNameID());
+                    if (bits > best || (bits == best && (direction == Const.RIGHT ? node.getNumID() > num : node.getNumID() < num))) {
+                        best = bits;
+                        num = node.getNumID();
+                    }
+                }
+                assertEquals(num, table.getBestName(target, direction), "wrong best nameID for " + target);
+            }
+        }
+    }
+
+    // data nodes that share a nameID are told apart by the direction
+    @Test
+    void testGetBestNameSameNameID() {
+        LookupTable table = new LookupTable(maxLevels);
+        assertEquals(-1, table.getBestName("111", Const.RIGHT));
+        table.addNode(new NodeInfo("127.0.0.1:7000", 15, "111"));
+        table.addNode(new NodeInfo("127.0.0.1:7000", 50, "111"));
+        table.addNode(new NodeInfo("127.0.0.1:7000", 100, "111"));
+        table.addNode(new NodeInfo("127.0.0.1:7000", 2, "001"));
+
+        assertEquals(100, table.getBestName("110", Const.RIGHT));
+        assertEquals(15, table.getBestName("110", Const.LEFT));
+        assertEquals(2, table.getBestName("000", Const.RIGHT));
+
+        table.remove(100);
+        table.remove(15);
+        assertEquals(50, table.getBestName("110", Const.LEFT));
+        table.remove(50);
+        assertEquals(2, table.getBestName("110", Const.LEFT));
+    }
+
+    private static String randomName(Random rnd, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            sb.append(rnd.nextBoolean() ? '1' : '0');
+        return sb.toString();
+    }
+}
@@ -5,7 +5,9 @@ import org.junit.jupiter.api.Test;
 import underlay.Underlay;
 import underlay.rmi.RMIUnderlay;
 import util.Const;
+import util.Util;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -134,6 +136,94 @@ class SkipNodeTest {
 
     }
 
+    // Test if iterative num ID search finds the same exact results as the recursive one
+    @Test
+    void testSearchByNumIDIterative() {
+
+        Underlay underlay1 = new RMIUnderlay(initialConfig.getPort());
+        SkipNode node1 = new SkipNode(initialConfig, Const.DUMMY_INTRODUCER, true, underlay1);
+        Underlay underlay2 = new RMIUnderlay(config1.getPort());
+        SkipNode node2 = new SkipNode(config1, node1.getAddress(), false, underlay2);
+        Underlay underlay3 = new RMIUnderlay(config2.getPort());
+        SkipNode node3 = new SkipNode(config2, node1.getAddress(), false, underlay3);
+        node1.setSearchMode(SearchMode.ITERATIVE);
+        node2.setSearchMode(SearchMode.ITERATIVE);
+        node3.setSearchMode(SearchMode.ITERATIVE);
+
+        assertEquals(node2.getPeer(), node1.searchByNumID(node2.getNumID()), "node 2 not found");
+        assertEquals(node3.getPeer(), node1.searchByNumID(node3.getNumID()), "node 3 not found");
+        assertEquals(node1.getPeer(), node2.searchByNumID(node1.getNumID()), "node 1 not found");
+        assertEquals(node3.getPeer(), node2.searchByNumID(node3.getNumID()), "node 3 not found");
+        assertEquals(node1.getPeer(), node3.searchByNumID(node1.getNumID()), "node 1 not found");
+        assertEquals(node2.getPeer(), node3.searchByNumID(node2.getNumID()), "node 2 not found");
+
+        // a search for a missing numID ends at the closest node, as in the recursive mode
+        node1.setSearchMode(SearchMode.RECURSIVE);
+        NodeInfo recursive = node1.searchByNumID(numID4);
+        node1.setSearchMode(SearchMode.ITERATIVE);
+        assertEquals(recursive, node1.searchByNumID(numID4));
+
+        underlay1.terminate();
+        underlay2.terminate();
+        underlay3.terminate();
+    }
+
+    // Test if a multi-target search finds the same results as separate searches
+    @Test
+    void testSearchByNumIDs() {
+        Underlay underlay1 = new RMIUnderlay(initialConfig.getPort());
+        SkipNode node1 = new SkipNode(initialConfig, Const.DUMMY_INTRODUCER, true, underlay1);
+        Underlay underlay2 = new RMIUnderlay(config1.getPort());
+        SkipNode node2 = new SkipNode(config1, node1.getAddress(), false, underlay2);
+        Underlay underlay3 = new RMIUnderlay(config2.getPort());
+        SkipNode node3 = new SkipNode(config2, node1.getAddress(), false, underlay3);
+        node2.insertDataNode(numID4, nameID4);
+        node3.insertDataNode(numID5, nameID1);
+        node3.insertDataNode(numID6, nameID3);
+
+        int[] targets = {numID1, numID2, numID3, numID4, numID5, numID6, 0, 10, 30, 75, 1000, numID3};
+        List<NodeInfo> results = node1.searchByNumIDs(targets);
+        assertEquals(targets.length, results.size());
+        for (int i = 0; i < targets.length; i++)
+            assertEquals(node1.searchByNumID(targets[i]), results.get(i), "wrong result for " + targets[i]);
+        assertEquals(node3.getPeer(), results.get(2));
+        assertEquals(numID6, results.get(5).getNumID());
+
+        underlay1.terminate();
+        underlay2.terminate();
+        underlay3.terminate();
+    }
+
+    // Test if a repeated num ID search is served from the location cache, and a deleted
+    // node is no longer served from it
+    @Test
+    void testSearchByNumIDCached() {
+        Underlay underlay1 = new RMIUnderlay(initialConfig.getPort());
+        SkipNode node1 = new SkipNode(initialConfig, Const.DUMMY_INTRODUCER, true, underlay1);
+        Underlay underlay2 = new RMIUnderlay(config1.getPort());
+        SkipNode node2 = new SkipNode(config1, node1.getAddress(), false, underlay2);
+        Underlay underlay3 = new RMIUnderlay(config2.getPort());
+        SkipNode node3 = new SkipNode(config2, node1.getAddress(), false, underlay3);
+        node3.insertDataNode(numID6, nameID1);
+
+        LocationCache cache = node1.getLocationCache();
+        NodeInfo first = node1.searchByNumID(numID6);
+        assertEquals(numID6, first.getNumID());
+        assertEquals(0, cache.getHits());
+        assertEquals(first, node1.searchByNumID(numID6));
+        assertEquals(1, cache.getHits());
+
+        node3.delete(numID6);
+        NodeInfo afterDelete = node1.searchByNumID(numID6);
+        assertNotEquals(numID6, afterDelete.getNumID());
+        assertEquals(1, cache.getHits());
+        assertNull(cache.get(numID6));
+
+        underlay1.terminate();
+        underlay2.terminate();
+        underlay3.terminate();
+    }
+
     // Test if name ID search finds exact results
     @Test
     void testSearchByNameIDExact() {
@@ -250,4 +340,88 @@ class SkipNodeTest {
 
     }
 
+    // Test if the data nodes of one node are collected in batches and the limit is respected
+    @Test
+    void testGetNodesWithNameIDLimit() {
+        Underlay underlay = new RMIUnderlay(initialConfig.getPort());
+        SkipNode node = new SkipNode(initialConfig, Const.DUMMY_INTRODUCER, true, underlay);
+        node.insertDataNode(numID4, nameID4);
+        node.insertDataNode(numID5, nameID4);
+        node.insertDataNode(numID6, nameID4);
+
+        List<NodeInfo> all = node.getNodesWithNameID(nameID4);
+        assertEquals(3, all.size());
+        assertTrue(all.contains(node.getNode(numID4)), "data node " + numID4 + " was not found");
+        assertTrue(all.contains(node.getNode(numID5)), "data node " + numID5 + " was not found");
+        assertTrue(all.contains(node.getNode(numID6)), "data node " + numID6 + " was not found");
+
+        List<NodeInfo> limited = node.getNodesWithNameID(nameID4, 2);
+        assertEquals(2, limited.size());
+        assertNotEquals(limited.get(0), limited.get(1));
+
+        // every data node is hosted by the node, so a single scan returns all of them in order
+        LevelScan scan = node.scanLevel(numID4, maxLevels, Const.RIGHT, 10);
+        assertTrue(scan.isLast());
+        assertEquals(3, scan.getNodes().size());
+        assertEquals(numID4, scan.getNodes().get(0).getNumID());
+        assertEquals(numID6, scan.getNodes().get(2).getNumID());
+
+        underlay.terminate();
+    }
+
+    // Test if a batch of data nodes is linked at every level as if the nodes were inserted one by one
+    @Test
+    void testInsertNodes() {
+        Underlay underlay1 = new RMIUnderlay(initialConfig.getPort());
+        SkipNode node1 = new SkipNode(initialConfig, Const.DUMMY_INTRODUCER, true, underlay1);
+        Underlay underlay2 = new RMIUnderlay(config1.getPort());
+        SkipNode node2 = new SkipNode(config1, node1.getAddress(), false, underlay2);
+        node2.insertDataNode(10, "011");
+
+        List<NodeInfo> batch = new ArrayList<>();
+        batch.add(new NodeInfo(node1.getAddress(), 21, "011"));
+        batch.add(new NodeInfo(node1.getAddress(), 5, "000"));
+        batch.add(new NodeInfo(node1.getAddress(), 6, "011"));
+        batch.add(new NodeInfo(node1.getAddress(), 7, "001"));
+        batch.add(new NodeInfo(node1.getAddress(), 20, "111"));
+        batch.add(new NodeInfo(node1.getAddress(), 40, "100"));
+        node1.insertNodes(batch);
+
+        List<NodeInfo> all = new ArrayList<>(batch);
+        all.add(node1.getPeer());
+        all.add(node2.getPeer());
+        all.add(node2.getNode(10));
+        for (NodeInfo node : all) {
+            SkipNode host = node.getAddress().equals(node1.getAddress()) ? node1 : node2;
+            assertNotNull(host.getNode(node.getNumID()), "node " + node.getNumID() + " was not inserted");
+            assertEquals(node.getNumID(), node1.searchByNumID(node.getNumID()).getNumID());
+            for (int level = Const.ZERO_LEVEL; level <= maxLevels; level++) {
+                assertEquals(expectedNeighbor(all, node, level, Const.LEFT), numOf(host.getLeftNode(level, node.getNumID())),
+                        "wrong left neighbor of " + node.getNumID() + " at level " + level);
+                assertEquals(expectedNeighbor(all, node, level, Const.RIGHT), numOf(host.getRightNode(level, node.getNumID())),
+                        "wrong right neighbor of " + node.getNumID() + " at level " + level);
+            }
+        }
+
+        underlay1.terminate();
+        underlay2.terminate();
+    }
+
+    // the closest node in the given direction that shares at least level bits with the given node
+    private static int expectedNeighbor(List<NodeInfo> all, NodeInfo node, int level, int direction) {
+        int best = -1;
+        for (NodeInfo other : all) {
+            boolean past = direction == Const.RIGHT ? other.getNumID() > node.getNumID() : other.getNumID() < node.getNumID();
+            if (!past || Util.commonBits(other.getNameID(), node.getNameID()) < level)
+                continue;
+            if (best == -1 || Math.abs(other.getNumID() - node.getNumID()) < Math.abs(best - node.getNumID()))
+                best = other.getNumID();
+        }
+        return best;
+    }
+
+    private static int numOf(NodeInfo node) {
+        return node == null ? -1 : node.getNumID();
+    }
+
 }
@@ -5,12 +5,19 @@ import blockchain.Parameters;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import underlay.mock.MockUnderlay;
+import underlay.requests.GenericRequest;
 import underlay.requests.lightchain.GetModeRequest;
 import underlay.requests.lightchain.GetPublicKeyRequest;
 import underlay.requests.skipgraph.PingRequest;
 import underlay.responses.EmptyResponse;
+import underlay.responses.GenericResponse;
 import util.Const;
 import util.Util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static underlay.responses.BooleanResponse.BooleanResponseOf;
 import static underlay.responses.PublicKeyResponse.PublicKeyResponseOf;
@@ -71,8 +78,44 @@ public class MockUnderlayTest {
         assertEquals(node1.getPeer(), node2.searchByNameID(node1.getNameID()), "node 1 not found");
     }
 
+    /**
+     * Requests sent through sendMessageAsync are delivered intact, and their futures complete with the
+     * same responses that sendMessage returns.
+     */
+    @Test
+    void sendMessageAsyncTest() throws Exception {
+        assertEquals(node2.getMode(), BooleanResponseOf(mockUnderlay1.sendMessageAsync(new GetModeRequest(), address2).get()).result, "not equal");
+        assertEquals(node1.getPublicKey(), PublicKeyResponseOf(mockUnderlay2.sendMessageAsync(new GetPublicKeyRequest(), address1, 10_000).get()).result, "not equal");
+        assertEquals(EmptyResponse.class, mockUnderlay1.sendMessageAsync(new PingRequest(), address2).get().getClass(), "not equal");
+    }
 
-
-
-
+    /**
+     * Cancelling the future of an asynchronous request interrupts the thread that answers it.
+     */
+    @Test
+    void cancelAsyncTest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        String slowAddress = IP + ":7052";
+        MockUnderlay slowUnderlay = new MockUnderlay(slowAddress) {
+            @Override
+            public GenericResponse answer(GenericRequest req) {
+                started.countDown();
+                try {
+                    Thread.sleep(60_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return null;
+            }
+        };
+        try {
+            CompletableFuture<GenericResponse> future = mockUnderlay1.sendMessageAsync(new PingRequest(), slowAddress);
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            future.cancel(true);
+            assertTrue(interrupted.await(10, TimeUnit.SECONDS), "request not interrupted");
+        } finally {
+            slowUnderlay.terminate();
+        }
+    }
 }
@@ -0,0 +1,224 @@
+package underlay;
+
+import blockchain.Block;
+import blockchain.LightChainNode;
+import blockchain.Parameters;
+import blockchain.Transaction;
+import fixture.Fixtures;
+import skipGraph.LevelScan;
+import skipGraph.NodeInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import underlay.nio.NIOUnderlay;
+import underlay.nio.WireCodec;
+import underlay.requests.lightchain.GetModeRequest;
+import underlay.requests.lightchain.GetPublicKeyRequest;
+import underlay.requests.lightchain.NewBlockRequest;
+import underlay.requests.lightchain.PoVRequest;
+import underlay.requests.GenericRequest;
+import underlay.requests.skipgraph.PingRequest;
+import underlay.requests.skipgraph.ScanLevelRequest;
+import underlay.requests.skipgraph.SearchNumIDsRequest;
+import underlay.responses.EmptyResponse;
+import underlay.responses.GenericResponse;
+import underlay.responses.LevelScanResponse;
+import underlay.responses.NodeInfoListResponse;
+import util.Const;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static underlay.responses.BooleanResponse.BooleanResponseOf;
+import static underlay.responses.PublicKeyResponse.PublicKeyResponseOf;
+
+/**
+ * NIOUnderlay tests that run two LightChain nodes over the NIO transport on the loopback interface
+ * and check that their messages are delivered intact through the binary wire format.
+ */
+public class NIOUnderlayTest {
+  private static int port = 7100;
+  private NIOUnderlay underlay1;
+  private NIOUnderlay underlay2;
+  private LightChainNode node1;
+  private LightChainNode node2;
+
+  @BeforeEach
+  public void init() {
+    Parameters params = new Parameters();
+    int port1 = port++;
+    int port2 = port++;
+    underlay1 = new NIOUnderlay(port1);
+    node1 = new LightChainNode(params, port1, Const.DUMMY_INTRODUCER, true, underlay1);
+    underlay2 = new NIOUnderlay(port2);
+    node2 = new LightChainNode(params, port2, node1.getAddress(), false, underlay2);
+  }
+
+  @AfterEach
+  public void destroy() {
+    underlay1.terminate();
+    underlay2.terminate();
+  }
+
+  /**
+   * LightChain messages sent over NIO return the same values as the nodes themselves.
+   */
+  @Test
+  void sendMessageLightChainTest() {
+    assertEquals(node2.getMode(), BooleanResponseOf(underlay1.sendMessage(new GetModeRequest(), node2.getAddress())).result);
+    assertEquals(node2.getPublicKey(), PublicKeyResponseOf(underlay1.sendMessage(new GetPublicKeyRequest(), node2.getAddress())).result);
+    assertEquals(node1.getPublicKey(), PublicKeyResponseOf(underlay2.sendMessage(new GetPublicKeyRequest(), node1.getAddress())).result);
+    assertEquals(EmptyResponse.class, underlay1.sendMessage(new PingRequest(), node2.getAddress()).getClass());
+  }
+
+  /**
+   * Skip graph searches that go through the NIO transport find both nodes.
+   */
+  @Test
+  void sendMessageSkipNodeTest() {
+    assertEquals(node2.getPeer(), node1.searchByNumID(node2.getNumID()), "node 2 not found");
+    assertEquals(node1.getPeer(), node2.searchByNumID(node1.getNumID()), "node 1 not found");
+
+    assertEquals(node2.getPeer(), node1.searchByNameID(node2.getNameID()), "node 2 not found");
+    assertEquals(node1.getPeer(), node2.searchByNameID(node1.getNameID()), "node 1 not found");
+  }
+
+  /**
+   * A transaction survives the binary wire format intact, including its signatures.
+   */
+  @Test
+  void transactionWireFormatTest() throws IOException {
+    Transaction t = Fixtures.TransactionFixture();
+    t.addSignature(Fixtures.SignedBytesFixture());
+
+    ByteBuffer frame = WireCodec.encodeRequest(42, new PoVRequest(t));
+    assertEquals(frame.remaining() - 4, frame.getInt());
+    assertEquals(WireCodec.REQUEST, frame.get());
+    assertEquals(42, frame.getInt());
+    PoVRequest decoded = (PoVRequest) WireCodec.readRequest(new DataInputStream(
+            new ByteArrayInputStream(frame.array(), frame.position(), frame.remaining())));
+
+    assertNull(decoded.blk);
+    assertEquals(t, decoded.t);
+    assertEquals(t.getHash(), decoded.t.getHash());
+    assertEquals(t.getCont(), decoded.t.getCont());
+    assertEquals(t.getOwner(), decoded.t.getOwner());
+    assertArrayEquals(t.getSigma().get(0).getBytes(), decoded.t.getSigma().get(0).getBytes());
+  }
+
+  /**
+   * Batched skip graph requests and their responses keep every field in the binary wire format.
+   */
+  @Test
+  void batchedSearchWireFormatTest() throws IOException {
+    SearchNumIDsRequest req = (SearchNumIDsRequest) decodeRequest(new SearchNumIDsRequest(3, new int[] {5, 1, 9}, 2));
+    assertEquals(3, req.numID);
+    assertArrayEquals(new int[] {5, 1, 9}, req.searchTargets);
+    assertEquals(2, req.level);
+
+    ScanLevelRequest scan = (ScanLevelRequest) decodeRequest(new ScanLevelRequest(4, 3, Const.RIGHT, 64));
+    assertEquals(4, scan.numID);
+    assertEquals(3, scan.level);
+    assertEquals(Const.RIGHT, scan.direction);
+    assertEquals(64, scan.limit);
+
+    NodeInfo a = new NodeInfo("127.0.0.1:7000", 4, "011");
+    NodeInfo b = new NodeInfo("127.0.0.1:7001", 8, "011");
+    LevelScan decoded = ((LevelScanResponse) decodeResponse(
+        new LevelScanResponse(new LevelScan(Arrays.asList(a, b), null)))).result;
+    assertEquals(Arrays.asList(a, b), decoded.getNodes());
+    assertTrue(decoded.isLast());
+
+    List<NodeInfo> found = ((NodeInfoListResponse) decodeResponse(
+        new NodeInfoListResponse(Arrays.asList(a, null, b)))).result;
+    assertEquals(Arrays.asList(a, null, b), found);
+  }
+
+  /**
+   * A pushed block keeps the fields the tip cache relies on in the binary wire format.
+   */
+  @Test
+  void newBlockWireFormatTest() throws IOException {
+    Block blk = new Block("000", 5, "127.0.0.1:7000", 3, 3);
+    Block decoded = ((NewBlockRequest) decodeRequest(new NewBlockRequest(blk))).blk;
+    assertEquals(blk, decoded);
+    assertEquals(blk.getHash(), decoded.getHash());
+    assertArrayEquals(blk.getMerkleRoot(), decoded.getMerkleRoot());
+    assertEquals(3, decoded.getIndex());
+  }
+
+  /**
+   * A response that fails to decode fails only its own request; the selector thread keeps serving
+   * the other connections.
+   */
+  @Test
+  void malformedResponseTest() throws Exception {
+    try (ServerSocket fakePeer = new ServerSocket(0)) {
+      CompletableFuture<GenericResponse> future =
+          underlay1.sendMessageAsync(new PingRequest(), "127.0.0.1:" + fakePeer.getLocalPort());
+      try (Socket socket = fakePeer.accept()) {
+        DataInputStream in = new DataInputStream(socket.getInputStream());
+        int length = in.readInt();
+        in.readByte();
+        int requestID = in.readInt();
+        in.readFully(new byte[length - WireCodec.HEADER_SIZE]);
+
+        // a serialized String where a response is expected
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(serialized)) {
+          oos.writeObject("not a response");
+        }
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeInt(WireCodec.HEADER_SIZE + 1 + 4 + serialized.size());
+        out.writeByte(WireCodec.RESPONSE);
+        out.writeInt(requestID);
+        out.writeByte(8); // SERIALIZED_RESPONSE
+        out.writeInt(serialized.size());
+        out.write(serialized.toByteArray());
+        out.flush();
+
+        assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+      }
+    }
+    assertEquals(EmptyResponse.class, underlay1.sendMessage(new PingRequest(), node2.getAddress()).getClass());
+  }
+
+  /**
+   * Connecting to a peer that does not answer does not hold up the requests to other peers.
+   */
+  @Test
+  void unreachablePeerTest() {
+    long start = System.currentTimeMillis();
+    CompletableFuture<GenericResponse> future = underlay1.sendMessageAsync(new PingRequest(), "10.255.255.1:7000");
+    assertEquals(EmptyResponse.class, underlay1.sendMessage(new PingRequest(), node2.getAddress()).getClass());
+    assertTrue(System.currentTimeMillis() - start < 5_000);
+    future.cancel(true);
+  }
+
+  private static GenericRequest decodeRequest(GenericRequest req) throws IOException {
+    ByteBuffer frame = WireCodec.encodeRequest(1, req);
+    frame.position(WireCodec.HEADER_SIZE + 4);
+    return WireCodec.readRequest(new DataInputStream(
+        new ByteArrayInputStream(frame.array(), frame.position(), frame.remaining())));
+  }
+
+  private static GenericResponse decodeResponse(GenericResponse res) throws IOException {
+    ByteBuffer frame = WireCodec.encodeResponse(1, res);
+    frame.position(WireCodec.HEADER_SIZE + 4);
+    return WireCodec.readResponse(new DataInputStream(
+        new ByteArrayInputStream(frame.array(), frame.position(), frame.remaining())));
+  }
+}
@@ -0,0 +1,71 @@
+package underlay;
+
+import org.junit.jupiter.api.Test;
+import underlay.rmi.RMIService;
+import underlay.rmi.RMIStubCache;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Unit tests for the RMIStubCache, covering hits and misses, LRU eviction and invalidation.
+ */
+public class RMIStubCacheTest {
+
+  /**
+   * A stub that was put in the cache is served from it, and lookups of unknown addresses are
+   * counted as misses.
+   */
+  @Test
+  public void hitAndMissTest() {
+    RMIStubCache cache = new RMIStubCache(4, 60_000);
+    RMIService stub = mock(RMIService.class);
+
+    assertNull(cache.get("10.0.0.1:7000"));
+    cache.put("10.0.0.1:7000", stub);
+    assertSame(stub, cache.get("10.0.0.1:7000"));
+
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  /**
+   * When the capacity is exceeded, the least recently used stub is evicted.
+   */
+  @Test
+  public void lruEvictionTest() {
+    RMIStubCache cache = new RMIStubCache(2, 60_000);
+    RMIService stub1 = mock(RMIService.class);
+    RMIService stub2 = mock(RMIService.class);
+    RMIService stub3 = mock(RMIService.class);
+
+    cache.put("10.0.0.1:7000", stub1);
+    cache.put("10.0.0.2:7000", stub2);
+    // touching the first address makes the second one the least recently used
+    cache.get("10.0.0.1:7000");
+    cache.put("10.0.0.3:7000", stub3);
+
+    assertEquals(2, cache.size());
+    assertSame(stub1, cache.get("10.0.0.1:7000"));
+    assertNull(cache.get("10.0.0.2:7000"));
+    assertSame(stub3, cache.get("10.0.0.3:7000"));
+  }
+
+  /**
+   * Invalidating an address only drops the entry if it still holds the failed stub.
+   */
+  @Test
+  public void invalidateTest() {
+    RMIStubCache cache = new RMIStubCache(4, 60_000);
+    RMIService stale = mock(RMIService.class);
+    RMIService fresh = mock(RMIService.class);
+
+    cache.put("10.0.0.1:7000", fresh);
+    cache.invalidate("10.0.0.1:7000", stale);
+    assertSame(fresh, cache.get("10.0.0.1:7000"));
+
+    cache.invalidate("10.0.0.1:7000", fresh);
+    assertNull(cache.get("10.0.0.1:7000"));
+    assertEquals(1, cache.getInvalidations());
+  }
+}
@@ -0,0 +1,82 @@
+package underlay;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ResponseFutures, covering timeouts, waiting for all futures and quorums.
+ */
+public class ResponseFuturesTest {
+
+  /**
+   * A future that is not completed in time fails with a TimeoutException.
+   */
+  @Test
+  public void withTimeoutTest() throws Exception {
+    CompletableFuture<String> future = ResponseFutures.withTimeout(new CompletableFuture<>(), 50);
+    ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    assertTrue(e.getCause() instanceof TimeoutException);
+
+    CompletableFuture<String> completed = ResponseFutures.withTimeout(CompletableFuture.completedFuture("done"), 50);
+    assertEquals("done", completed.get());
+  }
+
+  /**
+   * allOf keeps the order of the futures and turns failed futures into null results.
+   */
+  @Test
+  public void allOfTest() throws Exception {
+    CompletableFuture<String> failed = new CompletableFuture<>();
+    failed.completeExceptionally(new RuntimeException("unreachable"));
+    List<CompletableFuture<String>> futures =
+        Arrays.asList(CompletableFuture.completedFuture("a"), failed, CompletableFuture.completedFuture("c"));
+
+    assertEquals(Arrays.asList("a", null, "c"), ResponseFutures.allOf(futures).get());
+  }
+
+  /**
+   * A quorum completes as soon as k results were accepted and cancels the futures that are still
+   * running.
+   */
+  @Test
+  public void quorumReachedTest() throws Exception {
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 5; i++) futures.add(new CompletableFuture<>());
+
+    CompletableFuture<List<Integer>> quorum = ResponseFutures.quorum(futures, 2, v -> v % 2 == 0);
+    futures.get(3).complete(1);
+    futures.get(1).complete(2);
+    assertFalse(quorum.isDone());
+    futures.get(4).complete(4);
+
+    assertEquals(Arrays.asList(2, 4), quorum.get());
+    assertTrue(futures.get(0).isCancelled());
+    assertTrue(futures.get(2).isCancelled());
+  }
+
+  /**
+   * A quorum completes with fewer than k results as soon as it can no longer be reached.
+   */
+  @Test
+  public void quorumImpossibleTest() throws Exception {
+    List<CompletableFuture<Integer>> futures = new ArrayList<>();
+    for (int i = 0; i < 3; i++) futures.add(new CompletableFuture<>());
+
+    CompletableFuture<List<Integer>> quorum = ResponseFutures.quorum(futures, 2);
+    futures.get(0).completeExceptionally(new TimeoutException());
+    assertFalse(quorum.isDone());
+    futures.get(1).completeExceptionally(new TimeoutException());
+
+    assertEquals(0, quorum.get().size());
+    assertTrue(futures.get(2).isCancelled());
+    assertEquals(0, ResponseFutures.quorum(futures.subList(0, 1), 2).get().size());
+  }
+}
@@ -0,0 +1,58 @@
+package underlay;
+
+import skipGraph.NodeConfig;
+import skipGraph.SkipNode;
+import underlay.nio.NIOUnderlay;
+import underlay.requests.skipgraph.PingRequest;
+import underlay.requests.skipgraph.SearchByNumIDRequest;
+import underlay.rmi.RMIUnderlay;
+import util.Const;
+
+/**
+ * Loopback benchmark that compares the round trip latency of the RMI and NIO underlays. For each
+ * transport it launches a small skip graph on the local machine and measures pings and numID
+ * searches that are routed through it. Run it with the main method; it is not part of the tests.
+ */
+public class UnderlayBenchmark {
+
+  private static final int NODES = 8;
+  private static final int WARMUP = 500;
+  private static final int ROUNDS = 5000;
+
+  public static void main(String[] args) {
+    run(InterfaceType.RMIInterface, 7300);
+    run(InterfaceType.NIOInterface, 7400);
+    System.exit(0);
+  }
+
+  private static void run(InterfaceType type, int basePort) {
+    Underlay[] underlays = new Underlay[NODES];
+    SkipNode[] nodes = new SkipNode[NODES];
+    for (int i = 0; i < NODES; i++) {
+      int port = basePort + i;
+      underlays[i] = type == InterfaceType.NIOInterface ? new NIOUnderlay(port) : new RMIUnderlay(port);
+      // numIDs and nameIDs are spread so that searches take several hops
+      NodeConfig config = new NodeConfig(3, port, i * 10, Integer.toBinaryString(8 + i).substring(1));
+      String introducer = i == 0 ? Const.DUMMY_INTRODUCER : nodes[0].getAddress();
+      nodes[i] = new SkipNode(config, introducer, i == 0, underlays[i]);
+    }
+
+    Underlay client = underlays[0];
+    String target = nodes[NODES - 1].getAddress();
+
+    for (int i = 0; i < WARMUP; i++) client.sendMessage(new PingRequest(), target);
+    long start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) client.sendMessage(new PingRequest(), target);
+    long pingTime = System.nanoTime() - start;
+
+    for (int i = 0; i < WARMUP; i++) client.sendMessage(new SearchByNumIDRequest(i % (NODES * 10)), target);
+    start = System.nanoTime();
+    for (int i = 0; i < ROUNDS; i++) client.sendMessage(new SearchByNumIDRequest(i % (NODES * 10)), target);
+    long searchTime = System.nanoTime() - start;
+
+    System.out.printf("%s: ping %.1f us/op, searchByNumID %.1f us/op%n",
+            type, pingTime / 1000.0 / ROUNDS, searchTime / 1000.0 / ROUNDS);
+
+    for (Underlay underlay : underlays) underlay.terminate();
+  }
+}